@@ -0,0 +1,159 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.easyxml.parser.EasySAXParser;
+import org.easyxml.xml.Document;
+import org.easyxml.xml.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Operations guarded by AllocationGate, they shall be run with the GC
+ * profiler to measure the bytes allocated per operation.
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    @Param({ "books.xml", "synthetic-1000" })
+    public String source;
+
+    private String xml;
+
+    private Document doc;
+
+    private String[] titles;
+
+    @Setup
+    public void setUp() throws IOException {
+
+	xml = Inputs.load(source);
+
+	doc = EasySAXParser.parseText(xml);
+
+	titles = doc.getValuesOf("book>title");
+
+    }
+
+    @Benchmark
+    public Document parse() {
+
+	return EasySAXParser.parseText(xml);
+
+    }
+
+    @Benchmark
+    public Document construct() {
+
+	Document catalog = new Document("catalog");
+
+	for (int i = 0; i < titles.length; i++) {
+
+	    Element book = new Element("book");
+
+	    book.addChildElement(new Element("title", null, titles[i]));
+
+	    catalog.addChildElement(book);
+
+	}
+
+	return catalog;
+
+    }
+
+    @Benchmark
+    public String[] getValuesOf() {
+
+	return doc.getValuesOf("book>title");
+
+    }
+
+    @Benchmark
+    public String toXml() {
+
+	return doc.toString();
+
+    }
+
+    @Benchmark
+    public String toJSON() {
+
+	return doc.toJSON();
+
+    }
+
+    /**
+     *
+     * Count the elements and attributes of the tree.
+     */
+
+    public static int nodesOf(Element element) {
+
+	int count = 1;
+
+	if (element.getAttributes() != null)
+
+	    count += element.getAttributes().size();
+
+	if (element.getChildren() != null) {
+
+	    for (Map.Entry<String, List<Element>> entry : element.getChildren()
+		    .entrySet()) {
+
+		// Keys with the path sign are indexes of the descendants
+
+		if (entry.getKey().contains(Element.DefaultElementPathSign))
+
+		    continue;
+
+		for (Element child : entry.getValue()) {
+
+		    count += nodesOf(child);
+
+		}
+
+	    }
+
+	}
+
+	return count;
+
+    }
+
+}
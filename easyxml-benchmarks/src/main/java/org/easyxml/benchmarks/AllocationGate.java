@@ -0,0 +1,324 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.easyxml.parser.EasySAXParser;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *
+ * Run AllocationBenchmark with the GC profiler, and compare the bytes
+ * allocated per operation with the baseline file. The process exits with 1
+ * when any operation allocates more than the baseline by the threshold, or
+ * when any operation of the baseline is not measured, so it could be used to
+ * fail the build.
+ *
+ * Usage: AllocationGate baselineFile [update] [threshold=0.10]
+ *
+ * With "update", the measured results are saved as the new baseline instead
+ * of being checked.
+ *
+ * @version $Id$
+ */
+
+public class AllocationGate {
+
+    public static final double DefaultThreshold = 0.10;
+
+    // Name of the secondary result of GCProfiler, prefixed with a middle dot
+    // by JMH before 1.33
+
+    private static final String[] AllocRateNormKeys = { "gc.alloc.rate.norm",
+	    "·gc.alloc.rate.norm" };
+
+    public static void main(String[] args) throws IOException,
+	    RunnerException {
+
+	if (args.length == 0) {
+
+	    System.err
+		    .println("Usage: AllocationGate baselineFile [update] [threshold=0.10]");
+
+	    System.exit(2);
+
+	}
+
+	File baselineFile = new File(args[0]);
+
+	boolean update = false;
+
+	double threshold = DefaultThreshold;
+
+	for (int i = 1; i < args.length; i++) {
+
+	    // Empty arguments are passed by the Maven profile by default
+
+	    if (args[i].isEmpty()) {
+
+		continue;
+
+	    } else if ("update".equals(args[i])) {
+
+		update = true;
+
+	    } else if (args[i].startsWith("threshold=")) {
+
+		threshold = Double.parseDouble(args[i].substring("threshold="
+			.length()));
+
+	    } else {
+
+		throw new IllegalArgumentException("Unexpected argument: "
+			+ args[i]);
+
+	    }
+
+	}
+
+	Map<String, Double> measured = measure();
+
+	if (update) {
+
+	    save(measured, baselineFile);
+
+	    System.out.println("Baseline saved to " + baselineFile);
+
+	    return;
+
+	}
+
+	int regressions = check(measured, load(baselineFile), threshold);
+
+	if (regressions > 0) {
+
+	    System.err.println(String.format(
+		    "%d operation(s) allocate more than %.0f%% over the baseline.",
+		    regressions, threshold * 100));
+
+	    System.exit(1);
+
+	}
+
+    }
+
+    /**
+     *
+     * Run the benchmarks and get the bytes allocated per operation, keyed by
+     * the benchmark name and the source like "parse[books.xml]".
+     */
+
+    public static Map<String, Double> measure() throws RunnerException {
+
+	Options options = new OptionsBuilder()
+		.include(AllocationBenchmark.class.getName() + "\\.")
+		.addProfiler(GCProfiler.class).build();
+
+	Map<String, Double> result = new TreeMap<String, Double>();
+
+	for (RunResult runResult : new Runner(options).run()) {
+
+	    String method = runResult.getParams().getBenchmark();
+
+	    method = method.substring(method.lastIndexOf('.') + 1);
+
+	    String key = method + "[" + runResult.getParams().getParam("source")
+		    + "]";
+
+	    Map<String, Result> secondaries = runResult.getSecondaryResults();
+
+	    for (String name : AllocRateNormKeys) {
+
+		if (secondaries.containsKey(name)) {
+
+		    result.put(key, secondaries.get(name).getScore());
+
+		    break;
+
+		}
+
+	    }
+
+	}
+
+	return result;
+
+    }
+
+    /**
+     *
+     * Print the comparison and count the regressions, the bytes per node is
+     * based on the count of elements and attributes of the source document.
+     * Operations of the baseline without measurement are regressions, so are
+     * no measurement at all.
+     */
+
+    public static int check(Map<String, Double> measured,
+	    Map<String, Double> baseline, double threshold) throws IOException {
+
+	int regressions = 0;
+
+	System.out.println(String.format("%-36s %14s %14s %10s %8s",
+		"Operation", "Baseline(B/op)", "Measured(B/op)", "B/node",
+		"Change"));
+
+	for (Map.Entry<String, Double> entry : measured.entrySet()) {
+
+	    String key = entry.getKey();
+
+	    double bytes = entry.getValue();
+
+	    String source = key.substring(key.indexOf('[') + 1,
+		    key.length() - 1);
+
+	    double perNode = bytes
+		    / AllocationBenchmark.nodesOf(EasySAXParser
+			    .parseText(Inputs.load(source)));
+
+	    Double expected = baseline.get(key);
+
+	    if (expected == null) {
+
+		System.out.println(String.format(
+			"%-36s %14s %14.0f %10.1f %8s", key, "-", bytes,
+			perNode, "new"));
+
+		continue;
+
+	    }
+
+	    double change = expected == 0 ? (bytes == 0 ? 0 : 1) : bytes
+		    / expected - 1;
+
+	    boolean regressed = change > threshold;
+
+	    if (regressed)
+
+		regressions++;
+
+	    System.out.println(String.format(
+		    "%-36s %14.0f %14.0f %10.1f %+7.1f%%%s", key, expected,
+		    bytes, perNode, change * 100, regressed ? " REGRESSED" : ""));
+
+	}
+
+	// Nothing checked means the profiler or the benchmarks are missing
+
+	if (measured.isEmpty()) {
+
+	    System.out
+		    .println("No allocation is measured, is the GC profiler available?");
+
+	    regressions++;
+
+	}
+
+	for (String key : baseline.keySet()) {
+
+	    if (measured.containsKey(key))
+
+		continue;
+
+	    System.out.println(String.format("%-36s %14.0f %14s %10s %8s",
+		    key, baseline.get(key), "-", "-", "MISSING"));
+
+	    regressions++;
+
+	}
+
+	return regressions;
+
+    }
+
+    public static Map<String, Double> load(File file) throws IOException {
+
+	Properties properties = new Properties();
+
+	InputStream in = new FileInputStream(file);
+
+	try {
+
+	    properties.load(in);
+
+	} finally {
+
+	    in.close();
+
+	}
+
+	Map<String, Double> result = new TreeMap<String, Double>();
+
+	for (String key : properties.stringPropertyNames()) {
+
+	    result.put(key, Double.valueOf(properties.getProperty(key)));
+
+	}
+
+	return result;
+
+    }
+
+    /**
+     *
+     * Save the results sorted by the keys, to keep the baseline file easy to
+     * be compared.
+     */
+
+    public static void save(Map<String, Double> measured, File file)
+	    throws IOException {
+
+	StringBuilder sb = new StringBuilder();
+
+	sb.append("# Bytes allocated per operation of AllocationBenchmark\n");
+
+	for (Map.Entry<String, Double> entry : new TreeMap<String, Double>(
+		measured).entrySet()) {
+
+	    sb.append(entry.getKey()).append('=')
+		    .append(Math.round(entry.getValue())).append('\n');
+
+	}
+
+	OutputStream out = new FileOutputStream(file);
+
+	try {
+
+	    out.write(sb.toString().getBytes("ISO-8859-1"));
+
+	} finally {
+
+	    out.close();
+
+	}
+
+    }
+
+}
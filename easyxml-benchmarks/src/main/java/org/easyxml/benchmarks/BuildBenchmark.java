@@ -0,0 +1,118 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.easyxml.xml.Document;
+import org.easyxml.xml.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Compose a catalog of books either element by element with
+ * addChildElement(), or path by path with setValuesOf().
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int books;
+
+    private String[] ids;
+
+    private String[] titles;
+
+    private String[] prices;
+
+    @Setup
+    public void setUp() {
+
+	ids = new String[books];
+
+	titles = new String[books];
+
+	prices = new String[books];
+
+	for (int i = 0; i < books; i++) {
+
+	    ids[i] = "bk" + i;
+
+	    titles[i] = "Title of book " + i;
+
+	    prices[i] = String.valueOf(i % 100) + ".95";
+
+	}
+
+    }
+
+    @Benchmark
+    public Document addChildElement() throws Exception {
+
+	Document doc = new Document("catalog");
+
+	for (int i = 0; i < books; i++) {
+
+	    Element book = new Element("book");
+
+	    book.addAttribute("id", ids[i]);
+
+	    book.addChildElement(new Element("title", null, titles[i]));
+
+	    book.addChildElement(new Element("price", null, prices[i]));
+
+	    doc.addChildElement(book);
+
+	}
+
+	return doc;
+
+    }
+
+    @Benchmark
+    public Document setValuesOf() {
+
+	Document doc = new Document("catalog");
+
+	doc.setValuesOf("book<id", ids);
+
+	doc.setValuesOf("book>title", titles);
+
+	doc.setValuesOf("book>price", prices);
+
+	return doc;
+
+    }
+
+}
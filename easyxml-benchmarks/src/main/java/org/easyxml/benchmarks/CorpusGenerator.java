@@ -0,0 +1,540 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+/**
+ *
+ * Generator of synthetic XML documents for scale testing, the content is
+ * decided by the settings and the seed only, so the same document could be
+ * reproduced offline.
+ *
+ * The document is written to the Writer directly as it is generated, so the
+ * size is not limited by memory. The root contains a sequence of records,
+ * each record is a tree of the configured depth where every element has
+ * fanOut groups of children, and each group has siblings elements of the
+ * same name.
+ *
+ * For example, to generate a document of about 2G bytes:
+ *
+ * java -cp target/benchmarks.jar org.easyxml.benchmarks.CorpusGenerator
+ * out=corpus.xml bytes=2000000000 depth=3 fanOut=4 siblings=3
+ *
+ * @version $Id$
+ */
+
+public class CorpusGenerator {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String Letters = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final String NewLine = "\n";
+
+    private long seed = 20261019L;
+
+    private int depth = 3;
+
+    private int fanOut = 3;
+
+    private int siblings = 2;
+
+    private int attributes = 2;
+
+    private int textSize = 32;
+
+    private int vocabulary = 50;
+
+    private long records = 1000;
+
+    // When positive, records are generated until this many chars are written
+
+    private long targetBytes = 0;
+
+    private boolean indent = true;
+
+    private String[] names;
+
+    private Random random;
+
+    private long written;
+
+    public CorpusGenerator setSeed(long seed) {
+
+	this.seed = seed;
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param depth
+     *            - Levels of elements below each record, 0 for records with
+     *            text only.
+     */
+
+    public CorpusGenerator setDepth(int depth) {
+
+	this.depth = checkNotNegative(depth, "depth");
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param fanOut
+     *            - Count of differently named children groups of an element.
+     */
+
+    public CorpusGenerator setFanOut(int fanOut) {
+
+	this.fanOut = checkNotNegative(fanOut, "fanOut");
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param siblings
+     *            - Count of elements sharing the same name in each group.
+     */
+
+    public CorpusGenerator setSiblings(int siblings) {
+
+	this.siblings = checkNotNegative(siblings, "siblings");
+
+	return this;
+
+    }
+
+    public CorpusGenerator setAttributes(int attributes) {
+
+	this.attributes = checkNotNegative(attributes, "attributes");
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param textSize
+     *            - Count of chars of the innerText of the leaf elements.
+     */
+
+    public CorpusGenerator setTextSize(int textSize) {
+
+	this.textSize = checkNotNegative(textSize, "textSize");
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param vocabulary
+     *            - Count of distinct names of elements and attributes.
+     */
+
+    public CorpusGenerator setVocabulary(int vocabulary) {
+
+	if (vocabulary < 1)
+
+	    throw new IllegalArgumentException(
+		    "vocabulary shall be greater than 0.");
+
+	this.vocabulary = vocabulary;
+
+	return this;
+
+    }
+
+    public CorpusGenerator setRecords(long records) {
+
+	this.records = records;
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param targetBytes
+     *            - Count of chars to be written at least, records are
+     *            generated until it is reached when it is positive.
+     */
+
+    public CorpusGenerator setTargetBytes(long targetBytes) {
+
+	this.targetBytes = targetBytes;
+
+	return this;
+
+    }
+
+    public CorpusGenerator setIndent(boolean indent) {
+
+	this.indent = indent;
+
+	return this;
+
+    }
+
+    /**
+     *
+     * Write the document to the file with UTF-8 encoding.
+     *
+     * @return Count of chars written, which is also the count of bytes since
+     *         only ASCII chars are generated.
+     */
+
+    public long write(File file) throws IOException {
+
+	Writer writer = new BufferedWriter(new OutputStreamWriter(
+		new FileOutputStream(file), UTF8), 64 * 1024);
+
+	try {
+
+	    return write(writer);
+
+	} finally {
+
+	    writer.close();
+
+	}
+
+    }
+
+    /**
+     *
+     * Write the document to the writer.
+     *
+     * @return Count of chars written.
+     */
+
+    public long write(Writer writer) throws IOException {
+
+	random = new Random(seed);
+
+	names = new String[vocabulary];
+
+	for (int i = 0; i < vocabulary; i++) {
+
+	    names[i] = nameOf(i);
+
+	}
+
+	written = 0;
+
+	append(writer, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+
+	append(writer, NewLine);
+
+	append(writer, "<corpus>");
+
+	append(writer, NewLine);
+
+	for (long i = 0; targetBytes > 0 ? written < targetBytes : i < records; i++) {
+
+	    writeElement(writer, "record", 1, depth);
+
+	}
+
+	append(writer, "</corpus>");
+
+	append(writer, NewLine);
+
+	writer.flush();
+
+	return written;
+
+    }
+
+    /**
+     *
+     * Write the element and its descendants, levelsBelow is the count of
+     * levels still to be generated under it.
+     */
+
+    private void writeElement(Writer writer, String name, int level,
+	    int levelsBelow) throws IOException {
+
+	writeIndent(writer, level);
+
+	append(writer, "<");
+
+	append(writer, name);
+
+	for (int i = 0; i < attributes; i++) {
+
+	    append(writer, " ");
+
+	    // Attributes of the same element shall have different names
+
+	    append(writer, names[(i + level) % vocabulary]);
+
+	    if (i >= vocabulary)
+
+		append(writer, String.valueOf(i / vocabulary));
+
+	    append(writer, "=\"");
+
+	    appendText(writer, 1 + random.nextInt(12));
+
+	    append(writer, "\"");
+
+	}
+
+	if (levelsBelow == 0 || fanOut == 0 || siblings == 0) {
+
+	    append(writer, ">");
+
+	    appendText(writer, textSize);
+
+	    append(writer, "</");
+
+	    append(writer, name);
+
+	    append(writer, ">");
+
+	    append(writer, NewLine);
+
+	    return;
+
+	}
+
+	append(writer, ">");
+
+	append(writer, NewLine);
+
+	// Groups of the same parent shall have different names
+
+	int first = random.nextInt(vocabulary);
+
+	for (int group = 0; group < fanOut; group++) {
+
+	    String childName = names[(first + group) % vocabulary];
+
+	    if (group >= vocabulary)
+
+		childName += group / vocabulary;
+
+	    for (int i = 0; i < siblings; i++) {
+
+		writeElement(writer, childName, level + 1, levelsBelow - 1);
+
+	    }
+
+	}
+
+	writeIndent(writer, level);
+
+	append(writer, "</");
+
+	append(writer, name);
+
+	append(writer, ">");
+
+	append(writer, NewLine);
+
+    }
+
+    private void writeIndent(Writer writer, int level) throws IOException {
+
+	if (!indent)
+
+	    return;
+
+	for (int i = 0; i < level; i++) {
+
+	    append(writer, "  ");
+
+	}
+
+    }
+
+    /**
+     *
+     * Append random words, with an escaped '&' now and then.
+     */
+
+    private void appendText(Writer writer, int size) throws IOException {
+
+	StringBuilder sb = new StringBuilder(size + 8);
+
+	while (sb.length() < size) {
+
+	    int next = random.nextInt(32);
+
+	    if (next < 26) {
+
+		sb.append(Letters.charAt(next));
+
+	    } else if (next < 31) {
+
+		sb.append(' ');
+
+	    } else {
+
+		sb.append("&amp;");
+
+	    }
+
+	}
+
+	append(writer, sb);
+
+    }
+
+    private void append(Writer writer, CharSequence text) throws IOException {
+
+	writer.append(text);
+
+	written += text.length();
+
+    }
+
+    /**
+     *
+     * Compose pronounceable names like "bacadu" from the index.
+     */
+
+    private static String nameOf(int index) {
+
+	StringBuilder sb = new StringBuilder();
+
+	do {
+
+	    sb.append("bcdfghjklmnprstvwz".charAt(index % 18));
+
+	    index /= 18;
+
+	    sb.append("aeiou".charAt(index % 5));
+
+	    index /= 5;
+
+	} while (index > 0);
+
+	return sb.toString();
+
+    }
+
+    private static int checkNotNegative(int value, String name) {
+
+	if (value < 0)
+
+	    throw new IllegalArgumentException(name
+		    + " shall not be negative.");
+
+	return value;
+
+    }
+
+    /**
+     *
+     * Generate a document with settings like "out=corpus.xml", "seed=1",
+     * "depth=4", "fanOut=3", "siblings=2", "attributes=2", "textSize=32",
+     * "vocabulary=50", "records=1000", "bytes=1000000000" and "indent=false".
+     */
+
+    public static void main(String[] args) throws IOException {
+
+	CorpusGenerator generator = new CorpusGenerator();
+
+	String out = "corpus.xml";
+
+	for (String arg : args) {
+
+	    int pos = arg.indexOf('=');
+
+	    if (pos == -1)
+
+		throw new IllegalArgumentException("Unexpected argument: "
+			+ arg);
+
+	    String key = arg.substring(0, pos);
+
+	    String value = arg.substring(pos + 1);
+
+	    if ("out".equals(key)) {
+
+		out = value;
+
+	    } else if ("seed".equals(key)) {
+
+		generator.setSeed(Long.parseLong(value));
+
+	    } else if ("depth".equals(key)) {
+
+		generator.setDepth(Integer.parseInt(value));
+
+	    } else if ("fanOut".equals(key)) {
+
+		generator.setFanOut(Integer.parseInt(value));
+
+	    } else if ("siblings".equals(key)) {
+
+		generator.setSiblings(Integer.parseInt(value));
+
+	    } else if ("attributes".equals(key)) {
+
+		generator.setAttributes(Integer.parseInt(value));
+
+	    } else if ("textSize".equals(key)) {
+
+		generator.setTextSize(Integer.parseInt(value));
+
+	    } else if ("vocabulary".equals(key)) {
+
+		generator.setVocabulary(Integer.parseInt(value));
+
+	    } else if ("records".equals(key)) {
+
+		generator.setRecords(Long.parseLong(value));
+
+	    } else if ("bytes".equals(key)) {
+
+		generator.setTargetBytes(Long.parseLong(value));
+
+	    } else if ("indent".equals(key)) {
+
+		generator.setIndent(Boolean.parseBoolean(value));
+
+	    } else {
+
+		throw new IllegalArgumentException("Unknown setting: " + key);
+
+	    }
+
+	}
+
+	long count = generator.write(new File(out));
+
+	System.out.println(String.format("%d bytes written to %s", count, out));
+
+    }
+
+}
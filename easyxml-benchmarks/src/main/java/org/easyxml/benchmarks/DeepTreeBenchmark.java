@@ -0,0 +1,133 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.easyxml.xml.Document;
+import org.easyxml.xml.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Operations over a chain of nested elements, to show how they scale with
+ * the depth.
+ *
+ * Building the chain walks all ancestors in setParent() for every element,
+ * and each ancestor keeps a path key of every descendant, so a chain of
+ * depth d keeps about d^2/2 keys of about d^3/3 chars in total. A 10k-deep
+ * chain would need hundreds of GB, thus the depths are capped to fit a
+ * common heap. Recursive getLevel(), isEmpty(), toString() and toJSON()
+ * would also overflow the default thread stack around a depth of 10k.
+ *
+ * Use ScalingReport to get the complexity exponent between the depths.
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeepTreeBenchmark {
+
+    @Param({ "50", "100", "200", "400" })
+    public int size;
+
+    private Document root;
+
+    private Element leaf;
+
+    @Setup
+    public void setUp() {
+
+	root = new Document("root");
+
+	leaf = chain(root, size);
+
+	leaf.setValue("leaf");
+
+    }
+
+    /**
+     *
+     * Append a chain of nested elements to the container.
+     *
+     * @return The deepest element.
+     */
+
+    static Element chain(Element container, int depth) {
+
+	Element last = container;
+
+	for (int i = 0; i < depth; i++) {
+
+	    last = new Element("e", last);
+
+	}
+
+	return last;
+
+    }
+
+    @Benchmark
+    public Element build() {
+
+	return chain(new Document("root"), size);
+
+    }
+
+    @Benchmark
+    public int getLevel() {
+
+	return leaf.getLevel();
+
+    }
+
+    @Benchmark
+    public Boolean isEmpty() {
+
+	return root.isEmpty();
+
+    }
+
+    @Benchmark
+    public String toXml() {
+
+	return root.toString(0, true, true);
+
+    }
+
+    @Benchmark
+    public String toJSON() {
+
+	return root.toJSON(0);
+
+    }
+
+}
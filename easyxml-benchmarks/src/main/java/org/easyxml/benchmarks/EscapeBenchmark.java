@@ -0,0 +1,111 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.easyxml.util.Escaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Compare the table-driven Escaper with StringEscapeUtils of commons-lang3,
+ * over text without and with chars to be escaped.
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscapeBenchmark {
+
+    @Param({ "clean", "dirty" })
+    public String text;
+
+    private String value;
+
+    private String escaped;
+
+    @Setup
+    public void setUp() {
+
+	value = "clean".equals(text) ? "An in-depth look at creating applications with XML, "
+		+ "the young survivors lay the foundation for a new society."
+		: "Tom & Jerry <cartoon> said \"it's\" the 'best'\tshow\n"
+			+ "of the year & more <b>bold</b> text.";
+
+	escaped = Escaper.XML_TEXT.escape(value);
+
+    }
+
+    @Benchmark
+    public String escaperXml() {
+
+	return Escaper.XML_TEXT.escape(value);
+
+    }
+
+    @Benchmark
+    public String commonsXml() {
+
+	return StringEscapeUtils.escapeXml10(value);
+
+    }
+
+    @Benchmark
+    public String escaperJson() {
+
+	return Escaper.JSON.escape(value);
+
+    }
+
+    @Benchmark
+    public String commonsJson() {
+
+	return StringEscapeUtils.escapeJson(value);
+
+    }
+
+    @Benchmark
+    public String escaperUnescapeXml() {
+
+	return Escaper.unescapeXml(escaped);
+
+    }
+
+    @Benchmark
+    public String commonsUnescapeXml() {
+
+	return StringEscapeUtils.unescapeXml(escaped);
+
+    }
+
+}
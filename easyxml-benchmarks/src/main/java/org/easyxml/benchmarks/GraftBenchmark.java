@@ -0,0 +1,116 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.easyxml.xml.Document;
+import org.easyxml.xml.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ *
+ * Attach a detached subtree, a catalog of the size of books, under an
+ * element nested in a document. setParent() copies the path keys of the
+ * subtree to every ancestor, so the cost grows with both the subtree size
+ * and the depth of the graft point.
+ *
+ * The subtrees are composed before each iteration, which is not measured,
+ * and each of them is grafted once as a single shot of the batch.
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = GraftBenchmark.Batch)
+@Measurement(iterations = 20, batchSize = GraftBenchmark.Batch)
+@Fork(1)
+public class GraftBenchmark {
+
+    static final int Batch = 50;
+
+    @Param({ "250", "500", "1000", "2000" })
+    public int size;
+
+    @Param({ "1", "8" })
+    public int depth;
+
+    private Element[] graftPoints = new Element[Batch];
+
+    private Element[] subtrees = new Element[Batch];
+
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws SAXException {
+
+	for (int i = 0; i < Batch; i++) {
+
+	    graftPoints[i] = DeepTreeBenchmark.chain(new Document("root"),
+		    depth);
+
+	    subtrees[i] = catalog(size);
+
+	}
+
+	next = 0;
+
+    }
+
+    static Element catalog(int books) throws SAXException {
+
+	Element catalog = new Element("catalog");
+
+	for (int i = 0; i < books; i++) {
+
+	    Element book = new Element("book").addAttribute("id", "bk" + i);
+
+	    book.addChildElement(new Element("title", null, "Title " + i));
+
+	    book.addChildElement(new Element("price", null, "5.95"));
+
+	    catalog.addChildElement(book);
+
+	}
+
+	return catalog;
+
+    }
+
+    @Benchmark
+    public Element addChildElement() {
+
+	int i = next++ % Batch;
+
+	return graftPoints[i].addChildElement(subtrees[i]);
+
+    }
+
+}
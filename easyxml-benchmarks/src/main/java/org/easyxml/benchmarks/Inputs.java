@@ -0,0 +1,205 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+/**
+ *
+ * XML sources of the benchmarks: either a file of the test resources like
+ * "books.xml", or a synthetic catalog like "synthetic-10000" with the count
+ * of books specified, or a document of CorpusGenerator like "corpus-1000"
+ * with the count of records specified.
+ *
+ * The synthetic catalogs are generated with a fixed seed, so the same source
+ * name always gives the same content.
+ *
+ * @version $Id$
+ */
+
+public final class Inputs {
+
+    public static final String SyntheticPrefix = "synthetic-";
+
+    public static final String CorpusPrefix = "corpus-";
+
+    public static final long DefaultSeed = 20261019L;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String[] Genres = { "Computer", "Fantasy",
+	    "Romance", "Horror", "Science Fiction" };
+
+    private static final String[] Words = { "XML", "guide", "rain", "queen",
+	    "society", "England", "battles", "corporate", "zombies", "young",
+	    "survivors", "foundation", "&", "<new>", "\"quoted\"" };
+
+    private Inputs() {
+
+    }
+
+    /**
+     *
+     * Get the XML text of the source.
+     *
+     * @param source
+     *            - Name of a test resource, "synthetic-" followed by the
+     *            count of books, or "corpus-" followed by the count of
+     *            records.
+     *
+     * @return XML text of the source.
+     */
+
+    public static String load(String source) throws IOException {
+
+	if (source.startsWith(SyntheticPrefix)) {
+
+	    int books = Integer.parseInt(source.substring(SyntheticPrefix
+		    .length()));
+
+	    return catalog(books, DefaultSeed);
+
+	}
+
+	if (source.startsWith(CorpusPrefix)) {
+
+	    long records = Long.parseLong(source.substring(CorpusPrefix
+		    .length()));
+
+	    StringWriter writer = new StringWriter();
+
+	    new CorpusGenerator().setSeed(DefaultSeed).setRecords(records)
+		    .write(writer);
+
+	    return writer.toString();
+
+	}
+
+	InputStream in = Inputs.class.getClassLoader().getResourceAsStream(
+		source);
+
+	if (in == null)
+
+	    throw new IOException("Resource not found: " + source);
+
+	try {
+
+	    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	    byte[] buffer = new byte[8192];
+
+	    int count;
+
+	    while ((count = in.read(buffer)) != -1) {
+
+		out.write(buffer, 0, count);
+
+	    }
+
+	    return new String(out.toByteArray(), UTF8);
+
+	} finally {
+
+	    in.close();
+
+	}
+
+    }
+
+    /**
+     *
+     * Compose a catalog of the same shape as books.xml.
+     *
+     * @param books
+     *            - Count of book elements.
+     *
+     * @param seed
+     *            - Seed of the random content.
+     *
+     * @return XML text of the catalog.
+     */
+
+    public static String catalog(int books, long seed) {
+
+	Random random = new Random(seed);
+
+	StringBuilder sb = new StringBuilder(books * 400);
+
+	sb.append("<?xml version=\"1.0\"?>\n<catalog>\n");
+
+	for (int i = 0; i < books; i++) {
+
+	    sb.append("   <book id=\"bk").append(100000 + i).append("\">\n");
+
+	    sb.append("      <author>").append(words(random, 2))
+		    .append("</author>\n");
+
+	    sb.append("      <title>").append(words(random, 3))
+		    .append("</title>\n");
+
+	    sb.append("      <genre>")
+		    .append(Genres[random.nextInt(Genres.length)])
+		    .append("</genre>\n");
+
+	    sb.append("      <price>").append(random.nextInt(100)).append('.')
+		    .append(10 + random.nextInt(90)).append("</price>\n");
+
+	    sb.append("      <publish_date>").append(2000 + random.nextInt(20))
+		    .append("-0").append(1 + random.nextInt(9)).append("-1")
+		    .append(random.nextInt(10)).append("</publish_date>\n");
+
+	    sb.append("      <description>").append(words(random, 20))
+		    .append("</description>\n");
+
+	    sb.append("   </book>\n");
+
+	}
+
+	sb.append("</catalog>\n");
+
+	return sb.toString();
+
+    }
+
+    private static String words(Random random, int count) {
+
+	StringBuilder sb = new StringBuilder();
+
+	for (int i = 0; i < count; i++) {
+
+	    if (i != 0)
+
+		sb.append(' ');
+
+	    String word = Words[random.nextInt(Words.length)];
+
+	    // Keep the text well formed
+
+	    sb.append(word.replace("&", "&amp;").replace("<", "&lt;")
+		    .replace(">", "&gt;"));
+
+	}
+
+	return sb.toString();
+
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.easyxml.parser.DomParser;
+import org.easyxml.parser.EasySAXParser;
+import org.easyxml.xml.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Parse the XML text to Document with EasySAXParser and DomParser.
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    // family.xml is not included for its DTD cannot be resolved from text
+
+    @Param({ "app.xml", "books.xml", "class.xml", "employee.xml",
+	    "glossary.xml", "menu.xml", "widget.xml", "synthetic-1000",
+	    "synthetic-10000", "corpus-100" })
+    public String source;
+
+    private String xml;
+
+    @Setup
+    public void setUp() throws IOException {
+
+	xml = Inputs.load(source);
+
+    }
+
+    @Benchmark
+    public Document easySAXParser() {
+
+	return EasySAXParser.parseText(xml);
+
+    }
+
+    @Benchmark
+    public Document domParser() {
+
+	return DomParser.parseText(xml);
+
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.easyxml.parser.EasySAXParser;
+import org.easyxml.xml.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Query the values of a parsed catalog with getValuesOf(), mapOf() and
+ * extractValues().
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({ "books.xml", "synthetic-1000", "synthetic-10000" })
+    public String source;
+
+    private Document doc;
+
+    private Map<String, String> pathMap;
+
+    @Setup
+    public void setUp() throws IOException {
+
+	doc = EasySAXParser.parseText(Inputs.load(source));
+
+	pathMap = new LinkedHashMap<String, String>();
+
+	pathMap.put("book<id", "ID");
+
+	pathMap.put("book>title", "Title");
+
+	pathMap.put("book>price", "Price");
+
+    }
+
+    @Benchmark
+    public String[] getValuesOfElement() {
+
+	return doc.getValuesOf("book>title");
+
+    }
+
+    @Benchmark
+    public String[] getValuesOfAttribute() {
+
+	return doc.getValuesOf("book<id");
+
+    }
+
+    @Benchmark
+    public List<? extends Map<String, String>> mapOf() {
+
+	return doc.mapOf("book");
+
+    }
+
+    @Benchmark
+    public Map<String, String[]> extractValues() {
+
+	return doc.extractValues(pathMap);
+
+    }
+
+}
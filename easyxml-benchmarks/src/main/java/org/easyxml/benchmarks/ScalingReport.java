@@ -0,0 +1,138 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *
+ * Run the structural benchmarks and print the scaling curve of each
+ * operation: the score at each size, and the exponent k of size^k between
+ * adjacent sizes, so 1 means linear and 2 quadratic.
+ *
+ * Usage: java -cp target/benchmarks.jar org.easyxml.benchmarks.ScalingReport
+ * [JMH options], the benchmarks are DeepTreeBenchmark, WideTreeBenchmark and
+ * GraftBenchmark unless specified in the options.
+ *
+ * @version $Id$
+ */
+
+public class ScalingReport {
+
+    public static void main(String[] args) throws RunnerException,
+	    CommandLineOptionException {
+
+	CommandLineOptions commandLine = new CommandLineOptions(args);
+
+	OptionsBuilder builder = new OptionsBuilder();
+
+	if (commandLine.getIncludes().isEmpty()) {
+
+	    builder.include(DeepTreeBenchmark.class.getSimpleName());
+
+	    builder.include(WideTreeBenchmark.class.getSimpleName());
+
+	    builder.include(GraftBenchmark.class.getSimpleName());
+
+	}
+
+	Options options = builder.parent(commandLine).build();
+
+	print(new Runner(options).run());
+
+    }
+
+    /**
+     *
+     * Print the scores grouped by the benchmark and the parameters other than
+     * the size.
+     */
+
+    public static void print(Collection<RunResult> results) {
+
+	Map<String, List<double[]>> curves = new LinkedHashMap<String, List<double[]>>();
+
+	for (RunResult result : results) {
+
+	    String label = result.getParams().getBenchmark();
+
+	    label = label.substring(label.lastIndexOf('.', label.lastIndexOf('.') - 1) + 1);
+
+	    for (String key : result.getParams().getParamsKeys()) {
+
+		if (!"size".equals(key))
+
+		    label += " " + key + "=" + result.getParams().getParam(key);
+
+	    }
+
+	    List<double[]> curve = curves.get(label);
+
+	    if (curve == null) {
+
+		curve = new ArrayList<double[]>();
+
+		curves.put(label, curve);
+
+	    }
+
+	    curve.add(new double[] {
+		    Double.parseDouble(result.getParams().getParam("size")),
+		    result.getPrimaryResult().getScore() });
+
+	}
+
+	for (Map.Entry<String, List<double[]>> entry : curves.entrySet()) {
+
+	    StringBuilder sb = new StringBuilder(entry.getKey()).append(':');
+
+	    double[] last = null;
+
+	    for (double[] point : entry.getValue()) {
+
+		sb.append(String.format(" %.0f=%.3f", point[0], point[1]));
+
+		if (last != null && last[1] > 0 && point[0] != last[0]) {
+
+		    sb.append(String.format(" (k=%.2f)",
+			    Math.log(point[1] / last[1])
+				    / Math.log(point[0] / last[0])));
+
+		}
+
+		last = point;
+
+	    }
+
+	    System.out.println(sb);
+
+	}
+
+    }
+
+}
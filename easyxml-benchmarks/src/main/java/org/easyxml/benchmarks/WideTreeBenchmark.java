@@ -0,0 +1,117 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.easyxml.xml.Document;
+import org.easyxml.xml.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Operations over an element with many children of the same name, to show
+ * how they scale with the width.
+ *
+ * addChildElement() checks List.contains() of the siblings for every new
+ * child, so n siblings take O(n^2) comparisons: 1M siblings would take
+ * about 5 * 10^11 of them for a single build, thus the widths are capped.
+ *
+ * Use ScalingReport to get the complexity exponent between the widths.
+ *
+ * @version $Id$
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WideTreeBenchmark {
+
+    @Param({ "1000", "2000", "4000", "8000" })
+    public int size;
+
+    private Document root;
+
+    @Setup
+    public void setUp() {
+
+	root = siblings(size);
+
+    }
+
+    static Document siblings(int width) {
+
+	Document document = new Document("root");
+
+	for (int i = 0; i < width; i++) {
+
+	    document.addChildElement(new Element("item", null, "v"));
+
+	}
+
+	return document;
+
+    }
+
+    @Benchmark
+    public Document addChildElement() {
+
+	return siblings(size);
+
+    }
+
+    @Benchmark
+    public String[] getValuesOf() {
+
+	return root.getValuesOf("item");
+
+    }
+
+    @Benchmark
+    public Boolean isEmpty() {
+
+	return root.isEmpty();
+
+    }
+
+    @Benchmark
+    public String toXml() {
+
+	return root.toString(0, true, true);
+
+    }
+
+    @Benchmark
+    public String toJSON() {
+
+	return root.toJSON(0);
+
+    }
+
+}
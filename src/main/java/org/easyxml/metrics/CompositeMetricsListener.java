@@ -0,0 +1,92 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *
+ * MetricsListener to forward the measurements to several listeners in
+ * order.
+ *
+ * @version $Id$
+ */
+
+public class CompositeMetricsListener implements MetricsListener {
+
+    private final MetricsListener[] listeners;
+
+    public CompositeMetricsListener(MetricsListener... listeners) {
+
+	this.listeners = listeners.clone();
+
+    }
+
+    public List<MetricsListener> getListeners() {
+
+	return Arrays.asList(listeners.clone());
+
+    }
+
+    @Override
+    public void parsed(String parser, long bytesRead, int nodesCreated,
+	    long durationNanos) {
+
+	for (MetricsListener listener : listeners) {
+
+	    listener.parsed(parser, bytesRead, nodesCreated, durationNanos);
+
+	}
+
+    }
+
+    @Override
+    public void queried(String operation, String path, int resultCount,
+	    boolean indexed, long durationNanos) {
+
+	for (MetricsListener listener : listeners) {
+
+	    listener.queried(operation, path, resultCount, indexed,
+		    durationNanos);
+
+	}
+
+    }
+
+    @Override
+    public void serialized(String format, long length, long durationNanos) {
+
+	for (MetricsListener listener : listeners) {
+
+	    listener.serialized(format, length, durationNanos);
+
+	}
+
+    }
+
+    @Override
+    public void cacheAccessed(String cache, boolean hit) {
+
+	for (MetricsListener listener : listeners) {
+
+	    listener.cacheAccessed(cache, hit);
+
+	}
+
+    }
+
+}
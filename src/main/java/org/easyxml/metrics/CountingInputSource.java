@@ -0,0 +1,140 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import org.xml.sax.InputSource;
+
+/**
+ *
+ * InputSource to count the bytes or chars read from the streams of another
+ * InputSource. Nothing is counted when the source is located by its system
+ * ID only.
+ *
+ * @version $Id$
+ */
+
+public class CountingInputSource extends InputSource {
+
+    private long count = 0;
+
+    public CountingInputSource(InputSource source) {
+
+	setPublicId(source.getPublicId());
+
+	setSystemId(source.getSystemId());
+
+	setEncoding(source.getEncoding());
+
+	if (source.getByteStream() != null)
+
+	    setByteStream(new CountingInputStream(source.getByteStream()));
+
+	if (source.getCharacterStream() != null)
+
+	    setCharacterStream(new CountingReader(source.getCharacterStream()));
+
+    }
+
+    /**
+     *
+     * Get the count of bytes or chars read so far.
+     */
+
+    public long getCount() {
+
+	return count;
+
+    }
+
+    private class CountingInputStream extends FilterInputStream {
+
+	CountingInputStream(InputStream in) {
+
+	    super(in);
+
+	}
+
+	@Override
+	public int read() throws IOException {
+
+	    int b = super.read();
+
+	    if (b != -1)
+
+		count++;
+
+	    return b;
+
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+
+	    int n = super.read(b, off, len);
+
+	    if (n > 0)
+
+		count += n;
+
+	    return n;
+
+	}
+
+    }
+
+    private class CountingReader extends FilterReader {
+
+	CountingReader(Reader in) {
+
+	    super(in);
+
+	}
+
+	@Override
+	public int read() throws IOException {
+
+	    int c = super.read();
+
+	    if (c != -1)
+
+		count++;
+
+	    return c;
+
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+
+	    int n = super.read(cbuf, off, len);
+
+	    if (n > 0)
+
+		count += n;
+
+	    return n;
+
+	}
+
+    }
+
+}
@@ -0,0 +1,351 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+/**
+ *
+ * MetricsListener to keep the cumulative counters exposed by JMX.
+ *
+ * It is opt-in: register() installs it together with the current listener
+ * and registers it on the platform MBean server, unregister() reverts both.
+ *
+ * @version $Id$
+ */
+
+public class DocumentStats implements DocumentStatsMBean, MetricsListener {
+
+    public static final String ObjectNameValue = "org.easyxml:type=DocumentStats";
+
+    private static DocumentStats registered = null;
+
+    private static MetricsListener previous = null;
+
+    // Listener set by register(), to check if it is replaced since then
+
+    private static MetricsListener installed = null;
+
+    /**
+     *
+     * Register a new DocumentStats on the platform MBean server and install it
+     * as a listener, or get the one registered already.
+     *
+     * @return The DocumentStats registered, or null if it failed.
+     */
+
+    public static synchronized DocumentStats register() {
+
+	if (registered != null)
+
+	    return registered;
+
+	DocumentStats stats = new DocumentStats();
+
+	try {
+
+	    ManagementFactory.getPlatformMBeanServer().registerMBean(stats,
+		    new ObjectName(ObjectNameValue));
+
+	} catch (InstanceAlreadyExistsException | MBeanRegistrationException
+		| NotCompliantMBeanException | MalformedObjectNameException e) {
+
+	    e.printStackTrace();
+
+	    return null;
+
+	}
+
+	previous = Metrics.getListener();
+
+	installed = Metrics.isEnabled() ? new CompositeMetricsListener(
+		previous, stats) : stats;
+
+	Metrics.setListener(installed);
+
+	registered = stats;
+
+	return stats;
+
+    }
+
+    /**
+     *
+     * Unregister the DocumentStats and restore the listener installed before
+     * register(), unless the listener has been replaced since register():
+     * then the replacement is kept.
+     */
+
+    public static synchronized void unregister() {
+
+	if (registered == null)
+
+	    return;
+
+	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+	try {
+
+	    server.unregisterMBean(new ObjectName(ObjectNameValue));
+
+	} catch (InstanceNotFoundException | MBeanRegistrationException
+		| MalformedObjectNameException e) {
+
+	    e.printStackTrace();
+
+	}
+
+	if (Metrics.getListener() == installed)
+
+	    Metrics.setListener(previous);
+
+	registered = null;
+
+	previous = null;
+
+	installed = null;
+
+    }
+
+    private final AtomicLong documentsParsed = new AtomicLong();
+
+    private final AtomicLong nodesBuilt = new AtomicLong();
+
+    private final AtomicLong bytesParsed = new AtomicLong();
+
+    private final AtomicLong parseNanos = new AtomicLong();
+
+    private final AtomicLong queries = new AtomicLong();
+
+    private final AtomicLong indexedQueries = new AtomicLong();
+
+    private final AtomicLong serializations = new AtomicLong();
+
+    private final AtomicLong charsSerialized = new AtomicLong();
+
+    private final AtomicLong bytesSerialized = new AtomicLong();
+
+    // Time of the serializations to texts, the throughput is of chars
+
+    private final AtomicLong serializeNanos = new AtomicLong();
+
+    private final AtomicLong planCacheHits = new AtomicLong();
+
+    private final AtomicLong planCacheMisses = new AtomicLong();
+
+    private final AtomicLong queryCacheHits = new AtomicLong();
+
+    private final AtomicLong queryCacheMisses = new AtomicLong();
+
+    @Override
+    public void parsed(String parser, long bytesRead, int nodesCreated,
+	    long durationNanos) {
+
+	documentsParsed.incrementAndGet();
+
+	nodesBuilt.addAndGet(nodesCreated);
+
+	bytesParsed.addAndGet(bytesRead);
+
+	parseNanos.addAndGet(durationNanos);
+
+    }
+
+    @Override
+    public void queried(String operation, String path, int resultCount,
+	    boolean indexed, long durationNanos) {
+
+	queries.incrementAndGet();
+
+	if (indexed)
+
+	    indexedQueries.incrementAndGet();
+
+    }
+
+    @Override
+    public void serialized(String format, long length, long durationNanos) {
+
+	serializations.incrementAndGet();
+
+	if (Metrics.XmlBytes.equals(format)) {
+
+	    bytesSerialized.addAndGet(length);
+
+	    return;
+
+	}
+
+	charsSerialized.addAndGet(length);
+
+	serializeNanos.addAndGet(durationNanos);
+
+    }
+
+    @Override
+    public void cacheAccessed(String cache, boolean hit) {
+
+	if (Metrics.PlanCache.equals(cache))
+
+	    (hit ? planCacheHits : planCacheMisses).incrementAndGet();
+
+	else if (Metrics.QueryCache.equals(cache))
+
+	    (hit ? queryCacheHits : queryCacheMisses).incrementAndGet();
+
+    }
+
+    @Override
+    public long getDocumentsParsed() {
+
+	return documentsParsed.get();
+
+    }
+
+    @Override
+    public long getNodesBuilt() {
+
+	return nodesBuilt.get();
+
+    }
+
+    @Override
+    public long getBytesParsed() {
+
+	return bytesParsed.get();
+
+    }
+
+    @Override
+    public double getAverageParseLatencyMillis() {
+
+	long count = documentsParsed.get();
+
+	return count == 0 ? 0 : parseNanos.get() / 1e6 / count;
+
+    }
+
+    @Override
+    public long getQueries() {
+
+	return queries.get();
+
+    }
+
+    @Override
+    public double getIndexedQueryRate() {
+
+	long count = queries.get();
+
+	return count == 0 ? 0 : (double) indexedQueries.get() / count;
+
+    }
+
+    @Override
+    public long getSerializations() {
+
+	return serializations.get();
+
+    }
+
+    @Override
+    public long getCharsSerialized() {
+
+	return charsSerialized.get();
+
+    }
+
+    @Override
+    public long getBytesSerialized() {
+
+	return bytesSerialized.get();
+
+    }
+
+    @Override
+    public double getSerializerThroughput() {
+
+	long nanos = serializeNanos.get();
+
+	return nanos == 0 ? 0 : charsSerialized.get() * 1e9 / nanos;
+
+    }
+
+    @Override
+    public double getPlanCacheHitRate() {
+
+	return rateOf(planCacheHits.get(), planCacheMisses.get());
+
+    }
+
+    @Override
+    public double getQueryCacheHitRate() {
+
+	return rateOf(queryCacheHits.get(), queryCacheMisses.get());
+
+    }
+
+    @Override
+    public void reset() {
+
+	documentsParsed.set(0);
+
+	nodesBuilt.set(0);
+
+	bytesParsed.set(0);
+
+	parseNanos.set(0);
+
+	queries.set(0);
+
+	indexedQueries.set(0);
+
+	serializations.set(0);
+
+	charsSerialized.set(0);
+
+	bytesSerialized.set(0);
+
+	serializeNanos.set(0);
+
+	planCacheHits.set(0);
+
+	planCacheMisses.set(0);
+
+	queryCacheHits.set(0);
+
+	queryCacheMisses.set(0);
+
+    }
+
+    private static double rateOf(long hits, long misses) {
+
+	long count = hits + misses;
+
+	return count == 0 ? 0 : (double) hits / count;
+
+    }
+
+}
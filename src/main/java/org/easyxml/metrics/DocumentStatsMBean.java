@@ -0,0 +1,87 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+/**
+ *
+ * JMX interface of the cumulative counters of the library, registered as
+ * "org.easyxml:type=DocumentStats" by DocumentStats.register().
+ *
+ * @version $Id$
+ */
+
+public interface DocumentStatsMBean {
+
+    long getDocumentsParsed();
+
+    long getNodesBuilt();
+
+    long getBytesParsed();
+
+    double getAverageParseLatencyMillis();
+
+    long getQueries();
+
+    /**
+     *
+     * Ratio of the queries whose path is found in the attributes or the path
+     * index of the children directly, without being resolved.
+     */
+
+    double getIndexedQueryRate();
+
+    long getSerializations();
+
+    /**
+     *
+     * Chars output by the serializations to texts.
+     */
+
+    long getCharsSerialized();
+
+    /**
+     *
+     * Bytes output by the serializations encoded by a charset.
+     */
+
+    long getBytesSerialized();
+
+    /**
+     *
+     * Chars output per second of the serializations to texts.
+     */
+
+    double getSerializerThroughput();
+
+    /**
+     *
+     * Ratio of the lookups of the paths compiled by PathExpression that are
+     * found in its plan cache.
+     */
+
+    double getPlanCacheHitRate();
+
+    /**
+     *
+     * Ratio of the lookups of the query caches that find a result of the
+     * current version, summed across the documents with the cache enabled.
+     */
+
+    double getQueryCacheHitRate();
+
+    void reset();
+
+}
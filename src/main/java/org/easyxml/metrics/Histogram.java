@@ -0,0 +1,199 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ * Thread-safe histogram of non-negative values, recorded into buckets of
+ * powers of 2 so that it takes fixed memory however many values are
+ * recorded.
+ *
+ * Percentiles are estimated by the upper bound of the bucket, thus they are
+ * accurate within a factor of 2.
+ *
+ * @version $Id$
+ */
+
+public class Histogram {
+
+    // Bucket i keeps the values within [2^(i-1), 2^i - 1], bucket 0 keeps 0
+
+    private static final int BucketCount = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BucketCount);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     *
+     * Record a value, negative values are recorded as 0.
+     */
+
+    public void record(long value) {
+
+	if (value < 0)
+
+	    value = 0;
+
+	buckets.incrementAndGet(bucketOf(value));
+
+	count.incrementAndGet();
+
+	sum.addAndGet(value);
+
+	long current;
+
+	while (value < (current = min.get())
+		&& !min.compareAndSet(current, value)) {
+
+	}
+
+	while (value > (current = max.get())
+		&& !max.compareAndSet(current, value)) {
+
+	}
+
+    }
+
+    public long getCount() {
+
+	return count.get();
+
+    }
+
+    public long getSum() {
+
+	return sum.get();
+
+    }
+
+    /**
+     *
+     * Get the minimum value, or 0 if nothing is recorded.
+     */
+
+    public long getMin() {
+
+	return count.get() == 0 ? 0 : min.get();
+
+    }
+
+    /**
+     *
+     * Get the maximum value, or 0 if nothing is recorded.
+     */
+
+    public long getMax() {
+
+	return count.get() == 0 ? 0 : max.get();
+
+    }
+
+    public double getMean() {
+
+	long n = count.get();
+
+	return n == 0 ? 0 : (double) sum.get() / n;
+
+    }
+
+    /**
+     *
+     * Estimate the value below which the percentage of values fall.
+     *
+     * @param percentile
+     *            - Percentage between 0 and 100, like 99 for p99.
+     *
+     * @return Upper bound of the bucket containing the percentile, but no
+     *         more than the maximum value.
+     */
+
+    public long getPercentile(double percentile) {
+
+	long n = count.get();
+
+	if (n == 0)
+
+	    return 0;
+
+	long rank = (long) Math.ceil(n * Math.min(100, Math.max(0, percentile))
+		/ 100);
+
+	long seen = 0;
+
+	for (int i = 0; i < BucketCount; i++) {
+
+	    seen += buckets.get(i);
+
+	    if (seen >= rank && seen > 0) {
+
+		long upper = i == 0 ? 0 : (i == BucketCount - 1 ? Long.MAX_VALUE
+			: (1L << i) - 1);
+
+		return Math.min(upper, getMax());
+
+	    }
+
+	}
+
+	return getMax();
+
+    }
+
+    public void reset() {
+
+	for (int i = 0; i < BucketCount; i++) {
+
+	    buckets.set(i, 0);
+
+	}
+
+	count.set(0);
+
+	sum.set(0);
+
+	min.set(Long.MAX_VALUE);
+
+	max.set(Long.MIN_VALUE);
+
+    }
+
+    @Override
+    public String toString() {
+
+	return String.format(
+		"count=%d, min=%d, mean=%.1f, p50=%d, p99=%d, max=%d",
+		getCount(), getMin(), getMean(), getPercentile(50),
+		getPercentile(99), getMax());
+
+    }
+
+    private static int bucketOf(long value) {
+
+	return BucketCount - Long.numberOfLeadingZeros(value);
+
+    }
+
+}
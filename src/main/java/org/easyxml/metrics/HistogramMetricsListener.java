@@ -0,0 +1,213 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * MetricsListener to keep the measurements in memory as histograms and
+ * counters, named like:
+ *
+ * "parse.EasySAXParser.nanos", "parse.EasySAXParser.nodes",
+ * "parse.EasySAXParser.bytes";
+ *
+ * "query.getValuesOf.nanos", "query.getValuesOf.results", and the counters
+ * "query.getValuesOf.indexed", "query.getValuesOf.resolved";
+ *
+ * "serialize.xml.nanos", "serialize.xml.length", and "serialize.xml-bytes.*"
+ * of the XML encoded as bytes;
+ *
+ * the counters "cache.plan.hits", "cache.plan.misses", "cache.query.hits"
+ * and "cache.query.misses".
+ *
+ * @version $Id$
+ */
+
+public class HistogramMetricsListener implements MetricsListener {
+
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+
+    @Override
+    public void parsed(String parser, long bytesRead, int nodesCreated,
+	    long durationNanos) {
+
+	String prefix = "parse." + parser;
+
+	histogramOf(prefix + ".nanos").record(durationNanos);
+
+	histogramOf(prefix + ".nodes").record(nodesCreated);
+
+	histogramOf(prefix + ".bytes").record(bytesRead);
+
+    }
+
+    @Override
+    public void queried(String operation, String path, int resultCount,
+	    boolean indexed, long durationNanos) {
+
+	String prefix = "query." + operation;
+
+	histogramOf(prefix + ".nanos").record(durationNanos);
+
+	histogramOf(prefix + ".results").record(resultCount);
+
+	counterOf(prefix + (indexed ? ".indexed" : ".resolved"))
+		.incrementAndGet();
+
+    }
+
+    @Override
+    public void serialized(String format, long length, long durationNanos) {
+
+	String prefix = "serialize." + format;
+
+	histogramOf(prefix + ".nanos").record(durationNanos);
+
+	histogramOf(prefix + ".length").record(length);
+
+    }
+
+    @Override
+    public void cacheAccessed(String cache, boolean hit) {
+
+	counterOf("cache." + cache + (hit ? ".hits" : ".misses"))
+		.incrementAndGet();
+
+    }
+
+    /**
+     *
+     * Get the histogram of the name, or null if nothing is recorded.
+     */
+
+    public Histogram getHistogram(String name) {
+
+	return histograms.get(name);
+
+    }
+
+    /**
+     *
+     * Get the value of the counter, or 0 if it is never increased.
+     */
+
+    public long getCount(String name) {
+
+	AtomicLong counter = counters.get(name);
+
+	return counter == null ? 0 : counter.get();
+
+    }
+
+    public Map<String, Histogram> getHistograms() {
+
+	return new TreeMap<String, Histogram>(histograms);
+
+    }
+
+    public Map<String, Long> getCounters() {
+
+	Map<String, Long> result = new TreeMap<String, Long>();
+
+	for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+
+	    result.put(entry.getKey(), entry.getValue().get());
+
+	}
+
+	return result;
+
+    }
+
+    public void reset() {
+
+	histograms.clear();
+
+	counters.clear();
+
+    }
+
+    @Override
+    public String toString() {
+
+	StringBuilder sb = new StringBuilder();
+
+	for (Map.Entry<String, Histogram> entry : getHistograms().entrySet()) {
+
+	    sb.append(entry.getKey()).append(": ").append(entry.getValue())
+		    .append('\n');
+
+	}
+
+	for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+
+	    sb.append(entry.getKey()).append(": ").append(entry.getValue())
+		    .append('\n');
+
+	}
+
+	return sb.toString();
+
+    }
+
+    private Histogram histogramOf(String name) {
+
+	Histogram histogram = histograms.get(name);
+
+	if (histogram == null) {
+
+	    Histogram newHistogram = new Histogram();
+
+	    histogram = histograms.putIfAbsent(name, newHistogram);
+
+	    if (histogram == null)
+
+		histogram = newHistogram;
+
+	}
+
+	return histogram;
+
+    }
+
+    private AtomicLong counterOf(String name) {
+
+	AtomicLong counter = counters.get(name);
+
+	if (counter == null) {
+
+	    AtomicLong newCounter = new AtomicLong();
+
+	    counter = counters.putIfAbsent(name, newCounter);
+
+	    if (counter == null)
+
+		counter = newCounter;
+
+	}
+
+	return counter;
+
+    }
+
+}
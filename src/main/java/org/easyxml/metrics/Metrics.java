@@ -0,0 +1,222 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+import org.easyxml.xml.Element;
+
+/**
+ *
+ * Holder of the MetricsListener shared by the parsers, the queries and the
+ * serializers.
+ *
+ * The instrumented methods check isEnabled() first, so nothing is measured
+ * or reported while the default NoopMetricsListener is used.
+ *
+ * A listener with a public default constructor could also be installed
+ * without changing the code, by the system property like:
+ *
+ * -Deasyxml.metrics.listener=org.easyxml.metrics.jfr.JfrMetricsListener
+ *
+ * @version $Id$
+ */
+
+public final class Metrics {
+
+    public static final String Xml = "xml";
+
+    public static final String Json = "json";
+
+    // Format of the XML encoded by a charset, whose length is of bytes
+
+    public static final String XmlBytes = "xml-bytes";
+
+    // Cache of the paths compiled by PathExpression.compile()
+
+    public static final String PlanCache = "plan";
+
+    // Caches of the query results enabled by Document.setQueryCacheSize()
+
+    public static final String QueryCache = "query";
+
+    // The only state, so isEnabled() and the listener reported to never
+    // disagree
+
+    private static volatile MetricsListener listener = NoopMetricsListener.Instance;
+
+    // System property of the class name of the listener to be installed
+
+    public static final String ListenerProperty = "easyxml.metrics.listener";
+
+    static {
+
+	String className = System.getProperty(ListenerProperty);
+
+	if (className != null && className.length() > 0) {
+
+	    try {
+
+		setListener((MetricsListener) Class.forName(className)
+			.getDeclaredConstructor().newInstance());
+
+	    } catch (ReflectiveOperationException | ClassCastException
+		    | LinkageError e) {
+
+		// Keep the NoopMetricsListener if the listener is not usable
+
+		e.printStackTrace();
+
+	    }
+
+	}
+
+    }
+
+    private Metrics() {
+
+    }
+
+    /**
+     *
+     * Set the listener to receive the measurements, or null to restore the
+     * default NoopMetricsListener.
+     */
+
+    public static void setListener(MetricsListener newListener) {
+
+	listener = newListener == null ? NoopMetricsListener.Instance
+		: newListener;
+
+    }
+
+    public static MetricsListener getListener() {
+
+	return listener;
+
+    }
+
+    public static boolean isEnabled() {
+
+	return listener != NoopMetricsListener.Instance;
+
+    }
+
+    /**
+     *
+     * Report the parsing started at startNanos.
+     *
+     * @param parser
+     *            - Name of the parser.
+     *
+     * @param bytesRead
+     *            - Size of the source.
+     *
+     * @param nodeCount
+     *            - Count of the elements and attributes created.
+     *
+     * @param startNanos
+     *            - System.nanoTime() when the parsing started.
+     */
+
+    public static void parsed(String parser, long bytesRead, int nodeCount,
+	    long startNanos) {
+
+	long duration = System.nanoTime() - startNanos;
+
+	listener.parsed(parser, bytesRead, nodeCount, duration);
+
+    }
+
+    /**
+     *
+     * Report the query started at startNanos.
+     */
+
+    public static void queried(String operation, String path,
+	    int resultCount, boolean indexed, long startNanos) {
+
+	long duration = System.nanoTime() - startNanos;
+
+	listener.queried(operation, path, resultCount, indexed, duration);
+
+    }
+
+    /**
+     *
+     * Report the serialization started at startNanos.
+     */
+
+    public static void serialized(String format, long length, long startNanos) {
+
+	long duration = System.nanoTime() - startNanos;
+
+	listener.serialized(format, length, duration);
+
+    }
+
+    /**
+     *
+     * Report the lookup of a cache.
+     */
+
+    public static void cacheAccessed(String cache, boolean hit) {
+
+	listener.cacheAccessed(cache, hit);
+
+    }
+
+    /**
+     *
+     * Count the elements and attributes of the tree, the parsers count them
+     * while building the tree instead.
+     */
+
+    public static int nodesOf(Element element) {
+
+	int count = 1;
+
+	if (element.getAttributes() != null)
+
+	    count += element.getAttributes().size();
+
+	if (element.getChildren() != null) {
+
+	    for (Map.Entry<String, List<Element>> entry : element.getChildren()
+		    .entrySet()) {
+
+		// Keys with the path sign are indexes of the descendants
+
+		if (entry.getKey().contains(Element.DefaultElementPathSign))
+
+		    continue;
+
+		for (Element child : entry.getValue()) {
+
+		    count += nodesOf(child);
+
+		}
+
+	    }
+
+	}
+
+	return count;
+
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+/**
+ *
+ * Receiver of the measurements of parsing, querying and serializing, it
+ * would be called only when set by Metrics.setListener().
+ *
+ * Implementations shall be thread-safe and return quickly, for they are
+ * called by the thread doing the work.
+ *
+ * @version $Id$
+ */
+
+public interface MetricsListener {
+
+    /**
+     *
+     * Called when a document is parsed.
+     *
+     * @param parser
+     *            - Name of the parser, like "EasySAXParser" or "DomParser".
+     *
+     * @param bytesRead
+     *            - Count of bytes (or chars when read from a Reader) of the
+     *            source.
+     *
+     * @param nodesCreated
+     *            - Count of elements and attributes created.
+     *
+     * @param durationNanos
+     *            - Time used by the parsing in nanoseconds.
+     */
+
+    void parsed(String parser, long bytesRead, int nodesCreated,
+	    long durationNanos);
+
+    /**
+     *
+     * Called when values are queried or set by a path.
+     *
+     * @param operation
+     *            - Name of the operation, like "getElementsOf",
+     *            "getValuesOf", "setValuesOf" or "mapOf".
+     *
+     * @param path
+     *            - Path evaluated.
+     *
+     * @param resultCount
+     *            - Count of the values or records returned, or of the values
+     *            set.
+     *
+     * @param indexed
+     *            - True if the path is found in the attributes or the path
+     *            index of the children directly, false if it has to be
+     *            resolved or created. It is not a cache hit: the path index
+     *            is kept by the tree itself.
+     *
+     * @param durationNanos
+     *            - Time used by the operation in nanoseconds.
+     */
+
+    void queried(String operation, String path, int resultCount,
+	    boolean indexed, long durationNanos);
+
+    /**
+     *
+     * Called when an element or document is serialized.
+     *
+     * @param format
+     *            - Format of the output, "xml", "json", or "xml-bytes" for
+     *            the XML encoded by a charset.
+     *
+     * @param length
+     *            - Count of chars written, or of bytes for "xml-bytes".
+     *
+     * @param durationNanos
+     *            - Time used by the serialization in nanoseconds.
+     */
+
+    void serialized(String format, long length, long durationNanos);
+
+    /**
+     *
+     * Called when a cache is looked up.
+     *
+     * @param cache
+     *            - Name of the cache, Metrics.PlanCache of the compiled paths
+     *            or Metrics.QueryCache of the results of a Document.
+     *
+     * @param hit
+     *            - True if a valid entry is found, false otherwise.
+     */
+
+    void cacheAccessed(String cache, boolean hit);
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+/**
+ *
+ * Default MetricsListener that discards everything. While it is set, the
+ * instrumented methods skip the measuring entirely.
+ *
+ * @version $Id$
+ */
+
+public final class NoopMetricsListener implements MetricsListener {
+
+    public static final NoopMetricsListener Instance = new NoopMetricsListener();
+
+    private NoopMetricsListener() {
+
+    }
+
+    @Override
+    public void parsed(String parser, long bytesRead, int nodesCreated,
+	    long durationNanos) {
+
+    }
+
+    @Override
+    public void queried(String operation, String path, int resultCount,
+	    boolean indexed, long durationNanos) {
+
+    }
+
+    @Override
+    public void serialized(String format, long length, long durationNanos) {
+
+    }
+
+    @Override
+    public void cacheAccessed(String cache, boolean hit) {
+
+    }
+
+}
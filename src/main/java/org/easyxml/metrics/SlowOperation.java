@@ -0,0 +1,128 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+/**
+ *
+ * Record of an operation over the thresholds of SlowOperationLog.
+ *
+ * @version $Id$
+ */
+
+public class SlowOperation {
+
+    private final String operation;
+
+    private final String path;
+
+    private final long count;
+
+    private final long durationNanos;
+
+    private final long timestamp;
+
+    private final String thread;
+
+    /**
+     *
+     * @param operation
+     *            - Name of the operation like "getValuesOf" or "toJSON".
+     *
+     * @param path
+     *            - Path evaluated, or null for serialization.
+     *
+     * @param count
+     *            - Count of the values or records touched, or the length of
+     *            the output.
+     *
+     * @param durationNanos
+     *            - Time used in nanoseconds.
+     */
+
+    public SlowOperation(String operation, String path, long count,
+	    long durationNanos) {
+
+	this.operation = operation;
+
+	this.path = path;
+
+	this.count = count;
+
+	this.durationNanos = durationNanos;
+
+	this.timestamp = System.currentTimeMillis();
+
+	this.thread = Thread.currentThread().getName();
+
+    }
+
+    public String getOperation() {
+
+	return operation;
+
+    }
+
+    public String getPath() {
+
+	return path;
+
+    }
+
+    public long getCount() {
+
+	return count;
+
+    }
+
+    public long getDurationNanos() {
+
+	return durationNanos;
+
+    }
+
+    /**
+     *
+     * Time when the record is created, in milliseconds since the epoch.
+     */
+
+    public long getTimestamp() {
+
+	return timestamp;
+
+    }
+
+    public String getThread() {
+
+	return thread;
+
+    }
+
+    /**
+     *
+     * Get the record as key=value pairs, with the path quoted.
+     */
+
+    @Override
+    public String toString() {
+
+	return String.format(
+		"slowOperation timestamp=%d thread=\"%s\" operation=%s path=%s count=%d durationMillis=%.3f",
+		timestamp, thread, operation, path == null ? "-" : "\"" + path
+			+ "\"", count, durationNanos / 1e6);
+
+    }
+
+}
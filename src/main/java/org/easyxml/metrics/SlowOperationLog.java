@@ -0,0 +1,219 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * MetricsListener to log the queries and serializations over the duration
+ * or size thresholds, for example:
+ *
+ * Metrics.setListener(new SlowOperationLog(100, TimeUnit.MILLISECONDS)
+ * .setMaxResults(1000).setSampleRate(0.1));
+ *
+ * Only the operations over the thresholds are sampled, so the operations
+ * within the thresholds cost just the comparisons. By default, getElementsOf
+ * is not logged for it is called by the other queries internally.
+ *
+ * @version $Id$
+ */
+
+public class SlowOperationLog implements MetricsListener {
+
+    private final long durationThresholdNanos;
+
+    // Queries returning or setting more values are logged, 0 to disable
+
+    private long maxResults = 0;
+
+    // Serializations of longer output are logged, 0 to disable
+
+    private long maxLength = 0;
+
+    private double sampleRate = 1;
+
+    private Set<String> operations = new HashSet<String>(Arrays.asList(
+	    "getValuesOf", "setValuesOf", "mapOf", "toJSON", "toString"));
+
+    private SlowOperationSink sink = SlowOperationSink.StdErr;
+
+    private final AtomicLong logged = new AtomicLong();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     *
+     * @param durationThreshold
+     *            - Operations taking longer are logged.
+     *
+     * @param unit
+     *            - TimeUnit of the durationThreshold.
+     */
+
+    public SlowOperationLog(long durationThreshold, TimeUnit unit) {
+
+	this.durationThresholdNanos = unit.toNanos(durationThreshold);
+
+    }
+
+    public SlowOperationLog setMaxResults(long maxResults) {
+
+	this.maxResults = maxResults;
+
+	return this;
+
+    }
+
+    public SlowOperationLog setMaxLength(long maxLength) {
+
+	this.maxLength = maxLength;
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param sampleRate
+     *            - Ratio between 0 and 1 of the slow operations to be logged.
+     */
+
+    public SlowOperationLog setSampleRate(double sampleRate) {
+
+	if (sampleRate < 0 || sampleRate > 1)
+
+	    throw new IllegalArgumentException(
+		    "sampleRate shall be between 0 and 1.");
+
+	this.sampleRate = sampleRate;
+
+	return this;
+
+    }
+
+    /**
+     *
+     * @param operations
+     *            - Names of the operations to be logged, like "getValuesOf",
+     *            "setValuesOf", "mapOf", "getElementsOf", "toJSON" and
+     *            "toString".
+     */
+
+    public SlowOperationLog setOperations(String... operations) {
+
+	this.operations = new HashSet<String>(Arrays.asList(operations));
+
+	return this;
+
+    }
+
+    public SlowOperationLog setSink(SlowOperationSink sink) {
+
+	this.sink = sink == null ? SlowOperationSink.StdErr : sink;
+
+	return this;
+
+    }
+
+    /**
+     *
+     * Count of the records sent to the sink.
+     */
+
+    public long getLogged() {
+
+	return logged.get();
+
+    }
+
+    /**
+     *
+     * Count of the slow operations not logged for sampling.
+     */
+
+    public long getSkipped() {
+
+	return skipped.get();
+
+    }
+
+    @Override
+    public void parsed(String parser, long bytesRead, int nodesCreated,
+	    long durationNanos) {
+
+    }
+
+    @Override
+    public void queried(String operation, String path, int resultCount,
+	    boolean indexed, long durationNanos) {
+
+	if (durationNanos > durationThresholdNanos
+		|| (maxResults > 0 && resultCount > maxResults)) {
+
+	    log(operation, path, resultCount, durationNanos);
+
+	}
+
+    }
+
+    @Override
+    public void serialized(String format, long length, long durationNanos) {
+
+	if (durationNanos > durationThresholdNanos
+		|| (maxLength > 0 && length > maxLength)) {
+
+	    log(Metrics.Json.equals(format) ? "toJSON" : Metrics.XmlBytes
+		    .equals(format) ? "getBytes" : "toString", null, length,
+		    durationNanos);
+
+	}
+
+    }
+
+    @Override
+    public void cacheAccessed(String cache, boolean hit) {
+
+    }
+
+    private void log(String operation, String path, long count,
+	    long durationNanos) {
+
+	if (!operations.contains(operation))
+
+	    return;
+
+	if (sampleRate < 1
+		&& ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+
+	    skipped.incrementAndGet();
+
+	    return;
+
+	}
+
+	logged.incrementAndGet();
+
+	sink.log(new SlowOperation(operation, path, count, durationNanos));
+
+    }
+
+}
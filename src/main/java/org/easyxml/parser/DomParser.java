@@ -16,6 +16,7 @@
  */
 package org.easyxml.parser;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.net.URL;
@@ -24,6 +25,8 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.easyxml.metrics.CountingInputSource;
+import org.easyxml.metrics.Metrics;
 import org.easyxml.xml.Document;
 import org.easyxml.xml.Element;
 import org.w3c.dom.NamedNodeMap;
@@ -36,7 +39,10 @@ import org.xml.sax.SAXException;
  *    Created on May 18, 2015 by William JIANG
  */
 public class DomParser {
-    
+
+    // Name reported to the MetricsListener
+    public static final String Name = "DomParser";
+
     /**
      * 
      * Parse a simple XML document represented as a String.
@@ -63,6 +69,11 @@ public class DomParser {
      */
     public static Document parse(InputSource is) {
 
+	boolean measured = Metrics.isEnabled();
+	long start = measured ? System.nanoTime() : 0;
+	if (measured)
+	    is = new CountingInputSource(is);
+
 	DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 
 	try {
@@ -73,7 +84,9 @@ public class DomParser {
 	    NodeList children = root.getChildNodes();
 	    NamedNodeMap attributes = root.getAttributes();
 	    Document easyDocument = new Document(root.getNodeName());
-	    traverse(easyDocument, children, attributes);
+	    int nodeCount = traverse(easyDocument, children, attributes);
+	    if (measured)
+		Metrics.parsed(Name, ((CountingInputSource) is).getCount(), nodeCount, start);
 	    return easyDocument;
 	} catch (SAXException | IOException | ParserConfigurationException e) {
 	    e.printStackTrace();
@@ -89,6 +102,8 @@ public class DomParser {
      */
     public static Document parse(URL url) {
 
+	boolean measured = Metrics.isEnabled();
+	long start = measured ? System.nanoTime() : 0;
 	DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 	factory.setValidating(true);
 
@@ -100,7 +115,9 @@ public class DomParser {
 	    NodeList children = root.getChildNodes();
 	    NamedNodeMap attributes = root.getAttributes();
 	    Document easyDocument = new Document(root.getNodeName());
-	    traverse(easyDocument, children, attributes);
+	    int nodeCount = traverse(easyDocument, children, attributes);
+	    if (measured)
+		Metrics.parsed(Name, new File(path).length(), nodeCount, start);
 	    return easyDocument;
 	} catch (SAXException | IOException | ParserConfigurationException e) {
 	    e.printStackTrace();
@@ -113,20 +130,21 @@ public class DomParser {
      * @param container - The target org.easyxml.xml.Element.
      * @param children - NodeList from the DOM parser.
      * @param attributes - Attributes from the DOM parser.
-     * @return The org.easyxml.xml.Element after appending attributes and child elements.
+     * @return Count of the container, its attributes and all elements and attributes created under it.
      * @throws SAXException
      */
-    private static Element traverse(Element container, NodeList children,
+    private static int traverse(Element container, NodeList children,
 	    NamedNodeMap attributes) throws SAXException {
 
 	int length = attributes.getLength();
+	int nodeCount = 1 + length;
 	for (int i = 0; i < length; i++) {
 	    Node attribute = attributes.item(i);
 	    container.addAttribute(attribute.getNodeName(), attribute.getNodeValue());
 	}
 
 	if (children == null)
-	    return container;
+	    return nodeCount;
 
 	length = children.getLength();
 	for (int i = 0; i < length; i++) {
@@ -139,7 +157,7 @@ public class DomParser {
 		NamedNodeMap elementAttributes = domElement.getAttributes();
 		NodeList list = domElement.getChildNodes();
 		Element elt = new Element(name, container);
-		traverse(elt, list, elementAttributes);
+		nodeCount += traverse(elt, list, elementAttributes);
 		break;
 
 	    case Node.TEXT_NODE:
@@ -150,6 +168,6 @@ public class DomParser {
 		break;
 	    }
 	}
-	return container;
+	return nodeCount;
     }
 }
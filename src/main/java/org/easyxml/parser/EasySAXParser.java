@@ -16,6 +16,7 @@
  */
 package org.easyxml.parser;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.net.URL;
@@ -25,6 +26,8 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.commons.lang3.StringUtils;
+import org.easyxml.metrics.CountingInputSource;
+import org.easyxml.metrics.Metrics;
 import org.easyxml.xml.Document;
 import org.easyxml.xml.Element;
 import org.xml.sax.Attributes;
@@ -39,6 +42,9 @@ public class EasySAXParser extends DefaultHandler2 {
 
     public static final String DefaultElementPathSign = ">";
 
+    // Name reported to the MetricsListener
+    public static final String Name = "EasySAXParser";
+
     /**
      * 
      * Parse a simple XML document represented as a String.
@@ -70,6 +76,11 @@ public class EasySAXParser extends DefaultHandler2 {
      */
     public static Document parse(InputSource is) {
 
+	boolean measured = Metrics.isEnabled();
+	long start = measured ? System.nanoTime() : 0;
+	if (measured)
+	    is = new CountingInputSource(is);
+
 	SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
 	try {
 	    saxParserFactory.setValidating(true);
@@ -77,6 +88,8 @@ public class EasySAXParser extends DefaultHandler2 {
 	    SAXParser saxParser = saxParserFactory.newSAXParser();
 	    EasySAXParser handler = new EasySAXParser();
 	    saxParser.parse(is, handler);
+	    if (measured)
+		Metrics.parsed(Name, ((CountingInputSource) is).getCount(), handler.nodeCount, start);
 	    return handler.getDocument();
 	} catch (SAXException | IOException | ParserConfigurationException e) {
 	    e.printStackTrace();
@@ -97,12 +110,16 @@ public class EasySAXParser extends DefaultHandler2 {
      *         otherwise null.
      */
     public static Document parse(URL url) {
+	boolean measured = Metrics.isEnabled();
+	long start = measured ? System.nanoTime() : 0;
 	SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
 	try {
 	    SAXParser saxParser = saxParserFactory.newSAXParser();
 	    EasySAXParser handler = new EasySAXParser();
 	    String path = url.getFile();
 	    saxParser.parse(path, handler);
+	    if (measured)
+		Metrics.parsed(Name, new File(path).length(), handler.nodeCount, start);
 
 	    return handler.getDocument();
 	} catch (SAXException | IOException | ParserConfigurationException e) {
@@ -116,6 +133,8 @@ public class EasySAXParser extends DefaultHandler2 {
     private Document easyDocument = null;
     private Element lastContainer = null;
     private Element currentElement = null;
+    // Elements and attributes created, reported to the MetricsListener
+    private int nodeCount = 0;
     
     public Document getDocument() {
 	return easyDocument;
@@ -152,6 +171,7 @@ public class EasySAXParser extends DefaultHandler2 {
 	lastContainer = currentElement;
 
 	int length = attributes.getLength();
+	nodeCount += 1 + length;
 	for (int i = 0; i < length; i++) {
 	    String name = attributes.getQName(i);
 	    String value = attributes.getValue(i);
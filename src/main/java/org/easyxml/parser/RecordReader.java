@@ -0,0 +1,370 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.parser;
+
+import java.io.IOException;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.easyxml.xml.AggregateResult;
+import org.easyxml.xml.Aggregation;
+import org.easyxml.xml.Attribute;
+import org.easyxml.xml.Element;
+import org.easyxml.xml.HashJoin;
+import org.easyxml.xml.PathExpression;
+import org.easyxml.xml.PathExtractor;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.DefaultHandler2;
+
+/**
+ * Reader of the records of a XML stream as a SAX handler, without building
+ * any tree: the values of the paths of each record element are collected
+ * when it is read, and passed to the RecordListener once it is closed. Only
+ * the values of one record are kept at a time.
+ *
+ * The record path is relative to the root like Document.getElementsOf(), the
+ * paths are relative to the record like Element.getValuesOf(): "Value" for
+ * the innerText of the record, "title" for its attribute or otherwise its
+ * children, "author>name" or "author<id" for its descendants. Wildcards and
+ * predicates are not supported. The values are the same as those of the
+ * Document parsed by EasySAXParser.
+ *
+ * @version $Id$
+ */
+public class RecordReader extends DefaultHandler2 {
+
+    /**
+     * Receiver of the records read.
+     */
+    public interface RecordListener {
+	/**
+	 * @param values
+	 *            - Values of each path of the record, null if there is
+	 *            none. The arrays are not reused.
+	 */
+	void onRecord(String[][] values) throws SAXException;
+    }
+
+    /**
+     * Read the records of the XML source.
+     *
+     * @param is
+     *            - InputSource to be read.
+     * @param reader
+     *            - Reader with the paths and the listener.
+     *
+     * @return true if it is read successfully, otherwise false.
+     */
+    public static boolean read(InputSource is, RecordReader reader) {
+	SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+	try {
+	    SAXParser saxParser = saxParserFactory.newSAXParser();
+	    saxParser.parse(is, reader);
+	    return true;
+	} catch (SAXException | IOException | ParserConfigurationException e) {
+	    e.printStackTrace();
+	}
+	return false;
+    }
+
+    /**
+     * Aggregate the values of the XML source without building the tree, the
+     * result is the same as that of Document.aggregate(query) of the Document
+     * parsed by EasySAXParser.
+     *
+     * @param is
+     *            - InputSource to be read.
+     * @param query
+     *            - Aggregation query like "group-by book>genre sum book>price".
+     *
+     * @return The aggregated values, or null if the query is malformed or the
+     *         source failed to be read.
+     */
+    public static AggregateResult aggregate(InputSource is, String query) {
+	final Aggregation aggregation;
+	try {
+	    aggregation = Aggregation.parse(query);
+	} catch (InvalidParameterException ex) {
+	    ex.printStackTrace();
+	    return null;
+	}
+	final AggregateResult result = aggregation.newResult();
+	RecordReader reader = new RecordReader(aggregation.getRecordPath(),
+		aggregation.getPaths(), new RecordListener() {
+		    @Override
+		    public void onRecord(String[][] values) {
+			aggregation.accumulate(result, values);
+		    }
+		});
+	return read(is, reader) ? result : null;
+    }
+
+    /**
+     * Join the records of the XML source with those kept by the HashJoin,
+     * the source is read as a stream without building the tree, only the
+     * merged records are kept.
+     *
+     * @param is
+     *            - InputSource of the probe side.
+     * @param keyPath
+     *            - Whole key path like "order<customerId".
+     * @param pathMap
+     *            - Map of the paths relative to the records (as key) and their
+     *            display names (as value), required since the paths of a
+     *            stream are unknown before it is read.
+     * @param join
+     *            - HashJoin built over the smaller side.
+     *
+     * @return The merged records, the same as those of join.join(doc,
+     *         keyPath, pathMap) of the Document parsed by EasySAXParser; or
+     *         null if the key path is malformed, the pathMap is null or the
+     *         source failed to be read.
+     */
+    public static List<Map<String, String>> join(InputSource is,
+	    String keyPath, Map<String, String> pathMap, final HashJoin join) {
+	final List<Map<String, String>> merged = new ArrayList<Map<String, String>>();
+	final PathExtractor extractor;
+	List<String> paths = new ArrayList<String>();
+	RecordReader reader;
+	try {
+	    if (pathMap == null)
+		throw new InvalidParameterException(
+			"The pathMap is required to join the records of a stream.");
+	    extractor = new PathExtractor(pathMap);
+	    // The key is read together with the values as the last path
+	    paths.addAll(extractor.getPaths());
+	    paths.add(HashJoin.keyOf(keyPath));
+	    reader = new RecordReader(HashJoin.recordPathOf(keyPath), paths,
+		    new RecordListener() {
+			@Override
+			public void onRecord(String[][] values) {
+			    String key = HashJoin.keyOf(values[values.length - 1]);
+			    if (join.contains(key))
+				join.probe(extractor.recordOf(values), key, merged);
+			}
+		    });
+	} catch (InvalidParameterException ex) {
+	    ex.printStackTrace();
+	    return null;
+	}
+	return read(is, reader) ? merged : null;
+    }
+
+    // Target of the values of an element: a column of the text, or of an
+    // attribute when the name is not null
+    private static final class Target {
+	private final int column;
+	private final String attribute;
+
+	private Target(int column, String attribute) {
+	    this.column = column;
+	    this.attribute = attribute;
+	}
+    }
+
+    private final String recordPath;
+    private final RecordListener listener;
+    // Targets by the element paths relative to the record, "" for the record
+    private final Map<String, List<Target>> targets = new HashMap<String, List<Target>>();
+    // Names of the attributes of the record preferred to its children
+    private final String[] ownAttributes;
+
+    // States of the record being read
+    private final List<List<String>> values;
+    private final String[] ownValues;
+    private final List<String> paths = new ArrayList<String>();
+    private int depth = -1;
+    private int recordDepth = -1;
+    private long recordCount = 0;
+
+    // Text of the element started last, it receives all characters until
+    // another element is started like EasySAXParser
+    private final StringBuilder text = new StringBuilder();
+    private List<Target> textTargets = null;
+    private boolean hasText = false;
+
+    /**
+     * @param recordPath
+     *            - Path of the record elements relative to the root, "" for
+     *            the root itself.
+     * @param paths
+     *            - Paths of the values relative to the record elements.
+     * @param listener
+     *            - Receiver of the records.
+     *
+     * @throws InvalidParameterException
+     *             if any path is a pattern.
+     */
+    public RecordReader(String recordPath, List<String> paths,
+	    RecordListener listener) {
+	if (PathExpression.isPattern(recordPath))
+	    throw new InvalidParameterException(String.format(
+		    "Pattern \'%s\' is not supported by RecordReader.", recordPath));
+	this.recordPath = recordPath;
+	this.listener = listener;
+	ownAttributes = new String[paths.size()];
+	ownValues = new String[paths.size()];
+	values = new ArrayList<List<String>>(paths.size());
+	for (int i = 0; i < paths.size(); i++) {
+	    String path = paths.get(i);
+	    if (PathExpression.isPattern(path))
+		throw new InvalidParameterException(String.format(
+			"Pattern \'%s\' is not supported by RecordReader.", path));
+	    values.add(new ArrayList<String>());
+	    int mark = path.indexOf(Attribute.DefaultAttributePathSign);
+	    if (path == Element.Value) {
+		addTarget("", new Target(i, null));
+	    } else if (mark != -1) {
+		addTarget(path.substring(0, mark),
+			new Target(i, path.substring(mark + 1)));
+	    } else {
+		// A plain name denotes the attribute of the record if it has one
+		if (!path.contains(Element.DefaultElementPathSign))
+		    ownAttributes[i] = path;
+		addTarget(path, new Target(i, null));
+	    }
+	}
+    }
+
+    private void addTarget(String path, Target target) {
+	List<Target> list = targets.get(path);
+	if (list == null) {
+	    list = new ArrayList<Target>();
+	    targets.put(path, list);
+	}
+	list.add(target);
+    }
+
+    /**
+     * Get the count of the records read.
+     */
+    public long getRecordCount() {
+	return recordCount;
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+	depth = -1;
+	recordDepth = -1;
+	textTargets = null;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName,
+	    Attributes attributes) throws SAXException {
+	depth++;
+	// Paths are relative to the root out of records, or to the record
+	String path;
+	if (depth == 0) {
+	    path = "";
+	} else {
+	    String parent = paths.get(depth - 1);
+	    path = parent.length() == 0 ? qName : parent
+		    + Element.DefaultElementPathSign + qName;
+	}
+	if (recordDepth == -1 && path.equals(recordPath)) {
+	    recordDepth = depth;
+	    path = "";
+	    startRecord(attributes);
+	}
+	if (paths.size() == depth)
+	    paths.add(path);
+	else
+	    paths.set(depth, path);
+	if (recordDepth == -1)
+	    return;
+
+	flushText();
+	List<Target> list = targets.get(path);
+	if (list == null)
+	    return;
+	for (Target target : list) {
+	    if (target.attribute == null) {
+		if (textTargets == null)
+		    textTargets = new ArrayList<Target>();
+		textTargets.add(target);
+	    } else {
+		String value = attributes.getValue(target.attribute);
+		values.get(target.column).add(value == null ? null : value.trim());
+	    }
+	}
+    }
+
+    private void startRecord(Attributes attributes) {
+	for (int i = 0; i < values.size(); i++) {
+	    values.get(i).clear();
+	    String value = ownAttributes[i] == null ? null : attributes
+		    .getValue(ownAttributes[i]);
+	    ownValues[i] = value == null ? null : value.trim();
+	}
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName)
+	    throws SAXException {
+	if (depth == recordDepth) {
+	    flushText();
+	    recordDepth = -1;
+	    recordCount++;
+	    String[][] record = new String[values.size()][];
+	    for (int i = 0; i < record.length; i++) {
+		List<String> list = values.get(i);
+		if (ownValues[i] != null)
+		    record[i] = new String[] { ownValues[i] };
+		else if (!list.isEmpty())
+		    record[i] = list.toArray(new String[list.size()]);
+	    }
+	    listener.onRecord(record);
+	}
+	depth--;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length)
+	    throws SAXException {
+	if (textTargets == null)
+	    return;
+	// Chunks are trimmed and joined by a space as Element.appendValue()
+	String chunk = new String(ch, start, length).trim();
+	if (text.length() == 0) {
+	    text.append(chunk);
+	} else if (chunk.length() != 0) {
+	    text.append(' ').append(chunk);
+	}
+	hasText = true;
+    }
+
+    private void flushText() {
+	if (textTargets != null) {
+	    String value = hasText ? text.toString() : null;
+	    for (Target target : textTargets) {
+		values.get(target.column).add(value);
+	    }
+	}
+	textTargets = null;
+	text.setLength(0);
+	hasText = false;
+    }
+}
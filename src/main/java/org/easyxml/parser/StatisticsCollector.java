@@ -0,0 +1,347 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.easyxml.metrics.Histogram;
+import org.easyxml.xml.Attribute;
+import org.easyxml.xml.Document;
+import org.easyxml.xml.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.ext.DefaultHandler2;
+
+/**
+ * Collector of the statistics of XML documents: element counts per path,
+ * attribute fill rates, depth and fan-out histograms, and sizes of the
+ * innerText.
+ * 
+ * It could be used as a SAX handler to scan a document without building
+ * any tree, together with EasySAXParser in the same pass by parse(is,
+ * collector), or over an existing Element tree by collect(element). The
+ * statistics of several documents are accumulated when the same collector is
+ * used again.
+ * 
+ * Paths are composed from the root like "catalog>book>title", with
+ * "catalog>book<id" for attributes. Depth of the root is 0 as getLevel().
+ * The text size is the length of the trimmed innerText, text split by child
+ * elements is counted as a whole.
+ * 
+ * @version $Id$
+ */
+public class StatisticsCollector extends DefaultHandler2 {
+
+    /**
+     * Scan the XML source with SAX only.
+     * 
+     * @param is
+     *            - InputSource to be scanned.
+     * 
+     * @return The collector with the statistics, or null if it failed.
+     */
+    public static StatisticsCollector collect(InputSource is) {
+	StatisticsCollector collector = new StatisticsCollector();
+	return scan(is, collector) ? collector : null;
+    }
+
+    /**
+     * Parse the XML source with EasySAXParser, and collect the statistics in
+     * the same pass.
+     * 
+     * @param is
+     *            - InputSource to be parsed.
+     * @param collector
+     *            - Collector to keep the statistics.
+     * 
+     * @return org.easyxml.xml.Document instance if it is parsed successfully,
+     *         otherwise null.
+     */
+    public static Document parse(InputSource is, StatisticsCollector collector) {
+	EasySAXParser parser = new EasySAXParser();
+	collector.delegate = parser;
+	try {
+	    return scan(is, collector) ? parser.getDocument() : null;
+	} finally {
+	    collector.delegate = null;
+	}
+    }
+
+    /**
+     * Collect the statistics of an existing Element tree.
+     * 
+     * @param root
+     *            - Root of the tree.
+     * 
+     * @return A new collector with the statistics.
+     */
+    public static StatisticsCollector collect(Element root) {
+	StatisticsCollector collector = new StatisticsCollector();
+	collector.walk(root, root.getName(), 0);
+	return collector;
+    }
+
+    private static boolean scan(InputSource is, StatisticsCollector collector) {
+	SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+	try {
+	    SAXParser saxParser = saxParserFactory.newSAXParser();
+	    saxParser.parse(is, collector);
+	    return true;
+	} catch (SAXException | IOException | ParserConfigurationException e) {
+	    e.printStackTrace();
+	}
+	return false;
+    }
+
+    // Handler to receive the same SAX events, like an EasySAXParser
+    private DefaultHandler delegate = null;
+
+    private final Map<String, Long> elementCounts = new LinkedHashMap<String, Long>();
+    private final Map<String, Long> attributeCounts = new LinkedHashMap<String, Long>();
+    private final Map<String, Long> textLengths = new LinkedHashMap<String, Long>();
+    private final Map<Integer, Long> depths = new TreeMap<Integer, Long>();
+    private final Map<Integer, Long> fanOuts = new TreeMap<Integer, Long>();
+    private final Histogram textSizes = new Histogram();
+    private long elementTotal = 0;
+    private long attributeTotal = 0;
+
+    // States of the open elements of SAX events, indexed by depth
+    private final List<String> paths = new ArrayList<String>();
+    private final List<StringBuilder> texts = new ArrayList<StringBuilder>();
+    private int[] childCounts = new int[16];
+    private int depth = -1;
+
+    public StatisticsCollector() {
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+	depth = -1;
+	if (delegate != null)
+	    delegate.startDocument();
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+	if (delegate != null)
+	    delegate.endDocument();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName,
+	    Attributes attributes) throws SAXException {
+	if (depth >= 0)
+	    childCounts[depth]++;
+	depth++;
+	String path = depth == 0 ? qName : paths.get(depth - 1)
+		+ Element.DefaultElementPathSign + qName;
+	if (paths.size() == depth) {
+	    paths.add(path);
+	    texts.add(new StringBuilder());
+	} else {
+	    paths.set(depth, path);
+	    texts.get(depth).setLength(0);
+	}
+	if (depth == childCounts.length)
+	    childCounts = Arrays.copyOf(childCounts, depth * 2);
+	childCounts[depth] = 0;
+
+	onElement(path, depth);
+	int length = attributes.getLength();
+	for (int i = 0; i < length; i++) {
+	    onAttribute(path, attributes.getQName(i));
+	}
+
+	if (delegate != null)
+	    delegate.startElement(uri, localName, qName, attributes);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName)
+	    throws SAXException {
+	onElementEnd(paths.get(depth), childCounts[depth], texts.get(depth)
+		.toString().trim().length());
+	depth--;
+	if (delegate != null)
+	    delegate.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length)
+	    throws SAXException {
+	if (depth >= 0)
+	    texts.get(depth).append(ch, start, length);
+	if (delegate != null)
+	    delegate.characters(ch, start, length);
+    }
+
+    private void walk(Element element, String path, int level) {
+	onElement(path, level);
+	if (element.getAttributes() != null) {
+	    for (String name : element.getAttributes().keySet()) {
+		onAttribute(path, name);
+	    }
+	}
+	int childCount = 0;
+	if (element.getChildren() != null) {
+	    for (Map.Entry<String, List<Element>> entry : element.getChildren()
+		    .entrySet()) {
+		// Keys with the path sign are indexes of the descendants
+		if (entry.getKey().contains(Element.DefaultElementPathSign))
+		    continue;
+		String childPath = path + Element.DefaultElementPathSign
+			+ entry.getKey();
+		for (Element child : entry.getValue()) {
+		    walk(child, childPath, level + 1);
+		    childCount++;
+		}
+	    }
+	}
+	String value = element.getValue();
+	onElementEnd(path, childCount, value == null ? 0 : value.length());
+    }
+
+    private void onElement(String path, int level) {
+	elementTotal++;
+	increase(elementCounts, path);
+	increase(depths, level);
+    }
+
+    private void onAttribute(String path, String name) {
+	attributeTotal++;
+	increase(attributeCounts, path + Attribute.DefaultAttributePathSign
+		+ name);
+    }
+
+    private void onElementEnd(String path, int childCount, int textSize) {
+	increase(fanOuts, childCount);
+	if (textSize > 0) {
+	    textSizes.record(textSize);
+	    Long total = textLengths.get(path);
+	    textLengths.put(path, total == null ? textSize : total + textSize);
+	}
+    }
+
+    private static <K> void increase(Map<K, Long> map, K key) {
+	Long count = map.get(key);
+	map.put(key, count == null ? 1L : count + 1);
+    }
+
+    /**
+     * Get the counts of elements of each path, in the order of discovery.
+     */
+    public Map<String, Long> getElementCounts() {
+	return Collections.unmodifiableMap(elementCounts);
+    }
+
+    /**
+     * Get the counts of attributes of each path like "catalog>book<id".
+     */
+    public Map<String, Long> getAttributeCounts() {
+	return Collections.unmodifiableMap(attributeCounts);
+    }
+
+    /**
+     * Get the ratio of the elements having the attribute.
+     * 
+     * @param attributePath
+     *            - Path of the attribute like "catalog>book<id".
+     * 
+     * @return Ratio between 0 and 1, or 0 if no such element is found.
+     */
+    public double getAttributeFillRate(String attributePath) {
+	int mark = attributePath.lastIndexOf(Attribute.DefaultAttributePathSign);
+	Long elements = mark == -1 ? null : elementCounts.get(attributePath
+		.substring(0, mark));
+	Long attributes = attributeCounts.get(attributePath);
+	if (elements == null || attributes == null)
+	    return 0;
+	return (double) attributes / elements;
+    }
+
+    /**
+     * Get the counts of elements of each depth.
+     */
+    public Map<Integer, Long> getDepthHistogram() {
+	return Collections.unmodifiableMap(depths);
+    }
+
+    /**
+     * Get the counts of elements by the count of their direct children.
+     */
+    public Map<Integer, Long> getFanOutHistogram() {
+	return Collections.unmodifiableMap(fanOuts);
+    }
+
+    /**
+     * Get the distribution of the sizes of non-empty innerText.
+     */
+    public Histogram getTextSizes() {
+	return textSizes;
+    }
+
+    /**
+     * Get the total length of the innerText of each path.
+     */
+    public Map<String, Long> getTextLengths() {
+	return Collections.unmodifiableMap(textLengths);
+    }
+
+    public long getElementTotal() {
+	return elementTotal;
+    }
+
+    public long getAttributeTotal() {
+	return attributeTotal;
+    }
+
+    public int getMaxDepth() {
+	return depths.isEmpty() ? 0 : ((TreeMap<Integer, Long>) depths).lastKey();
+    }
+
+    @Override
+    public String toString() {
+	StringBuilder sb = new StringBuilder();
+	sb.append(String.format("elements=%d, attributes=%d, maxDepth=%d\n",
+		elementTotal, attributeTotal, getMaxDepth()));
+	for (Map.Entry<String, Long> entry : elementCounts.entrySet()) {
+	    Long text = textLengths.get(entry.getKey());
+	    sb.append(String.format("%s: %d, text=%d\n", entry.getKey(),
+		    entry.getValue(), text == null ? 0 : text));
+	}
+	for (String attributePath : attributeCounts.keySet()) {
+	    sb.append(String.format("%s: %.2f\n", attributePath,
+		    getAttributeFillRate(attributePath)));
+	}
+	sb.append("depths: ").append(depths).append('\n');
+	sb.append("fanOuts: ").append(fanOuts).append('\n');
+	sb.append("textSizes: ").append(textSizes).append('\n');
+	return sb.toString();
+    }
+}
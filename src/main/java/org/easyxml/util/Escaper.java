@@ -0,0 +1,269 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.util;
+
+import java.io.IOException;
+
+/**
+ * Table driven escaper of XML text, XML attribute values and JSON strings.
+ *
+ * The text is scanned only once, runs of chars that need no escaping are
+ * copied in bulk, and nothing is allocated when no char needs escaping.
+ */
+public final class Escaper {
+    // Chars below this are looked up from the table, the others are kept
+    // except the ones not allowed by XML 1.0.
+    private static final int TABLE_SIZE = 0xA0;
+
+    /**
+     * Escape XML text, the result is the same as that of
+     * StringEscapeUtils.escapeXml10().
+     */
+    public static final Escaper XML_TEXT = new Escaper(xmlTable(false), true);
+
+    /**
+     * Escape XML attribute values, TAB, LF and CR are also escaped to keep
+     * them from being normalized as SPACE by the XML parsers.
+     */
+    public static final Escaper XML_ATTRIBUTE = new Escaper(xmlTable(true),
+	    true);
+
+    /**
+     * Escape the content of JSON strings.
+     */
+    public static final Escaper JSON = new Escaper(jsonTable(), false);
+
+    private static String[] xmlTable(boolean forAttribute) {
+	String[] table = new String[TABLE_SIZE];
+	// Control chars are not allowed by XML 1.0
+	for (int ch = 0; ch < 0x20; ch++) {
+	    table[ch] = "";
+	}
+	table['\t'] = forAttribute ? "&#9;" : null;
+	table['\n'] = forAttribute ? "&#10;" : null;
+	table['\r'] = forAttribute ? "&#13;" : null;
+	table['&'] = "&amp;";
+	table['<'] = "&lt;";
+	table['>'] = "&gt;";
+	table['"'] = "&quot;";
+	table['\''] = "&apos;";
+	// Discouraged chars are kept as numeric references
+	for (int ch = 0x7F; ch < TABLE_SIZE; ch++) {
+	    table[ch] = ch == 0x85 ? null : "&#" + ch + ";";
+	}
+	return table;
+    }
+
+    private static String[] jsonTable() {
+	String[] table = new String[TABLE_SIZE];
+	for (int ch = 0; ch < 0x20; ch++) {
+	    table[ch] = String.format("\\u%04x", ch);
+	}
+	table['"'] = "\\\"";
+	table['\\'] = "\\\\";
+	table['\n'] = "\\n";
+	table['\r'] = "\\r";
+	table['\t'] = "\\t";
+	table['\b'] = "\\b";
+	table['\f'] = "\\f";
+	return table;
+    }
+
+    // Replacement of the chars, null for the chars to be kept.
+    private final String[] table;
+    // Remove the chars not allowed by XML 1.0 beyond the table.
+    private final boolean xml;
+
+    private Escaper(String[] table, boolean xml) {
+	this.table = table;
+	this.xml = xml;
+    }
+
+    /**
+     * Get the escaped text.
+     *
+     * @param text
+     *            - Text to be escaped.
+     * @return The escaped text, or the text itself if there is nothing to be
+     *         escaped.
+     */
+    public String escape(String text) {
+	if (text == null)
+	    return null;
+
+	int first = indexOfEscaped(text, 0);
+	if (first == -1)
+	    return text;
+
+	StringBuilder sb = new StringBuilder(text.length() + 16);
+	try {
+	    escape(text, first, sb);
+	} catch (IOException e) {
+	    // Never happen when appending to a StringBuilder
+	    e.printStackTrace();
+	}
+	return sb.toString();
+    }
+
+    /**
+     * Append the escaped text to the StringBuilder.
+     *
+     * @param text
+     *            - Text to be escaped.
+     * @param out
+     *            - StringBuilder to keep the output.
+     */
+    public void escape(CharSequence text, StringBuilder out) {
+	try {
+	    escape(text, indexOfEscaped(text, 0), out);
+	} catch (IOException e) {
+	    // Never happen when appending to a StringBuilder
+	    e.printStackTrace();
+	}
+    }
+
+    /**
+     * Append the escaped text to the Appendable.
+     *
+     * @param text
+     *            - Text to be escaped.
+     * @param out
+     *            - Appendable to receive the output.
+     * @throws IOException
+     */
+    public void escape(CharSequence text, Appendable out) throws IOException {
+	escape(text, indexOfEscaped(text, 0), out);
+    }
+
+    private void escape(CharSequence text, int next, Appendable out)
+	    throws IOException {
+	int length = text.length();
+	int start = 0;
+	while (next != -1) {
+	    // Copy the clean run before the char to be escaped
+	    out.append(text, start, next);
+	    char ch = text.charAt(next);
+	    // Chars beyond the table are not allowed by XML 1.0, including
+	    // the unpaired surrogates
+	    out.append(ch < TABLE_SIZE ? table[ch] : "");
+	    start = next + 1;
+	    next = indexOfEscaped(text, start);
+	}
+	out.append(text, start, length);
+    }
+
+    /**
+     * Find the first char to be escaped.
+     */
+    private int indexOfEscaped(CharSequence text, int from) {
+	int length = text.length();
+	for (int i = from; i < length; i++) {
+	    char ch = text.charAt(i);
+	    if (ch < TABLE_SIZE) {
+		if (table[ch] != null)
+		    return i;
+	    } else if (xml && ch >= 0xD800) {
+		if (ch >= 0xFFFE)
+		    return i;
+		if (Character.isHighSurrogate(ch) && i + 1 < length
+			&& Character.isLowSurrogate(text.charAt(i + 1))) {
+		    // Skip the valid surrogate pair
+		    i++;
+		} else if (Character.isSurrogate(ch)) {
+		    return i;
+		}
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * Un-escape the XML text with the predefined entities and numeric
+     * character references.
+     *
+     * @param text
+     *            - Text to be un-escaped.
+     * @return The un-escaped text, or the text itself if there is nothing to
+     *         be un-escaped.
+     */
+    public static String unescapeXml(String text) {
+	if (text == null)
+	    return null;
+
+	int next = text.indexOf('&');
+	if (next == -1)
+	    return text;
+
+	int length = text.length();
+	StringBuilder sb = new StringBuilder(length);
+	int start = 0;
+	while (next != -1) {
+	    int end = text.indexOf(';', next + 1);
+	    if (end == -1)
+		break;
+	    int codePoint = entityOf(text, next + 1, end);
+	    if (codePoint != -1) {
+		sb.append(text, start, next);
+		sb.appendCodePoint(codePoint);
+		start = end + 1;
+	    }
+	    next = text.indexOf('&', codePoint == -1 ? next + 1 : end + 1);
+	}
+	sb.append(text, start, length);
+	return sb.toString();
+    }
+
+    /**
+     * Get the char denoted by the entity between '&' and ';', or -1 if it is
+     * not recognized.
+     */
+    private static int entityOf(String text, int start, int end) {
+	int length = end - start;
+	if (length < 2)
+	    return -1;
+
+	if (text.charAt(start) == '#') {
+	    boolean hex = text.charAt(start + 1) == 'x'
+		    || text.charAt(start + 1) == 'X';
+	    int from = hex ? start + 2 : start + 1;
+	    if (from == end || end - from > 8)
+		return -1;
+	    int value = 0;
+	    for (int i = from; i < end; i++) {
+		int digit = Character.digit(text.charAt(i), hex ? 16 : 10);
+		if (digit == -1)
+		    return -1;
+		value = value * (hex ? 16 : 10) + digit;
+		// Stop before the value overflows, it is kept as literal text
+		if (value > Character.MAX_CODE_POINT)
+		    return -1;
+	    }
+	    return value;
+	}
+
+	if (text.startsWith("lt", start) && length == 2)
+	    return '<';
+	if (text.startsWith("gt", start) && length == 2)
+	    return '>';
+	if (text.startsWith("amp", start) && length == 3)
+	    return '&';
+	if (text.startsWith("quot", start) && length == 4)
+	    return '"';
+	if (text.startsWith("apos", start) && length == 4)
+	    return '\'';
+	return -1;
+    }
+}
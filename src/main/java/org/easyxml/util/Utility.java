@@ -88,24 +88,29 @@ public class Utility {
 	// Append the object name if it is identified by key of an empty String
 	StringBuilder jsonBuilder = new StringBuilder(map.containsKey("") ? map.get("") : "");
 	jsonBuilder.append(JSON_OBJECT_START);
+	int pairCount = 0;
 	for (Map.Entry<String, String> entry : map.entrySet()) {
 	    String key = entry.getKey();
 	    String value = entry.getValue();
 	    if (key.length() != 0) {
+		if (pairCount++ != 0) {
+		    jsonBuilder.append(JSON_PAIR_SPLITTER);
+		}
+		jsonBuilder.append(JSON_DOUBLE_QUOTE);
+		Escaper.JSON.escape(key, jsonBuilder);
+		jsonBuilder.append(JSON_DOUBLE_QUOTE).append(JSON_COLON);
 		// Simply guess by detecting of "[" and "]"
 		// TODO: More robust way
-		String format = (value.startsWith(JSON_ARRAY_START) && value.endsWith(JSON_ARRAY_END))
-			? JSON_NAME_ARRAY_FORMAT : JSON_NAME_VALUE_FORMAT;
-
-		jsonBuilder.append(String.format(format, key, entry.getValue()));
+		if (value.startsWith(JSON_ARRAY_START) && value.endsWith(JSON_ARRAY_END)) {
+		    jsonBuilder.append(JSON_ARRAY_START).append(value).append(JSON_ARRAY_END);
+		} else {
+		    jsonBuilder.append(JSON_DOUBLE_QUOTE);
+		    Escaper.JSON.escape(value, jsonBuilder);
+		    jsonBuilder.append(JSON_DOUBLE_QUOTE);
+		}
 	    }
 	}
 
-	// Remove the last JSON_PAIR_SPLITTER
-	if (jsonBuilder.indexOf(JSON_PAIR_SPLITTER) != -1) {
-	    jsonBuilder.setLength(jsonBuilder.length() - JSON_PAIR_SPLITTER.length());
-	}
-
 	jsonBuilder.append(JSON_OBJECT_END);
 	return jsonBuilder.toString();
     }
@@ -123,7 +128,9 @@ public class Utility {
 	StringBuilder jsonBuilder = new StringBuilder();
 	int length = objects.length;
 	for (int i = 0; i < length; i++) {
-	    jsonBuilder.append(String.format("\"%s\"", objects[i].toString()));
+	    jsonBuilder.append(JSON_DOUBLE_QUOTE);
+	    Escaper.JSON.escape(objects[i].toString(), jsonBuilder);
+	    jsonBuilder.append(JSON_DOUBLE_QUOTE);
 	    if (i != length - 1) {
 		jsonBuilder.append(JSON_SPLITTER);
 	    }
@@ -0,0 +1,363 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.easyxml.xml.Aggregation.Function;
+
+/**
+ *
+ * Values aggregated by an Aggregation, kept by groups in the order of their
+ * first records. Only the running count, sum, min and max of each function
+ * are kept, plus the distinct values for count-distinct, so the memory is
+ * bounded by the count of groups instead of the count of records.
+ *
+ * Without group-by, all records are of the group null.
+ *
+ * @version $Id$
+ */
+
+public final class AggregateResult {
+
+    static final class Group {
+
+	private long records = 0;
+
+	private final long[] counts;
+
+	private final double[] sums;
+
+	private final double[] mins;
+
+	private final double[] maxs;
+
+	private final List<Set<String>> distincts;
+
+	private Group(int size) {
+
+	    counts = new long[size];
+
+	    sums = new double[size];
+
+	    mins = new double[size];
+
+	    maxs = new double[size];
+
+	    distincts = new ArrayList<Set<String>>(
+		    Collections.<Set<String>> nCopies(size, null));
+
+	    Arrays.fill(mins, Double.POSITIVE_INFINITY);
+
+	    Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+
+	}
+
+	void count(int index) {
+
+	    counts[index]++;
+
+	}
+
+	void distinct(int index, String value) {
+
+	    if (distincts.get(index) == null)
+
+		distincts.set(index, new HashSet<String>());
+
+	    distincts.get(index).add(value);
+
+	}
+
+	void add(int index, double value) {
+
+	    counts[index]++;
+
+	    sums[index] += value;
+
+	    mins[index] = Math.min(mins[index], value);
+
+	    maxs[index] = Math.max(maxs[index], value);
+
+	}
+
+    }
+
+    private final String groupPath;
+
+    private final String[] names;
+
+    private final Function[] functions;
+
+    private final Map<String, Group> groups = new LinkedHashMap<String, Group>();
+
+    private long recordCount = 0;
+
+    AggregateResult(String groupPath, String[] names, Function[] functions) {
+
+	this.groupPath = groupPath;
+
+	this.names = names;
+
+	this.functions = functions;
+
+    }
+
+    /**
+     *
+     * Get the accumulator of the group of a new record.
+     */
+
+    Group groupOf(String group) {
+
+	Group accumulator = groups.get(group);
+
+	if (accumulator == null) {
+
+	    accumulator = new Group(functions.length);
+
+	    groups.put(group, accumulator);
+
+	}
+
+	accumulator.records++;
+
+	recordCount++;
+
+	return accumulator;
+
+    }
+
+    public String getGroupPath() {
+
+	return groupPath;
+
+    }
+
+    /**
+     *
+     * Get the names of the aggregated values like "sum(book>price)".
+     */
+
+    public String[] getNames() {
+
+	return names.clone();
+
+    }
+
+    /**
+     *
+     * Get the values of the group-by path, including null for the records
+     * without it.
+     */
+
+    public Set<String> getGroups() {
+
+	return Collections.unmodifiableSet(groups.keySet());
+
+    }
+
+    /**
+     *
+     * Get the count of all records accumulated.
+     */
+
+    public long getRecordCount() {
+
+	return recordCount;
+
+    }
+
+    /**
+     *
+     * Get the count of the records of a group.
+     */
+
+    public long getRecordCount(String group) {
+
+	Group accumulator = groups.get(group);
+
+	return accumulator == null ? 0 : accumulator.records;
+
+    }
+
+    /**
+     *
+     * Get the aggregated value without group-by.
+     *
+     * @param index
+     *            - Index of the function in the query.
+     */
+
+    public double get(int index) {
+
+	return get(null, index);
+
+    }
+
+    /**
+     *
+     * Get the aggregated value of a group.
+     *
+     * @param group
+     *            - Value of the group-by path.
+     *
+     * @param index
+     *            - Index of the function in the query.
+     *
+     * @return The aggregated value, or NaN if min, max or avg has no number
+     *         or the group is absent.
+     */
+
+    public double get(String group, int index) {
+
+	Group accumulator = groups.get(group);
+
+	if (accumulator == null)
+
+	    return Double.NaN;
+
+	long count = accumulator.counts[index];
+
+	switch (functions[index]) {
+
+	case Count:
+
+	    return count;
+
+	case CountDistinct:
+
+	    Set<String> distinct = accumulator.distincts.get(index);
+
+	    return distinct == null ? 0 : distinct.size();
+
+	case Sum:
+
+	    return accumulator.sums[index];
+
+	case Min:
+
+	    return count == 0 ? Double.NaN : accumulator.mins[index];
+
+	case Max:
+
+	    return count == 0 ? Double.NaN : accumulator.maxs[index];
+
+	default:
+
+	    return count == 0 ? Double.NaN : accumulator.sums[index] / count;
+
+	}
+
+    }
+
+    /**
+     *
+     * Get the aggregated value of a group by its name like "sum(book>price)".
+     *
+     * @return The aggregated value, or NaN if there is no such name.
+     */
+
+    public double get(String group, String name) {
+
+	int index = Arrays.asList(names).indexOf(name);
+
+	return index == -1 ? Double.NaN : get(group, index);
+
+    }
+
+    /**
+     *
+     * Convert the result to columns, one row for each group: the Text column
+     * of the groups named by the group-by path if there is one, then a column
+     * for each function, of Long for count and count-distinct, of Double for
+     * the others.
+     */
+
+    public ColumnarResult toColumns() {
+
+	int size = groups.size();
+
+	int offset = groupPath == null ? 0 : 1;
+
+	Column[] columns = new Column[names.length + offset];
+
+	if (groupPath != null)
+
+	    columns[0] = new Column(groupPath, groups.keySet().toArray(
+		    new String[size]));
+
+	for (int i = 0; i < names.length; i++) {
+
+	    boolean counting = functions[i] == Function.Count
+		    || functions[i] == Function.CountDistinct;
+
+	    Column column = new Column(names[i], counting ? ColumnType.Long
+		    : ColumnType.Double, size);
+
+	    int row = 0;
+
+	    for (String group : groups.keySet()) {
+
+		column.set(row++, get(group, i));
+
+	    }
+
+	    columns[i + offset] = column;
+
+	}
+
+	return new ColumnarResult(columns, size);
+
+    }
+
+    @Override
+    public String toString() {
+
+	StringBuilder sb = new StringBuilder();
+
+	for (String group : groups.keySet()) {
+
+	    if (groupPath != null)
+
+		sb.append(groupPath).append('=').append(group).append(": ");
+
+	    for (int i = 0; i < names.length; i++) {
+
+		if (i != 0)
+
+		    sb.append(", ");
+
+		sb.append(names[i]).append('=').append(get(group, i));
+
+	    }
+
+	    sb.append(Element.NewLine);
+
+	}
+
+	return sb.toString();
+
+    }
+
+}
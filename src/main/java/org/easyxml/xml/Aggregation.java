@@ -0,0 +1,598 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Aggregation query over the values of paths, composed of an optional
+ * "group-by path" and one or more "function path" like:
+ *
+ * group-by book>genre sum book>price avg book>price count book
+ *
+ * The functions are count, count-distinct, sum, min, max and avg. The paths
+ * are whole paths from the root without wildcard or predicate, and they are
+ * evaluated record by record: the record elements are located by the longest
+ * common element path of all paths, then the paths relative to the record
+ * are resolved the same as Element.getValuesOf().
+ *
+ * count counts the elements, or the elements having the attribute when the
+ * path denotes attributes, the same as Element.countOf(); count-distinct
+ * counts the distinct values; the others use the values that are numbers.
+ * Records are grouped by the first value of the group-by path.
+ *
+ * The aggregation is immutable, it could be evaluated over an Element tree
+ * by evaluate(), or fed by the records of a SAX stream with accumulate()
+ * without building the tree.
+ *
+ * @version $Id$
+ */
+
+public final class Aggregation {
+
+    public static final String GroupBy = "group-by";
+
+    public enum Function {
+
+	Count("count"), CountDistinct("count-distinct"), Sum("sum"), Min("min"), Max(
+		"max"), Avg("avg");
+
+	private final String keyword;
+
+	private Function(String keyword) {
+
+	    this.keyword = keyword;
+
+	}
+
+	public static Function of(String keyword) {
+
+	    for (Function function : values()) {
+
+		if (function.keyword.equalsIgnoreCase(keyword))
+
+		    return function;
+
+	    }
+
+	    return null;
+
+	}
+
+	@Override
+	public String toString() {
+
+	    return keyword;
+
+	}
+
+    }
+
+    private final String query;
+
+    private final String recordPath;
+
+    // Whole path of the group-by, null if the records are not grouped
+
+    private final String groupPath;
+
+    private final Function[] functions;
+
+    private final String[] names;
+
+    // Whether the path of the function denotes attributes
+
+    private final boolean[] attributes;
+
+    // Distinct paths relative to the record, the group-by path is the first
+
+    private final List<String> paths;
+
+    // Index of the relative path of each function
+
+    private final int[] indexes;
+
+    // Whether the values of each path are used as texts: of the group-by
+    // path or counted, and as numbers: summed, compared or averaged
+
+    private final boolean[] texts;
+
+    private final boolean[] numerics;
+
+    private final PathExtractor extractor;
+
+    private Aggregation(String query, String groupPath,
+	    List<Function> functions, List<String> operands) {
+
+	this.query = query;
+
+	this.groupPath = groupPath;
+
+	this.functions = functions.toArray(new Function[functions.size()]);
+
+	List<String> wholePaths = new ArrayList<String>(operands);
+
+	if (groupPath != null)
+
+	    wholePaths.add(groupPath);
+
+	recordPath = recordPathOf(wholePaths);
+
+	names = new String[operands.size()];
+
+	attributes = new boolean[operands.size()];
+
+	indexes = new int[operands.size()];
+
+	Map<String, String> pathMap = new LinkedHashMap<String, String>();
+
+	List<String> relativePaths = new ArrayList<String>();
+
+	if (groupPath != null) {
+
+	    relativePaths.add(relativePathOf(groupPath));
+
+	    pathMap.put(relativePaths.get(0), groupPath);
+
+	}
+
+	for (int i = 0; i < operands.size(); i++) {
+
+	    String path = operands.get(i);
+
+	    names[i] = String.format("%s(%s)", this.functions[i], path);
+
+	    attributes[i] = path.contains(Attribute.DefaultAttributePathSign);
+
+	    String relativePath = relativePathOf(path);
+
+	    if (!pathMap.containsKey(relativePath)) {
+
+		relativePaths.add(relativePath);
+
+		pathMap.put(relativePath, path);
+
+	    }
+
+	    indexes[i] = relativePaths.indexOf(relativePath);
+
+	}
+
+	paths = Collections.unmodifiableList(relativePaths);
+
+	texts = new boolean[relativePaths.size()];
+
+	numerics = new boolean[relativePaths.size()];
+
+	texts[0] = groupPath != null;
+
+	for (int i = 0; i < indexes.length; i++) {
+
+	    if (isNumeric(this.functions[i]))
+
+		numerics[indexes[i]] = true;
+
+	    else
+
+		texts[indexes[i]] = true;
+
+	}
+
+	extractor = new PathExtractor(pathMap);
+
+    }
+
+    /**
+     *
+     * Parse the aggregation query.
+     *
+     * @param query
+     *            - Keywords and paths separated by white spaces, like
+     *            "group-by book>genre sum book>price".
+     *
+     * @throws InvalidParameterException
+     *             if the query is malformed, or any path is a pattern.
+     */
+
+    public static Aggregation parse(String query) {
+
+	String[] tokens = query == null ? new String[0] : query.trim().split(
+		"\\s+");
+
+	String groupPath = null;
+
+	List<Function> functions = new ArrayList<Function>();
+
+	List<String> operands = new ArrayList<String>();
+
+	for (int i = 0; i < tokens.length; i += 2) {
+
+	    Function function = Function.of(tokens[i]);
+
+	    boolean grouping = tokens[i].equalsIgnoreCase(GroupBy);
+
+	    if (!grouping && function == null)
+
+		throw new InvalidParameterException(String.format(
+			"Unknown function \'%s\' of \'%s\'.", tokens[i], query));
+
+	    if (i + 1 == tokens.length)
+
+		throw new InvalidParameterException(String.format(
+			"Path of \'%s\' is missing in \'%s\'.", tokens[i], query));
+
+	    String path = tokens[i + 1];
+
+	    if (PathExpression.isPattern(path))
+
+		throw new InvalidParameterException(String.format(
+			"Pattern \'%s\' is not supported by aggregations.", path));
+
+	    if (!grouping) {
+
+		functions.add(function);
+
+		operands.add(path);
+
+	    } else if (groupPath == null) {
+
+		groupPath = path;
+
+	    } else {
+
+		throw new InvalidParameterException(String.format(
+			"Only one \'%s\' is allowed in \'%s\'.", GroupBy, query));
+
+	    }
+
+	}
+
+	if (functions.isEmpty())
+
+	    throw new InvalidParameterException(String.format(
+		    "No function is specified by \'%s\'.", query));
+
+	return new Aggregation(query, groupPath, functions, operands);
+
+    }
+
+    /**
+     *
+     * Get the longest common element path of the paths.
+     */
+
+    private static String recordPathOf(List<String> wholePaths) {
+
+	String[] common = null;
+
+	int length = 0;
+
+	for (String path : wholePaths) {
+
+	    String[] steps = elementPathOf(path).split(
+		    Element.DefaultElementPathSign, -1);
+
+	    if (common == null) {
+
+		common = steps;
+
+		length = steps.length;
+
+		continue;
+
+	    }
+
+	    int i = 0;
+
+	    while (i < length && i < steps.length && common[i].equals(steps[i]))
+
+		i++;
+
+	    length = i;
+
+	}
+
+	StringBuilder sb = new StringBuilder();
+
+	for (int i = 0; i < length; i++) {
+
+	    if (i != 0)
+
+		sb.append(Element.DefaultElementPathSign);
+
+	    sb.append(common[i]);
+
+	}
+
+	return sb.toString();
+
+    }
+
+    private static boolean isNumeric(Function function) {
+
+	return function != Function.Count && function != Function.CountDistinct;
+
+    }
+
+    private static String elementPathOf(String path) {
+
+	int mark = path.indexOf(Attribute.DefaultAttributePathSign);
+
+	return mark == -1 ? path : path.substring(0, mark);
+
+    }
+
+    private String relativePathOf(String path) {
+
+	String elementPath = elementPathOf(path);
+
+	if (elementPath.equals(recordPath))
+
+	    // An attribute of the record is kept as "<name", not to be taken
+	    // as a child of the same name
+
+	    return elementPath.length() == path.length() ? Element.Value : path
+		    .substring(elementPath.length());
+
+	return recordPath.length() == 0 ? path : path.substring(recordPath
+		.length() + 1);
+
+    }
+
+    public String getQuery() {
+
+	return query;
+
+    }
+
+    /**
+     *
+     * Get the path of the record elements, relative to the root.
+     */
+
+    public String getRecordPath() {
+
+	return recordPath;
+
+    }
+
+    /**
+     *
+     * Get the paths whose values are accumulated for each record, relative to
+     * the record elements; the first is of the group-by path if there is one.
+     */
+
+    public List<String> getPaths() {
+
+	return paths;
+
+    }
+
+    public String getGroupPath() {
+
+	return groupPath;
+
+    }
+
+    /**
+     *
+     * Get the names of the aggregated values like "sum(book>price)".
+     */
+
+    public String[] getNames() {
+
+	return names.clone();
+
+    }
+
+    /**
+     *
+     * Aggregate the records of the Element tree. The numbers are got from
+     * the values parsed and kept by the elements and the attributes, so they
+     * are parsed once however many times they are aggregated.
+     *
+     * @param root
+     *            - Element that the whole paths are relative to. The paths
+     *            of a Document are relative to its root even if it has a
+     *            defaultContainer, the same as those read by RecordReader.
+     *
+     * @return The aggregated values, of no group if there is no record.
+     */
+
+    public AggregateResult evaluate(Element root) {
+
+	AggregateResult result = newResult();
+
+	List<Element> records = root.ownElementsOf(recordPath);
+
+	if (records == null)
+
+	    return result;
+
+	String[][] values = new String[paths.size()][];
+
+	List<List<ParsedValue>> numbers = new ArrayList<List<ParsedValue>>(
+		Collections.nCopies(paths.size(), (List<ParsedValue>) null));
+
+	for (int i = 0; i < records.size(); i++) {
+
+	    Element record = records.get(i);
+
+	    for (int j = 0; j < values.length; j++) {
+
+		if (texts[j])
+
+		    values[j] = extractor.valuesOf(record, j);
+
+		if (numerics[j])
+
+		    numbers.set(j, record.parsedValuesOf(paths.get(j)));
+
+	    }
+
+	    accumulate(result, values, numbers);
+
+	}
+
+	return result;
+
+    }
+
+    /**
+     *
+     * Create an empty result to be fed by accumulate().
+     */
+
+    public AggregateResult newResult() {
+
+	return new AggregateResult(groupPath, names, functions);
+
+    }
+
+    /**
+     *
+     * Accumulate the values of a record.
+     *
+     * @param result
+     *            - Result created by newResult().
+     *
+     * @param values
+     *            - Values of each of getPaths() of the record, null if there
+     *            is none.
+     */
+
+    public void accumulate(AggregateResult result, String[][] values) {
+
+	accumulate(result, values, null);
+
+    }
+
+    /**
+     *
+     * Accumulate the values of a record, the numbers are got from the parsed
+     * values instead of the texts if they are available.
+     */
+
+    private void accumulate(AggregateResult result, String[][] values,
+	    List<List<ParsedValue>> numbers) {
+
+	String group = null;
+
+	if (groupPath != null && values[0] != null && values[0].length != 0)
+
+	    group = values[0][0];
+
+	AggregateResult.Group accumulator = result.groupOf(group);
+
+	for (int i = 0; i < functions.length; i++) {
+
+	    if (numbers != null && isNumeric(functions[i])) {
+
+		add(accumulator, i, numbers.get(indexes[i]));
+
+		continue;
+
+	    }
+
+	    String[] operandValues = values[indexes[i]];
+
+	    if (operandValues == null)
+
+		continue;
+
+	    for (int j = 0; j < operandValues.length; j++) {
+
+		String value = operandValues[j];
+
+		switch (functions[i]) {
+
+		case Count:
+
+		    if (value != null || !attributes[i])
+
+			accumulator.count(i);
+
+		    break;
+
+		case CountDistinct:
+
+		    if (value != null)
+
+			accumulator.distinct(i, value);
+
+		    break;
+
+		default:
+
+		    if (value == null)
+
+			break;
+
+		    try {
+
+			accumulator.add(i, Double.parseDouble(value.trim()));
+
+		    } catch (NumberFormatException ex) {
+
+			// Values not of numbers are skipped
+
+		    }
+
+		}
+
+	    }
+
+	}
+
+    }
+
+    private static void add(AggregateResult.Group accumulator, int index,
+	    List<ParsedValue> operandValues) {
+
+	if (operandValues == null)
+
+	    return;
+
+	for (int j = 0; j < operandValues.size(); j++) {
+
+	    try {
+
+		accumulator.add(index, operandValues.get(j).asDouble());
+
+	    } catch (NumberFormatException ex) {
+
+		// Values not of numbers, or missing, are skipped
+
+	    }
+
+	}
+
+    }
+
+    @Override
+    public String toString() {
+
+	return query;
+
+    }
+
+}
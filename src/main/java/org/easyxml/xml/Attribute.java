@@ -18,8 +18,8 @@ package org.easyxml.xml;
 
 import java.security.InvalidParameterException;
 
-import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.easyxml.util.Escaper;
 
 /*
  *    Created on May 18, 2015 by William JIANG
@@ -39,6 +39,8 @@ public class Attribute {
     private String value;
     // XMLElement containing this XmlAttribute.
     private Element element;
+    // Typed values parsed from the value, discarded when the value is changed
+    ParsedValue parsed;
 
     public Element getElement() {
 	return element;
@@ -58,7 +60,7 @@ public class Attribute {
      * @return Original text value.
      */
     public String getValue() {
-	return StringEscapeUtils.unescapeXml(value);
+	return Escaper.unescapeXml(value);
     }
 
     /**
@@ -72,7 +74,12 @@ public class Attribute {
 	    throw new InvalidParameterException(
 		    "Value of an attribute cannot be null!");
 	}
-	this.value = StringEscapeUtils.escapeXml10(StringUtils.trim(value));
+	this.value = Escaper.XML_ATTRIBUTE.escape(StringUtils.trim(value));
+	parsed = null;
+	// Let the Document discard the index if the values are indexed
+	if (element != null) {
+	    element.attributeChanged(name);
+	}
     }
 
     /**
@@ -104,6 +111,7 @@ public class Attribute {
 	}
 	this.name = name;
 	setValue(value);
+	this.element = element;
     }
 
     /**
@@ -125,8 +133,40 @@ public class Attribute {
 		+ DefaultAttributePathSign + this.name;
     }
 
+    /**
+     * Append the XML form of this attribute to the StringBuilder, the value
+     * is kept escaped thus no conversion is needed.
+     * 
+     * @param sb
+     *            - StringBuilder to keep the output.
+     */
+    void appendTo(StringBuilder sb) {
+	sb.append(name).append("=\"").append(value).append('"');
+    }
+
+    /**
+     * Get the typed values parsed from the value of this attribute.
+     */
+    ParsedValue parsedValue() {
+	ParsedValue current = parsed;
+	if (current == null || !current.isOf(value)) {
+	    current = new ParsedValue(value);
+	    parsed = current;
+	}
+	return current;
+    }
+
+    /**
+     * Get the value kept escaped, without composing a new String.
+     */
+    String getEscapedValue() {
+	return value;
+    }
+
     @Override
     public String toString() {
-	return String.format(DefaultXmlAttributeDisplayFormat, name, getValue());
+	StringBuilder sb = new StringBuilder(name.length() + value.length() + 3);
+	appendTo(sb);
+	return sb.toString();
     }
 }
@@ -0,0 +1,417 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.util.BitSet;
+
+/**
+ *
+ * Values of one path for all records of a ColumnarResult, kept by one dense
+ * array of the type of the column, and a bitmap of the null values.
+ *
+ * Values of typed columns are parsed once when the column is filled, the
+ * values absent, joined from multiple elements or unable to be parsed are
+ * null.
+ *
+ * @version $Id$
+ */
+
+public final class Column {
+
+    private final String name;
+
+    private final ColumnType type;
+
+    private final int size;
+
+    // Only the array of the type is allocated
+
+    private final String[] texts;
+
+    private final long[] longs;
+
+    private final double[] doubles;
+
+    private final boolean[] booleans;
+
+    // Bit of a row is set when its value is null
+
+    private final BitSet nulls;
+
+    Column(String name, ColumnType type, int size) {
+
+	this.name = name;
+
+	this.type = type;
+
+	this.size = size;
+
+	texts = type == ColumnType.Text ? new String[size] : null;
+
+	longs = type == ColumnType.Long ? new long[size] : null;
+
+	doubles = type == ColumnType.Double ? new double[size] : null;
+
+	booleans = type == ColumnType.Boolean ? new boolean[size] : null;
+
+	nulls = new BitSet(size);
+
+	if (texts == null)
+
+	    nulls.set(0, size);
+
+    }
+
+    /**
+     *
+     * Compose a Text column over the values without copying them.
+     */
+
+    Column(String name, String[] values) {
+
+	this.name = name;
+
+	this.type = ColumnType.Text;
+
+	this.size = values.length;
+
+	texts = values;
+
+	longs = null;
+
+	doubles = null;
+
+	booleans = null;
+
+	nulls = new BitSet(size);
+
+	for (int i = 0; i < size; i++) {
+
+	    if (values[i] == null)
+
+		nulls.set(i);
+
+	}
+
+    }
+
+    /**
+     *
+     * Set the value of a row when the column is filled.
+     *
+     * @param row
+     *            - Index of the record.
+     *
+     * @param value
+     *            - Value extracted, or null if it is absent.
+     *
+     * @param joined
+     *            - Whether the value is joined from multiple elements.
+     */
+
+    void set(int row, String value, boolean joined) {
+
+	if (type == ColumnType.Text) {
+
+	    texts[row] = value;
+
+	    if (value == null)
+
+		nulls.set(row);
+
+	    return;
+
+	}
+
+	if (value == null || joined)
+
+	    return;
+
+	String trimmed = value.trim();
+
+	try {
+
+	    switch (type) {
+
+	    case Long:
+
+		longs[row] = Long.parseLong(trimmed);
+
+		break;
+
+	    case Double:
+
+		doubles[row] = Double.parseDouble(trimmed);
+
+		break;
+
+	    default:
+
+		if (trimmed.equalsIgnoreCase("true"))
+
+		    booleans[row] = true;
+
+		else if (!trimmed.equalsIgnoreCase("false"))
+
+		    return;
+
+	    }
+
+	    nulls.clear(row);
+
+	} catch (NumberFormatException ex) {
+
+	    // Kept as null
+
+	}
+
+    }
+
+    /**
+     *
+     * Set the number of a row of a Long or Double column, NaN is kept as
+     * null.
+     */
+
+    void set(int row, double value) {
+
+	if (Double.isNaN(value))
+
+	    return;
+
+	if (type == ColumnType.Long)
+
+	    longs[row] = (long) value;
+
+	else
+
+	    doubles[row] = value;
+
+	nulls.clear(row);
+
+    }
+
+    public String getName() {
+
+	return name;
+
+    }
+
+    public ColumnType getType() {
+
+	return type;
+
+    }
+
+    /**
+     *
+     * Get the count of rows.
+     */
+
+    public int size() {
+
+	return size;
+
+    }
+
+    public boolean isNull(int row) {
+
+	checkRow(row);
+
+	return nulls.get(row);
+
+    }
+
+    /**
+     *
+     * Get the count of null values.
+     */
+
+    public int getNullCount() {
+
+	return nulls.cardinality();
+
+    }
+
+    /**
+     *
+     * Get the value of a row as a String, typed values are formatted by
+     * String.valueOf().
+     *
+     * @return null if the value is null.
+     */
+
+    public String getString(int row) {
+
+	if (isNull(row))
+
+	    return null;
+
+	switch (type) {
+
+	case Text:
+
+	    return texts[row];
+
+	case Long:
+
+	    return String.valueOf(longs[row]);
+
+	case Double:
+
+	    return String.valueOf(doubles[row]);
+
+	default:
+
+	    return String.valueOf(booleans[row]);
+
+	}
+
+    }
+
+    /**
+     *
+     * Get the value of a Long column, 0 if the value is null.
+     */
+
+    public long getLong(int row) {
+
+	checkType(ColumnType.Long);
+
+	checkRow(row);
+
+	return longs[row];
+
+    }
+
+    /**
+     *
+     * Get the value of a Double or Long column, 0 if the value is null.
+     */
+
+    public double getDouble(int row) {
+
+	checkRow(row);
+
+	if (type == ColumnType.Long)
+
+	    return longs[row];
+
+	checkType(ColumnType.Double);
+
+	return doubles[row];
+
+    }
+
+    /**
+     *
+     * Get the value of a Boolean column, false if the value is null.
+     */
+
+    public boolean getBoolean(int row) {
+
+	checkType(ColumnType.Boolean);
+
+	checkRow(row);
+
+	return booleans[row];
+
+    }
+
+    /**
+     *
+     * Get the values of a Text column, the array is not copied and shall not
+     * be modified.
+     */
+
+    public String[] getStrings() {
+
+	checkType(ColumnType.Text);
+
+	return texts;
+
+    }
+
+    /**
+     *
+     * Get the values of a Long column, the array is not copied and shall not
+     * be modified, the values of null rows are 0.
+     */
+
+    public long[] getLongs() {
+
+	checkType(ColumnType.Long);
+
+	return longs;
+
+    }
+
+    /**
+     *
+     * Get the values of a Double column, the array is not copied and shall
+     * not be modified, the values of null rows are 0.
+     */
+
+    public double[] getDoubles() {
+
+	checkType(ColumnType.Double);
+
+	return doubles;
+
+    }
+
+    /**
+     *
+     * Get the values of a Boolean column, the array is not copied and shall
+     * not be modified, the values of null rows are false.
+     */
+
+    public boolean[] getBooleans() {
+
+	checkType(ColumnType.Boolean);
+
+	return booleans;
+
+    }
+
+    private void checkType(ColumnType expected) {
+
+	if (type != expected)
+
+	    throw new IllegalStateException(String.format(
+		    "The column \'%s\' is of %s instead of %s.", name, type,
+		    expected));
+
+    }
+
+    private void checkRow(int row) {
+
+	if (row < 0 || row >= size)
+
+	    throw new IndexOutOfBoundsException(String.format(
+		    "Row %d is out of [0, %d).", row, size));
+
+    }
+
+    @Override
+    public String toString() {
+
+	return String.format("%s(%s, %d rows, %d nulls)", name, type, size,
+		getNullCount());
+
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+/**
+ *
+ * Type of the values kept by a Column of ColumnarResult.
+ *
+ * @version $Id$
+ */
+
+public enum ColumnType {
+
+    // Values kept as they are extracted
+
+    Text,
+
+    // Values parsed by Long.parseLong()
+
+    Long,
+
+    // Values parsed by Double.parseDouble()
+
+    Double,
+
+    // Values of "true" or "false", case ignored
+
+    Boolean
+
+}
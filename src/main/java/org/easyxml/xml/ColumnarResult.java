@@ -0,0 +1,334 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.security.InvalidParameterException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *
+ * Records extracted by columns: the values of each path are kept by one
+ * Column of a dense array, instead of one map entry per value.
+ *
+ * The rows are available as read-only maps backed by the columns, the same
+ * as the records of Document.mapOf() except that typed values are formatted
+ * by String.valueOf(), and null values are absent.
+ *
+ * @version $Id$
+ */
+
+public final class ColumnarResult {
+
+    private final Column[] columns;
+
+    private final Map<String, Integer> indexes = new LinkedHashMap<String, Integer>();
+
+    private final int rowCount;
+
+    ColumnarResult(Column[] columns, int rowCount) {
+
+	this.columns = columns;
+
+	this.rowCount = rowCount;
+
+	for (int i = 0; i < columns.length; i++) {
+
+	    indexes.put(columns[i].getName(), i);
+
+	}
+
+    }
+
+    /**
+     *
+     * Compose the Text columns over the values extracted by
+     * Document.extractValues() without copying them.
+     *
+     * @param mappedValues
+     *            - Values of the same count by their display names.
+     *
+     * @throws InvalidParameterException
+     *             if the counts of values are different.
+     */
+
+    public static ColumnarResult of(Map<String, String[]> mappedValues) {
+
+	if (mappedValues == null)
+
+	    return null;
+
+	Column[] columns = new Column[mappedValues.size()];
+
+	int size = -1;
+
+	int i = 0;
+
+	for (Map.Entry<String, String[]> entry : mappedValues.entrySet()) {
+
+	    String[] values = entry.getValue() == null ? new String[0] : entry
+		    .getValue();
+
+	    if (size != -1 && size != values.length)
+
+		throw new InvalidParameterException("Mismatched values size!");
+
+	    size = values.length;
+
+	    columns[i++] = new Column(entry.getKey(), values);
+
+	}
+
+	return new ColumnarResult(columns, Math.max(size, 0));
+
+    }
+
+    /**
+     *
+     * Get the count of records.
+     */
+
+    public int getRowCount() {
+
+	return rowCount;
+
+    }
+
+    public int getColumnCount() {
+
+	return columns.length;
+
+    }
+
+    public Column getColumn(int index) {
+
+	return columns[index];
+
+    }
+
+    /**
+     *
+     * Get the column of the display name, or null if there is none.
+     */
+
+    public Column getColumn(String name) {
+
+	Integer index = indexes.get(name);
+
+	return index == null ? null : columns[index];
+
+    }
+
+    /**
+     *
+     * Get the display names of the columns in order.
+     */
+
+    public Set<String> getColumnNames() {
+
+	return Collections.unmodifiableSet(indexes.keySet());
+
+    }
+
+    /**
+     *
+     * Get the read-only view of a record backed by the columns.
+     */
+
+    public Map<String, String> getRow(int row) {
+
+	if (row < 0 || row >= rowCount)
+
+	    throw new IndexOutOfBoundsException(String.format(
+		    "Row %d is out of [0, %d).", row, rowCount));
+
+	return new Row(row);
+
+    }
+
+    /**
+     *
+     * Get the read-only views of all records.
+     */
+
+    public List<Map<String, String>> getRows() {
+
+	return new AbstractList<Map<String, String>>() {
+
+	    @Override
+	    public Map<String, String> get(int index) {
+
+		return getRow(index);
+
+	    }
+
+	    @Override
+	    public int size() {
+
+		return rowCount;
+
+	    }
+
+	};
+
+    }
+
+    /**
+     *
+     * Map of the non-null values of a row.
+     */
+
+    private final class Row extends AbstractMap<String, String> {
+
+	private final int row;
+
+	private Row(int row) {
+
+	    this.row = row;
+
+	}
+
+	@Override
+	public String get(Object key) {
+
+	    Integer index = indexes.get(key);
+
+	    return index == null ? null : columns[index].getString(row);
+
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+
+	    Integer index = indexes.get(key);
+
+	    return index != null && !columns[index].isNull(row);
+
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+
+	    return new AbstractSet<Map.Entry<String, String>>() {
+
+		@Override
+		public Iterator<Map.Entry<String, String>> iterator() {
+
+		    return new Iterator<Map.Entry<String, String>>() {
+
+			private int next = nextOf(0);
+
+			@Override
+			public boolean hasNext() {
+
+			    return next < columns.length;
+
+			}
+
+			@Override
+			public Map.Entry<String, String> next() {
+
+			    if (next >= columns.length)
+
+				throw new NoSuchElementException();
+
+			    Column column = columns[next];
+
+			    next = nextOf(next + 1);
+
+			    return new SimpleImmutableEntry<String, String>(
+				    column.getName(), column.getString(row));
+
+			}
+
+			@Override
+			public void remove() {
+
+			    throw new UnsupportedOperationException();
+
+			}
+
+		    };
+
+		}
+
+		@Override
+		public int size() {
+
+		    int size = 0;
+
+		    for (Column column : columns) {
+
+			if (!column.isNull(row))
+
+			    size++;
+
+		    }
+
+		    return size;
+
+		}
+
+	    };
+
+	}
+
+	// Index of the first column of non-null value from the index
+
+	private int nextOf(int index) {
+
+	    while (index < columns.length && columns[index].isNull(row)) {
+
+		index++;
+
+	    }
+
+	    return index;
+
+	}
+
+    }
+
+    @Override
+    public String toString() {
+
+	StringBuilder sb = new StringBuilder();
+
+	sb.append(rowCount).append(" rows of ");
+
+	for (int i = 0; i < columns.length; i++) {
+
+	    if (i != 0)
+
+		sb.append(", ");
+
+	    sb.append(columns[i]);
+
+	}
+
+	return sb.toString();
+
+    }
+
+}
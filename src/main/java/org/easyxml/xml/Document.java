@@ -15,17 +15,21 @@
  */
 package org.easyxml.xml;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.lang3.StringUtils;
+import org.easyxml.metrics.Metrics;
 import org.xml.sax.SAXException;
 
 /**
@@ -49,11 +53,62 @@ public class Document extends Element {
 
     private static final String DefaultDeclarationFormat = "<?xml version=\"1.0\" encoding=\"%s\"?>\n";
 
+    private static final String DeclarationLeading = "<?xml version=\"1.0\" encoding=\"";
+
+    private static final String DeclarationEnding = "\"?>\n";
+
     // Usually we have only one element for all valid children element, then it
     // could be specified as this to facilitate most operations.
 
     protected Element defaultContainer = null;
 
+    // Index of the element names, composed when queried by PathExpression
+    // and discarded once the tree is changed
+
+    private NameIndex nameIndex = null;
+
+    // Names of the attributes whose values are indexed
+
+    private final Set<String> indexedAttributes = new LinkedHashSet<String>();
+
+    // Count of the changes of the tree, the attributes and the values
+
+    private long version = 0;
+
+    // Results of the queries with the version when they were composed, null
+    // if the query cache is disabled
+
+    private LruCache<String, CachedResult> queryCache = null;
+
+    private static final class CachedResult {
+
+	private final long version;
+
+	private final Object result;
+
+	private CachedResult(long version, Object result) {
+
+	    this.version = version;
+
+	    this.result = result;
+
+	}
+
+    }
+
+    // Test of the results cached, those of another version are misses
+
+    private final LruCache.Validator<CachedResult> currentVersion = new LruCache.Validator<CachedResult>() {
+
+	@Override
+	public boolean isValid(CachedResult cached) {
+
+	    return cached.version == version;
+
+	}
+
+    };
+
     public Element getDefaultContainer() {
 
 	return defaultContainer;
@@ -107,7 +162,16 @@ public class Document extends Element {
 
 		} while (parent != null);
 
-		this.defaultContainer = container;
+		if (this.defaultContainer != container) {
+
+		    this.defaultContainer = container;
+
+		    // Queries are resolved against another element, so the cached
+		    // results are not valid any more
+
+		    version++;
+
+		}
 
 	    }
 
@@ -121,7 +185,7 @@ public class Document extends Element {
 
     public Boolean setDefaultContainerByPath(String path) {
 
-	List<Element> elements = getElementsOf(path);
+	List<Element> elements = elementsOf(path);
 
 	if (elements == null || elements.size() != 1)
 
@@ -133,6 +197,203 @@ public class Document extends Element {
 
     }
 
+    /**
+     * 
+     * Get the index of the element names of this document, it is composed
+     * when it is not available.
+     */
+
+    NameIndex getNameIndex() {
+
+	if (nameIndex == null)
+
+	    nameIndex = new NameIndex(this, indexedAttributes);
+
+	return nameIndex;
+
+    }
+
+    /**
+     *
+     * Check if the values of the attribute are indexed by indexAttribute().
+     */
+
+    boolean isAttributeIndexed(String attributeName) {
+
+	return indexedAttributes.contains(attributeName);
+
+    }
+
+    /**
+     * 
+     * Index the values of an attribute, so that the predicates of equality
+     * like "book[@id='bk101']" locate the elements directly instead of
+     * checking the elements one by one.
+     * 
+     * The index is composed when it is queried for the first time, and
+     * composed again once the tree or the values of an indexed attribute
+     * are changed.
+     * 
+     * @param attributeName
+     *            - Name of the attribute to be indexed.
+     * 
+     * @return This document for cascading processing.
+     */
+
+    public Document indexAttribute(String attributeName) {
+
+	if (indexedAttributes.add(attributeName))
+
+	    nameIndex = null;
+
+	return this;
+
+    }
+
+    /**
+     * 
+     * Discard the NameIndex since the tree is changed.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#changed()
+     */
+
+    @Override
+    protected void changed() {
+
+	nameIndex = null;
+
+	version++;
+
+	super.changed();
+
+    }
+
+    /**
+     * 
+     * Discard the NameIndex only if the values of the attribute are indexed,
+     * the names of the elements are not changed.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#attributeChanged(java.lang.String)
+     */
+
+    @Override
+    protected void attributeChanged(String attributeName) {
+
+	if (indexedAttributes.contains(attributeName))
+
+	    nameIndex = null;
+
+	version++;
+
+	super.attributeChanged(attributeName);
+
+    }
+
+    /**
+     * 
+     * Count the change of the values, so that the cached query results are
+     * not used any more.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#valueChanged()
+     */
+
+    @Override
+    protected void valueChanged() {
+
+	version++;
+
+	super.valueChanged();
+
+    }
+
+    /**
+     * 
+     * Get the version of this document, it is increased by every change of
+     * the elements, the attributes or the values, such as setValue(),
+     * appendValue(), setAttributeValue(), addChildElement() and setValuesOf().
+     * 
+     * Increasing it never clears the query cache, but the changed element
+     * reaches this document by its parents, so each change costs O(depth) of
+     * the element.
+     */
+
+    public long getVersion() {
+
+	return version;
+
+    }
+
+    /**
+     * 
+     * Enable the cache of the results of getValuesOf() and mapOf(), so that
+     * the same query is answered without evaluation until this document is
+     * changed. The results are kept with the version of this document, and
+     * only used when the version is not changed, a result of another version
+     * is discarded once it is looked up.
+     * 
+     * The arrays of getValuesOf() and the records of mapOf() are copied when
+     * returned, so they could be modified by the caller the same as when the
+     * cache is disabled.
+     * 
+     * @param size
+     *            - Count of the results kept at most, 0 to disable the cache.
+     * 
+     * @return This document for cascading processing.
+     */
+
+    public Document setQueryCacheSize(int size) {
+
+	if (size < 0)
+
+	    throw new IllegalArgumentException(
+		    "The size of the cache cannot be negative!");
+
+	if (size == 0)
+
+	    queryCache = null;
+
+	else if (queryCache == null)
+
+	    queryCache = new LruCache<String, CachedResult>(
+		    Metrics.QueryCache, size);
+
+	else
+
+	    queryCache.setCapacity(size);
+
+	return this;
+
+    }
+
+    public int getQueryCacheSize() {
+
+	return queryCache == null ? 0 : queryCache.getCapacity();
+
+    }
+
+    /**
+     * 
+     * Get the result cached of the current version, or null if there is none.
+     */
+
+    private CachedResult cachedResultOf(String key) {
+
+	return queryCache.get(key, currentVersion);
+
+    }
+
     /**
      * 
      * If there is a solid defaultContainer, then the child would be appended to
@@ -230,17 +491,17 @@ public class Document extends Element {
      * 
      * 
      * 
-     * @see org.easyxml.xml.Element#getElementsOf(java.lang.String)
+     * @see org.easyxml.xml.Element#elementsOf(java.lang.String)
      */
 
     @Override
-    public List<Element> getElementsOf(String path) {
+    List<Element> elementsOf(String path) {
 
 	List<Element> result = null;
 
 	if (defaultContainer != null) {
 
-	    result = defaultContainer.getElementsOf(path);
+	    result = defaultContainer.elementsOf(path);
 
 	    if (result != null)
 
@@ -248,7 +509,7 @@ public class Document extends Element {
 
 	}
 
-	return super.getElementsOf(path);
+	return super.elementsOf(path);
 
     }
 
@@ -267,9 +528,44 @@ public class Document extends Element {
     @Override
     public String[] getValuesOf(String path) {
 
-	return (defaultContainer != null) ?
+	if (queryCache == null)
+
+	    return (defaultContainer != null) ?
+
+	    defaultContainer.getValuesOf(path) : super.getValuesOf(path);
+
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
+
+	String key = "getValuesOf:" + path;
+
+	CachedResult cached = cachedResultOf(key);
+
+	String[] values;
 
-	defaultContainer.getValuesOf(path) : super.getValuesOf(path);
+	if (cached != null) {
+
+	    values = (String[]) cached.result;
+
+	    if (start != 0)
+
+		Metrics.queried("getValuesOf", path, values == null ? 0
+			: values.length, true, start);
+
+	} else {
+
+	    long current = version;
+
+	    values = (defaultContainer != null) ?
+
+	    defaultContainer.getValuesOf(path) : super.getValuesOf(path);
+
+	    queryCache.put(key, new CachedResult(current, values));
+
+	}
+
+	// The cached array is kept from being modified by the caller
+
+	return values == null ? null : values.clone();
 
     }
 
@@ -282,109 +578,365 @@ public class Document extends Element {
      * 
      * 
      * 
-     * @see org.easyxml.xml.Element#setValuesOf(java.lang.String,
-     *      java.lang.String[])
+     * @see org.easyxml.xml.Element#getLongValuesOf(java.lang.String)
      */
 
     @Override
-    public Boolean setValuesOf(String path, String... values) {
+    public long[] getLongValuesOf(String path) {
 
 	return (defaultContainer != null) ?
 
-	defaultContainer.setValuesOf(path, values) : super.setValuesOf(path,
-		values);
+	defaultContainer.getLongValuesOf(path) : super.getLongValuesOf(path);
 
     }
 
     /**
      * 
-     * If there is a solid defaultContainer, then the attributeName be used to
-     * search its attributes/elements first.
+     * If there is a solid defaultContainer, then the path be used to search its
+     * attributes/elements first.
      * 
      * {@inheritDoc}
      * 
      * 
      * 
-     * @see org.easyxml.xml.Element#setAttributeValue(java.lang.String,
-     *      java.lang.String)
+     * @see org.easyxml.xml.Element#getDoubleValuesOf(java.lang.String)
      */
 
     @Override
-    public Boolean setAttributeValue(String attributeName, String newValue) {
+    public double[] getDoubleValuesOf(String path) {
 
 	return (defaultContainer != null) ?
 
-	defaultContainer.setAttributeValue(attributeName, newValue) : super
-		.setAttributeValue(attributeName, newValue);
+	defaultContainer.getDoubleValuesOf(path) : super.getDoubleValuesOf(path);
 
     }
 
+    /**
+     * 
+     * If there is a solid defaultContainer, then the path be used to search its
+     * attributes/elements first.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#getBooleanValuesOf(java.lang.String)
+     */
+
     @Override
-    public Boolean containsElement(String name) {
+    public boolean[] getBooleanValuesOf(String path) {
 
-	Boolean result = false;
+	return (defaultContainer != null) ?
 
-	if (defaultContainer != null) {
+	defaultContainer.getBooleanValuesOf(path) : super.getBooleanValuesOf(path);
 
-	    result = defaultContainer.containsElement(name);
+    }
 
-	    if (result)
+    /**
+     * 
+     * If there is a solid defaultContainer, then the path be used to search its
+     * attributes/elements first.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#countOf(java.lang.String)
+     */
 
-		return result;
+    @Override
+    public int countOf(String path) {
 
-	}
+	return (defaultContainer != null) ?
 
-	return super.containsElement(name);
+	defaultContainer.countOf(path) : super.countOf(path);
 
     }
 
+    /**
+     * 
+     * If there is a solid defaultContainer, then the path be used to search its
+     * attributes/elements first.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#exists(java.lang.String)
+     */
+
     @Override
-    public String toString() {
+    public boolean exists(String path) {
 
-	return this.toString(DefaultCharset, DefaultDisplayEmeptyElement,
-		DefaultDisplayEmeptyElement);
+	return (defaultContainer != null) ?
+
+	defaultContainer.exists(path) : super.exists(path);
 
     }
 
     /**
      * 
-     * Get well-formatted string of this XML document.
+     * If there is a solid defaultContainer, then the path be used to search its
+     * attributes/elements first.
      * 
-     * @param charset
-     *            - Charset to be specified in the XML Declaration.
+     * {@inheritDoc}
      * 
-     * @param keepEmptyElments
-     *            - Specify if Empty Elements shall be displayed.
      * 
-     * @param keepSpace
-     *            - Specify if SPACE like ' ', '\t', '\n' shall be displayed.
      * 
-     * @return Output string.
+     * @see org.easyxml.xml.Element#firstValueOf(java.lang.String)
      */
 
-    public String toString(Charset charset, Boolean keepEmptyElments,
-	    Boolean keepSpace) {
+    @Override
+    public String firstValueOf(String path) {
 
-	if (charset == null) {
+	return (defaultContainer != null) ?
 
-	    System.out
-		    .print("Invalid charset specified, using the Default Charset instead.");
+	defaultContainer.firstValueOf(path) : super.firstValueOf(path);
 
-	    charset = DefaultCharset;
+    }
 
-	}
+    /**
+     * 
+     * If there is a solid defaultContainer, then the path be used to search its
+     * attributes/elements first.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#setValuesOf(java.lang.String,
+     *      java.lang.String[])
+     */
+
+    @Override
+    public Boolean setValuesOf(String path, String... values) {
+
+	return (defaultContainer != null) ?
+
+	defaultContainer.setValuesOf(path, values) : super.setValuesOf(path,
+		values);
+
+    }
+
+    /**
+     * 
+     * If there is a solid defaultContainer, then the attributeName be used to
+     * search its attributes/elements first.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#setAttributeValue(java.lang.String,
+     *      java.lang.String)
+     */
+
+    @Override
+    public Boolean setAttributeValue(String attributeName, String newValue) {
+
+	return (defaultContainer != null) ?
+
+	defaultContainer.setAttributeValue(attributeName, newValue) : super
+		.setAttributeValue(attributeName, newValue);
+
+    }
+
+    @Override
+    public Boolean containsElement(String name) {
+
+	Boolean result = false;
+
+	if (defaultContainer != null) {
 
-	String xml = String.format(DefaultDeclarationFormat, charset.name()) +
+	    result = defaultContainer.containsElement(name);
+
+	    if (result)
+
+		return result;
+
+	}
+
+	return super.containsElement(name);
+
+    }
+
+    @Override
+    public String toString() {
+
+	return this.toString(DefaultCharset, DefaultDisplayEmeptyElement,
+		DefaultDisplayEmeptyElement);
+
+    }
+
+    /**
+     * 
+     * Get well-formatted string of this XML document.
+     * 
+     * @param charset
+     *            - Charset to be specified in the XML Declaration.
+     * 
+     * @param keepEmptyElments
+     *            - Specify if Empty Elements shall be displayed.
+     * 
+     * @param keepSpace
+     *            - Specify if SPACE like ' ', '\t', '\n' shall be displayed.
+     * 
+     * @return Output string.
+     */
+
+    public String toString(Charset charset, Boolean keepEmptyElments,
+	    Boolean keepSpace) {
+
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-	super.toString(0, keepEmptyElments, keepEmptyElments);
+	SerializationContext context = SerializationContext.acquire();
+
+	try {
+
+	    StringBuilder sb = context.chars();
+
+	    compose(sb, validCharsetOf(charset), keepEmptyElments, keepSpace);
+
+	    if (start != 0)
+
+		Metrics.serialized(Metrics.Xml, sb.length(), start);
+
+	    return sb.toString();
+
+	} finally {
+
+	    context.release();
+
+	}
+
+    }
+
+    /**
+     * 
+     * Compose this XML document with its XML Declaration into the buffer.
+     */
+
+    private void compose(StringBuilder sb, Charset charset,
+	    Boolean keepEmptyElments, Boolean keepSpace) {
+
+	sb.append(DeclarationLeading).append(charset.name())
+		.append(DeclarationEnding);
+
+	new XmlWriter(keepEmptyElments, keepEmptyElments).write(this, 0, sb);
 
 	if (!keepSpace) {
 
-	    xml = xml.replaceAll("\\s+", "");
+	    SerializationContext.removeSpaces(sb);
+
+	}
+
+    }
+
+    private static Charset validCharsetOf(Charset charset) {
+
+	if (charset == null) {
+
+	    System.out
+		    .print("Invalid charset specified, using the Default Charset instead.");
+
+	    return DefaultCharset;
+
+	}
+
+	return charset;
+
+    }
+
+    /**
+     * 
+     * Get well-formatted string of this XML document, with the children of the
+     * DefaultContainer (or this document when it is not set) composed in
+     * parallel.
+     * 
+     * @param charset
+     *            - Charset to be specified in the XML Declaration.
+     * 
+     * @param keepEmptyElments
+     *            - Specify if Empty Elements shall be displayed.
+     * 
+     * @param keepSpace
+     *            - Specify if SPACE like ' ', '\t', '\n' shall be displayed.
+     * 
+     * @param pool
+     *            - ForkJoinPool to compose the children, the document would be
+     *            composed sequentially if it is null.
+     * 
+     * @return Output string, identical to that of toString(charset,
+     *         keepEmptyElments, keepSpace).
+     */
+
+    public String toString(Charset charset, Boolean keepEmptyElments,
+	    Boolean keepSpace, ForkJoinPool pool) {
+
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
+
+	StringBuilder sb = new StringBuilder();
+
+	try {
+
+	    writeTo(sb, charset, keepEmptyElments, keepSpace, pool);
+
+	} catch (IOException e) {
+
+	    // Never happen when appending to a StringBuilder
+
+	    e.printStackTrace();
 
 	}
 
-	return xml;
+	if (start != 0)
+
+	    Metrics.serialized(Metrics.Xml, sb.length(), start);
+
+	return sb.toString();
+
+    }
+
+    /**
+     * 
+     * Write this XML document to the output, with the children of the
+     * DefaultContainer (or this document when it is not set) composed in
+     * parallel and written in document order.
+     * 
+     * @param out
+     *            - Appendable like a Writer to receive the output.
+     * 
+     * @param charset
+     *            - Charset to be specified in the XML Declaration.
+     * 
+     * @param keepEmptyElments
+     *            - Specify if Empty Elements shall be displayed.
+     * 
+     * @param keepSpace
+     *            - Specify if SPACE like ' ', '\t', '\n' shall be displayed.
+     * 
+     * @param pool
+     *            - ForkJoinPool to compose the children, the document would be
+     *            composed sequentially if it is null.
+     * 
+     * @throws IOException
+     */
+
+    public void writeTo(Appendable out, Charset charset,
+	    Boolean keepEmptyElments, Boolean keepSpace, ForkJoinPool pool)
+	    throws IOException {
+
+	charset = validCharsetOf(charset);
+
+	String declaration = String.format(DefaultDeclarationFormat,
+		charset.name());
+
+	out.append(keepSpace ? declaration : declaration.replaceAll("\\s+", ""));
+
+	Element container = defaultContainer == null ? this : defaultContainer;
+
+	new ParallelXmlWriter(keepEmptyElments, keepEmptyElments, container,
+		pool, 0).write(this, 0, out, keepSpace);
 
     }
 
@@ -407,11 +959,74 @@ public class Document extends Element {
     public byte[] getBytes(Charset charset, Boolean keepEmptyElments,
 	    Boolean keepSpace) {
 
-	String xml = this.toString(charset, keepEmptyElments, keepSpace);
+	charset = validCharsetOf(charset);
+
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
+
+	SerializationContext context = SerializationContext.acquire();
+
+	try {
+
+	    StringBuilder sb = context.chars();
+
+	    compose(sb, charset, keepEmptyElments, keepSpace);
+
+	    // Encode the buffer directly without composing a String first
+
+	    byte[] bytes = context.encode(sb, charset);
+
+	    if (start != 0)
+
+		Metrics.serialized(Metrics.XmlBytes, bytes.length, start);
+
+	    return bytes;
+
+	} finally {
+
+	    context.release();
+
+	}
+
+    }
+
+    /**
+     * 
+     * Estimate the retained bytes of this document with one walk of the tree,
+     * to weigh the document when it is cached.
+     * 
+     * @return Footprint with the bytes of the elements, attributes, values,
+     *         children maps and lists, the path index kept by setParent(),
+     *         and the NameIndex and the query cache once they are composed.
+     */
+
+    public Footprint estimateFootprint() {
+
+	return Footprint.of(this);
+
+    }
+
+    /**
+     * 
+     * Add the NameIndex and the results of the query cache, which are kept
+     * besides the tree, to the footprint.
+     */
+
+    void estimateCaches(Footprint footprint) {
+
+	if (nameIndex != null)
+
+	    footprint.index(nameIndex);
+
+	if (queryCache == null)
+
+	    return;
 
-	byte[] bytes = xml.getBytes(charset);
+	for (Map.Entry<String, CachedResult> entry : queryCache.snapshot()
+		.entrySet()) {
 
-	return bytes;
+	    footprint.cachedResult(entry.getKey(), entry.getValue().result);
+
+	}
 
     }
 
@@ -433,126 +1048,375 @@ public class Document extends Element {
 
 	    return null;
 
-	Map<String, String[]> result = new LinkedHashMap<String, String[]>();
+	// Paths are resolved the same as getValuesOf()
+
+	return new PathExtractor(pathMap)
+		.valuesOf(defaultContainer != null ? defaultContainer : this);
+
+    }
+
+    public List<? extends Map<String, String>> mapOf(String objectPath) {
 
-	Iterator<Entry<String, String>> iterator = pathMap.entrySet()
-		.iterator();
+	return mapOf(objectPath, null);
 
-	while (iterator.hasNext()) {
+    }
 
-	    Entry<String, String> next = iterator.next();
+    public List<? extends Map<String, String>> mapOf(String objectPath,
+	    Map<String, String> pathMap) {
 
-	    String path = next.getKey();
+	if (!Metrics.isEnabled())
 
-	    String[] values = getValuesOf(path);
+	    return cachedRecordsOf(objectPath, pathMap);
 
-	    result.put(next.getValue(), values);
+	long start = System.nanoTime();
 
-	}
+	boolean hit = (defaultContainer != null && defaultContainer
+		.isIndexed(objectPath)) || isIndexed(objectPath);
+
+	List<? extends Map<String, String>> result = cachedRecordsOf(
+		objectPath, pathMap);
+
+	Metrics.queried("mapOf", objectPath, result == null ? 0 : result.size(),
+		hit, start);
 
 	return result;
 
     }
 
-    public List<? extends Map<String, String>> mapOf(String objectPath) {
+    /**
+     * 
+     * Convert the elements of the objectPath to records kept by columns, with
+     * all attributes and children as Text columns.
+     * 
+     * @param objectPath
+     *            - Path of the elements to be converted.
+     * 
+     * @return null if there is no such element.
+     */
 
-	return mapOf(objectPath, null);
+    public ColumnarResult columnsOf(String objectPath) {
+
+	return columnsOf(objectPath, null, null);
 
     }
 
-    public List<? extends Map<String, String>> mapOf(String objectPath,
-	    Map<String, String> pathMap) {
+    /**
+     * 
+     * Convert the elements of the objectPath to records kept by columns, the
+     * values are the same as those of mapOf(objectPath, pathMap), but each
+     * path is kept by one dense array instead of one map entry per record.
+     * 
+     * @param objectPath
+     *            - Path of the elements to be converted.
+     * 
+     * @param pathMap
+     *            - Map of relative paths (as key) and their display names (as
+     *            value), or null to use all attributes and children.
+     * 
+     * @param types
+     *            - Types of the columns by their display names, or null to
+     *            keep all values as Text.
+     * 
+     * @return null if there is no such element.
+     */
+
+    public ColumnarResult columnsOf(String objectPath,
+	    Map<String, String> pathMap, Map<String, ColumnType> types) {
 
 	if (objectPath == null || !containsElement(objectPath))
 
 	    return null;
 
-	List<Element> objectElements = getElementsOf(objectPath);
+	List<Element> objectElements = elementsOf(objectPath);
 
 	if (pathMap == null) {
 
-	    pathMap = new HashMap<String, String>();
+	    pathMap = pathMapOf(objectElements);
 
-	    String thisPath = this.defaultContainer == null ? this.getPath()
-		    : this.defaultContainer.getPath();
+	}
 
-	    for (Element element : objectElements) {
+	return new PathExtractor(pathMap).columnsOf(objectElements, types);
 
-		if (element.attributes != null) {
+    }
 
-		    for (Map.Entry<String, Attribute> attribute : element.attributes
-			    .entrySet()) {
+    /**
+     * 
+     * Aggregate the values of this document without converting the records
+     * to maps. The paths are relative to the root even if there is a
+     * defaultContainer, so the records are the same as those aggregated by
+     * RecordReader.aggregate() from the XML of this document.
+     * 
+     * @param query
+     *            - Aggregation query like "group-by book>genre sum book>price".
+     * 
+     * @return The aggregated values, or null if the query is malformed.
+     * 
+     * @see org.easyxml.xml.Aggregation
+     */
+
+    public AggregateResult aggregate(String query) {
 
-			String key = attribute.getKey();
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-			if (!pathMap.containsKey(key))
+	Aggregation aggregation;
 
-			    pathMap.put(key, key);
+	try {
 
-		    }
+	    aggregation = Aggregation.parse(query);
 
-		}
+	} catch (InvalidParameterException ex) {
+
+	    ex.printStackTrace();
 
-		if (element.children != null) {
+	    return null;
 
-		    for (Map.Entry<String, List<Element>> child : element.children
-			    .entrySet()) {
+	}
 
-			String key = child.getKey();
+	AggregateResult result = aggregation.evaluate(this);
 
-			int lastSignPos = StringUtils.lastIndexOfAny(key,
-				Attribute.DefaultAttributePathSign,
-				Element.DefaultElementPathSign);
+	if (start != 0)
 
-			String alias = lastSignPos == -1 ? key : key
-				.substring(lastSignPos + 1);
+	    Metrics.queried("aggregate", aggregation.getRecordPath(),
+		    (int) result.getRecordCount(),
+		    isIndexed(aggregation.getRecordPath()), start);
 
-			if (!pathMap.containsKey(key))
+	return result;
 
-			    pathMap.put(key, alias);
+    }
 
-		    }
+    /**
+     * 
+     * Compose the key of the records of mapOf(), each path and display name
+     * is prefixed by its length so that different maps cannot be composed as
+     * the same key: {"<id"="a", "price"="b"} and {"<id"="a, price=b"} are
+     * printed as the same text by Map.toString().
+     */
 
-		}
+    private static String recordsKeyOf(String objectPath, Map<String, String> pathMap) {
+
+	StringBuilder sb = new StringBuilder("mapOf:");
+
+	appendKey(sb, objectPath);
+
+	if (pathMap == null)
+
+	    return sb.toString();
+
+	sb.append('{');
+
+	for (Map.Entry<String, String> entry : pathMap.entrySet()) {
+
+	    appendKey(sb, entry.getKey());
+
+	    appendKey(sb, entry.getValue());
+
+	}
+
+	return sb.toString();
+
+    }
+
+    private static void appendKey(StringBuilder sb, String text) {
+
+	if (text == null)
+
+	    sb.append('-');
+
+	else
+
+	    sb.append(text.length()).append(':').append(text);
+
+    }
+
+    /**
+     * 
+     * Get the records from the query cache if it is enabled, the records
+     * composed are cached as unmodifiable maps and copied when returned.
+     */
+
+    @SuppressWarnings("unchecked")
+    private List<? extends Map<String, String>> cachedRecordsOf(
+	    String objectPath, Map<String, String> pathMap) {
+
+	if (queryCache == null)
+
+	    return recordsOf(objectPath, pathMap);
+
+	String key = recordsKeyOf(objectPath, pathMap);
+
+	CachedResult cached = cachedResultOf(key);
+
+	if (cached != null)
+
+	    return copyOf((List<? extends Map<String, String>>) cached.result);
+
+	long current = version;
+
+	List<? extends Map<String, String>> records = recordsOf(objectPath,
+		pathMap);
+
+	if (records != null) {
+
+	    List<Map<String, String>> readOnly = new ArrayList<Map<String, String>>(
+		    records.size());
+
+	    for (Map<String, String> record : records) {
+
+		readOnly.add(Collections.unmodifiableMap(record));
 
 	    }
 
+	    records = Collections.unmodifiableList(readOnly);
+
 	}
 
-	ArrayList<HashMap<String, String>> result = new ArrayList<HashMap<String, String>>();
+	queryCache.put(key, new CachedResult(current, records));
+
+	return copyOf(records);
+
+    }
+
+    /**
+     * 
+     * Copy the cached records, so that they are modifiable like those
+     * composed without the cache.
+     */
+
+    private static List<HashMap<String, String>> copyOf(
+	    List<? extends Map<String, String>> records) {
+
+	if (records == null)
+
+	    return null;
+
+	List<HashMap<String, String>> copy = new ArrayList<HashMap<String, String>>(
+		records.size());
+
+	for (Map<String, String> record : records) {
+
+	    copy.add(new HashMap<String, String>(record));
+
+	}
+
+	return copy;
+
+    }
+
+    /**
+     * 
+     * Convert the elements of the objectPath to maps without being measured.
+     */
+
+    private List<? extends Map<String, String>> recordsOf(String objectPath,
+	    Map<String, String> pathMap) {
+
+	if (objectPath == null || !containsElement(objectPath))
+
+	    return null;
+
+	List<Element> objectElements = elementsOf(objectPath);
+
+	if (pathMap == null) {
+
+	    pathMap = pathMapOf(objectElements);
+
+	}
+
+	// All paths are compiled once and resolved together for each element
+
+	PathExtractor extractor = new PathExtractor(pathMap);
+
+	ArrayList<HashMap<String, String>> result = new ArrayList<HashMap<String, String>>(
+		objectElements.size());
 
 	for (Element element : objectElements) {
 
-	    HashMap<String, String> map = new HashMap<String, String>();
+	    result.add(extractor.recordOf(element));
+
+	}
+
+	return result;
 
-	    for (Map.Entry<String, String> entry : pathMap.entrySet()) {
+    }
 
-		String[] values = element.getValuesOf(entry.getKey());
+    /**
+     * 
+     * Compose the map of relative paths (as key) and their display names (as
+     * value) from the attributes and children of the elements.
+     * 
+     * @param objectElements
+     *            - Elements to be converted to maps.
+     * 
+     * @return Map with attribute names and children paths as keys.
+     */
 
-		if (values == null || values.length == 0)
+    static Map<String, String> pathMapOf(List<Element> objectElements) {
 
-		    continue;
+	Map<String, String> pathMap = new HashMap<String, String>();
 
-		String theValue = (values.length == 1) ? values[0] : "["
-			+ StringUtils.join(values, ", " + "]");
+	for (Element element : objectElements) {
+
+	    if (element.attributes != null) {
+
+		for (Map.Entry<String, Attribute> attribute : element.attributes
+			.entrySet()) {
 
-		String theAlias = entry.getValue();
+		    String key = attribute.getKey();
 
-		if (map.containsKey(theAlias)) {
+		    if (!pathMap.containsKey(key))
 
-		    theAlias = entry.getKey().replaceAll("<|>", "_");
+			pathMap.put(key, key);
 
 		}
 
-		map.put(theAlias, theValue);
+	    }
+
+	    if (element.children != null) {
+
+		for (Map.Entry<String, List<Element>> child : element.children
+			.entrySet()) {
+
+		    String key = child.getKey();
+
+		    int lastSignPos = StringUtils.lastIndexOfAny(key,
+			    Attribute.DefaultAttributePathSign,
+			    Element.DefaultElementPathSign);
+
+		    String alias = lastSignPos == -1 ? key : key
+			    .substring(lastSignPos + 1);
+
+		    if (!pathMap.containsKey(key))
+
+			pathMap.put(key, alias);
+
+		}
 
 	    }
 
-	    result.add(map);
+	}
+
+	return pathMap;
+
+    }
+
+    /**
+     * 
+     * Put the value with the alias of the path, or with the path itself when
+     * the alias has been used.
+     */
+
+    static void putValue(Map<String, String> map, Map.Entry<String, String> entry,
+	    String theValue) {
+
+	String theAlias = entry.getValue();
+
+	if (map.containsKey(theAlias)) {
+
+	    theAlias = entry.getKey().replaceAll("<|>", "_");
 
 	}
 
-	return result;
+	map.put(theAlias, theValue);
 
     }
 
@@ -590,7 +1454,7 @@ public class Document extends Element {
 
 	}
 
-	List<Element> objectElements = getElementsOf(objectPath);
+	List<Element> objectElements = elementsOf(objectPath);
 
 	return getJsonStringOf(objectElements, pathToKeys);
 
@@ -630,7 +1494,7 @@ public class Document extends Element {
 
 	}
 
-	List<Element> objectElements = getElementsOf(objectPath);
+	List<Element> objectElements = elementsOf(objectPath);
 
 	return getJsonStringOf(objectElements, pathToKeys);
 
@@ -639,60 +1503,32 @@ public class Document extends Element {
     @Override
     public String toJSON() {
 
-	if (this.defaultContainer != null) {
-
-	    return this.defaultContainer.toJSON();
-
-	} else {
-
-	    // Map<String, String> pathToKeys = new LinkedHashMap<String,
-	    // String>();
-
-	    // List<String> firstLevelPathes = new ArrayList<String>();
-
-	    // for(Map.Entry<String, List<Element>> entry :
-	    // this.children.entrySet()) {
+	return (this.defaultContainer != null) ? this.defaultContainer.toJSON()
+		: super.toJSON();
 
-	    // String originalPath = entry.getKey();
-
-	    // int firstSignPos = StringUtils.indexOfAny(originalPath, '>',
-	    // '<');
-
-	    //
-
-	    // String elementName = elementNameOf(originalPath);
-
-	    // if (firstSignPos == -1) {
-
-	    // firstLevelPathes.add(originalPath);
-
-	    // } else {
-
-	    // String relativePath = originalPath.substring(firstSignPos+1);
-
-	    // pathToKeys.put(relativePath, elementName);
-
-	    // }
-
-	    // }
-
-	    //
-
-	    // List<Element> objectElements = new ArrayList<Element>();
-
-	    // for(String firstLevelPath : firstLevelPathes) {
+    }
 
-	    // List<Element> elements = this.getElementsOf(firstLevelPath);
+    /**
+     * 
+     * If there is a solid defaultContainer, then only it would be output.
+     * 
+     * {@inheritDoc}
+     * 
+     * 
+     * 
+     * @see org.easyxml.xml.Element#writeJSON(java.lang.Appendable)
+     */
 
-	    // objectElements.addAll(elements);
+    @Override
+    public void writeJSON(Appendable out) throws IOException {
 
-	    // }
+	if (this.defaultContainer != null)
 
-	    // return getJsonStringOf(objectElements, pathToKeys);
+	    this.defaultContainer.writeJSON(out);
 
-	    return super.toJSON();
+	else
 
-	}
+	    super.writeJSON(out);
 
     }
 
@@ -15,6 +15,12 @@
  */
 package org.easyxml.xml;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -23,8 +29,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.easyxml.metrics.Metrics;
+import org.easyxml.util.Escaper;
 import org.easyxml.util.Utility;
 import org.xml.sax.SAXException;
 
@@ -197,6 +204,10 @@ public class Element {
 
     protected Map<String, List<Element>> children = null;
 
+    // Typed values parsed from the value, discarded when the value is changed
+
+    ParsedValue parsed = null;
+
     public String getName() {
 
 	return name;
@@ -207,6 +218,8 @@ public class Element {
 
 	this.name = name;
 
+	changed();
+
     }
 
     /**
@@ -218,7 +231,7 @@ public class Element {
 
     public String getValue() {
 
-	return StringEscapeUtils.unescapeXml(value);
+	return Escaper.unescapeXml(value);
 
     }
 
@@ -232,7 +245,11 @@ public class Element {
 
     public void setValue(String value) {
 
-	this.value = StringEscapeUtils.escapeXml10(StringUtils.trim(value));
+	this.value = Escaper.XML_TEXT.escape(StringUtils.trim(value));
+
+	parsed = null;
+
+	valueChanged();
 
     }
 
@@ -270,8 +287,7 @@ public class Element {
 
     public void appendValue(String value, String appendFormat) {
 
-	String formattedValue = StringEscapeUtils.escapeXml10(StringUtils
-		.trim(value));
+	String formattedValue = Escaper.XML_TEXT.escape(StringUtils.trim(value));
 
 	if (this.value == null || this.value.length() == 0) {
 
@@ -284,6 +300,10 @@ public class Element {
 
 	}
 
+	parsed = null;
+
+	valueChanged();
+
     }
 
     /**
@@ -385,6 +405,83 @@ public class Element {
 
 	}
 
+	// The container is the root now
+
+	container.changed();
+
+    }
+
+    /**
+     * 
+     * Called when the tree containing this element is changed, to discard
+     * anything derived from the tree, such as the NameIndex kept by the
+     * Document.
+     */
+
+    protected void changed() {
+
+	Element root = this;
+
+	while (root.parent != null) {
+
+	    root = root.parent;
+
+	}
+
+	if (root != this)
+
+	    root.changed();
+
+    }
+
+    /**
+     * 
+     * Called when an attribute of this element is added or its value is
+     * changed, to discard anything derived from the values of the attribute,
+     * such as the index of its values kept by the Document. The tree itself
+     * is not changed, so the index of the element names is kept.
+     * 
+     * @param attributeName
+     *            - Name of the attribute changed.
+     */
+
+    protected void attributeChanged(String attributeName) {
+
+	Element root = this;
+
+	while (root.parent != null) {
+
+	    root = root.parent;
+
+	}
+
+	if (root != this)
+
+	    root.attributeChanged(attributeName);
+
+    }
+
+    /**
+     * 
+     * Called when the innerText of this element is changed, to discard
+     * anything derived from the values, such as the query results cached by
+     * the Document.
+     */
+
+    protected void valueChanged() {
+
+	Element root = this;
+
+	while (root.parent != null) {
+
+	    root = root.parent;
+
+	}
+
+	if (root != this)
+
+	    root.valueChanged();
+
     }
 
     public Map<String, Attribute> getAttributes() {
@@ -593,6 +690,10 @@ public class Element {
 
     public Boolean containsElement(String name) {
 
+	if (PathExpression.isPattern(name))
+
+	    return elementsOf(name) != null;
+
 	return (this.children != null && this.children.containsKey(name))
 		|| name.length() == 0;
 
@@ -612,7 +713,9 @@ public class Element {
      * 
      *         null when path is null;
      * 
-     *         this when path is an empty String;
+     *         this when path is an empty String, even if it has no children
+     *         (before, null was returned for an element without children),
+     *         so "<id" is the attribute of this element in any case;
      * 
      *         null if no such element exists
      * 
@@ -621,11 +724,55 @@ public class Element {
 
     public List<Element> getElementsOf(String path) {
 
-	if (this.children == null)
+	if (!Metrics.isEnabled())
 
-	    return null;
+	    return elementsOf(path);
+
+	long start = System.nanoTime();
+
+	List<Element> elements = elementsOf(path);
+
+	Metrics.queried("getElementsOf", path,
+		elements == null ? 0 : elements.size(), elements != null, start);
+
+	return elements;
+
+    }
+
+    /**
+     * 
+     * Get the elements specified by 'path' without being measured, it is used
+     * by the other queries so that each of them is measured once.
+     */
+
+    List<Element> elementsOf(String path) {
+
+	return ownElementsOf(path);
+
+    }
+
+    /**
+     * 
+     * Get the elements specified by 'path' relative to this element itself,
+     * which is not redirected to the defaultContainer of a Document.
+     */
+
+    final List<Element> ownElementsOf(String path) {
+
+	if (PathExpression.isPattern(path)) {
+
+	    // Wildcard steps are resolved by the PathExpression
+
+	    List<Element> elements = PathExpression.compile(path).select(this);
+
+	    return elements.isEmpty() ? null : elements;
+
+	}
+
+	// The empty path denotes this element even if it has no children, so
+	// "<id" is resolved the same with or without children
 
-	else if (path.length() == 0) {
+	if (path.length() == 0) {
 
 	    List<Element> result = new ArrayList<Element>();
 
@@ -635,6 +782,10 @@ public class Element {
 
 	}
 
+	else if (this.children == null)
+
+	    return null;
+
 	else if (!children.containsKey(path))
 
 	    return null;
@@ -674,19 +825,11 @@ public class Element {
 	    throw new InvalidParameterException(
 		    "Blank path cannot be used to locate elements!");
 
-	String[] segments = path.split(Attribute.DefaultAttributePathSign);
-
-	int segmentLength = segments.length;
-
-	if (segmentLength > 2)
-
-	    throw new InvalidParameterException(
-		    String.format(
-			    "The path \'%s\' shall have at most one \'%s\' to denote the attribute of a kind of element."
+	PathExpression plan = PathExpression.compile(path);
 
-			    , path, Attribute.DefaultAttributePathSign));
-
-	return segments;
+	return plan.getAttributeName() == null ? new String[] { plan
+		.getElementPath() } : new String[] { plan.getElementPath(),
+		plan.getAttributeName() };
 
     }
 
@@ -723,6 +866,56 @@ public class Element {
 
     public String[] getValuesOf(String path) {
 
+	if (!Metrics.isEnabled())
+
+	    return valuesOf(path);
+
+	long start = System.nanoTime();
+
+	boolean indexed = isIndexed(path);
+
+	String[] values = valuesOf(path);
+
+	Metrics.queried("getValuesOf", path, values == null ? 0 : values.length,
+		indexed, start);
+
+	return values;
+
+    }
+
+    /**
+     * 
+     * Check if the path could be located by the attributes or the children
+     * directly, without resolving or creating any element.
+     */
+
+    protected boolean isIndexed(String path) {
+
+	if (path == null)
+
+	    return false;
+
+	if (path == Value || (attributes != null && attributes.containsKey(path)))
+
+	    return true;
+
+	int attributeMark = path.indexOf(Attribute.DefaultAttributePathSign);
+
+	String elementPath = attributeMark == -1 ? path : path.substring(0,
+		attributeMark);
+
+	return elementPath.length() == 0
+		|| (children != null && children.containsKey(elementPath));
+
+    }
+
+    /**
+     * 
+     * Get the values specified by 'path' without being measured.
+     */
+
+    private String[] valuesOf(String path) {
+
 	String[] values = null;
 
 	if (path == Value) {
@@ -751,14 +944,12 @@ public class Element {
 
 	try {
 
-	    String[] segments = parsePath(path);
+	    PathExpression plan = PathExpression.compile(path);
 
 	    // Get the target elements or elements of the target attributes
 	    // first
 
-	    String elementPath = segments[0];
-
-	    List<Element> elements = getElementsOf(elementPath);
+	    List<Element> elements = elementsOf(plan.getElementPath());
 
 	    if (elements == null)
 
@@ -768,7 +959,9 @@ public class Element {
 
 	    values = new String[size];
 
-	    if (segments.length == 1) {
+	    String attributeName = plan.getAttributeName();
+
+	    if (attributeName == null) {
 
 		// The path identify Element, thus return their innerText as an
 		// array
@@ -784,8 +977,6 @@ public class Element {
 		// Otherwise, the path denotes some attributes, then return the
 		// attributes values as an array
 
-		String attributeName = segments[1];
-
 		for (int i = 0; i < size; i++) {
 
 		    values[i] = elements.get(i)
@@ -811,171 +1002,585 @@ public class Element {
 
     /**
      * 
-     * Set the values of innerText/attribute/childElements/childAttributes
-     * specified by 'path'.
-     * 
-     * This would facilitate creation of a layered DOM tree conveniently.
-     * 
-     * For example, run setValuesOf("Child>GrandChild<Id", "1st", "2nd") of an
-     * empty element would:
-     * 
-     * 1) Create a new <Child> element;
-     * 
-     * 2) Create TWO new <GrandChild> element under the newly created <Child>
-     * element;
-     * 
-     * 3) First <GrandChild> element would have "Id" attribute of "1st", and
-     * second <GrandChild> of "2nd".
+     * Get the values specified by 'path' as long integers, the path is
+     * resolved the same as getValuesOf().
      * 
-     * If then call setValuesOf("Child>GrandChild<Id", "1", "2", "3"), no a new
-     * <GrandChild> element would be created
-     * 
-     * and the attribute values of these <GrandChild> elements would be set to
-     * "1", "2" and "3" respectively.
+     * The values are parsed once and kept by the elements and attributes
+     * until they are changed, so repeated queries don't parse them again.
      * 
      * @param path
      *            - The whole path of a Element or a Attribute.
      * 
-     *            For example, "SOAP:Envelope>SOAP:Body>Child" denotes <Child>
-     *            element/elements under <SOAP:Body>.
-     * 
-     *            "SOAP:Envelope>SOAP:Body>Child<Attr" denotes the "Attr"
-     *            attribute of the above <Child> element/elements.
-     * 
-     * @param values
-     *            - The values to be set when 'path':
-     * 
-     *            1) equals to "Value": then set the new value of the innerText
-     *            of this element.
-     * 
-     *            2) equals to some existing attribute name: then set the new
-     *            value of that attribute.
-     * 
-     *            3) is parsed as some elements, then their innerText would be
-     *            set.
-     * 
-     *            4) is parsed as some attributes, then these attribute values
-     *            would be set.
+     * @return The values, or null if there is no such element or attribute.
      * 
-     * @return 'true' if setting is successful, 'false' if failed.
+     * @throws NumberFormatException
+     *             if any value is absent or not a long integer.
      */
 
-    public Boolean setValuesOf(String path, String... values) {
-
-	try {
+    public long[] getLongValuesOf(String path) {
 
-	    if (path == Value) {
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-		if (values.length != 1)
+	List<ParsedValue> parsedValues = parsedValuesOf(path);
 
-		    throw new InvalidParameterException(
-			    "Only one String value is expected to set the value of this element");
+	long[] values = null;
 
-		// Change the innerText value of this element
+	if (parsedValues != null) {
 
-		setValue(values[0]);
+	    values = new long[parsedValues.size()];
 
-		return true;
+	    for (int i = 0; i < values.length; i++) {
 
-	    } else if (attributes != null && attributes.containsKey(path)) {
+		values[i] = parsedValues.get(i).asLong();
 
-		if (values.length != 1)
+	    }
 
-		    throw new InvalidParameterException(
-			    "Only one String value is expected to set the attribute value.");
+	}
 
-		// Set the attribute value of this element
+	if (start != 0)
 
-		setAttributeValue(path, values[0]);
+	    Metrics.queried("getLongValuesOf", path, values == null ? 0
+		    : values.length, isIndexed(path), start);
 
-		return true;
+	return values;
 
-	    }
+    }
 
-	    String[] segments = parsePath(path);
+    /**
+     * 
+     * Get the values specified by 'path' as doubles, the path is resolved the
+     * same as getValuesOf().
+     * 
+     * The values are parsed once and kept by the elements and attributes
+     * until they are changed, so repeated queries don't parse them again.
+     * 
+     * @param path
+     *            - The whole path of a Element or a Attribute.
+     * 
+     * @return The values, or null if there is no such element or attribute.
+     * 
+     * @throws NumberFormatException
+     *             if any value is absent or not a number.
+     */
 
-	    String elementPath = segments[0];
+    public double[] getDoubleValuesOf(String path) {
 
-	    // Try to treat the path as a key to its direct children elements
-	    // first
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-	    List<Element> elements = getElementsOf(elementPath);
+	List<ParsedValue> parsedValues = parsedValuesOf(path);
 
-	    Element newElement = null;
+	double[] values = null;
 
-	    if (elements == null) {
+	if (parsedValues != null) {
 
-		// 'path' is not a key for its own direct children, thus split
-		// it with '>'
+	    values = new double[parsedValues.size()];
 
-		// For instance, "Child>GrandChild" would be split to {"Child",
-		// "GrandChild"} then this element would:
+	    for (int i = 0; i < values.length; i++) {
 
-		// 1) search "Child" as its direct children elements;
+		values[i] = parsedValues.get(i).asDouble();
 
-		// 2) if no <Child> element exists, create one;
+	    }
 
-		// 3) search "Child>GrandChild" as its direct children elements;
+	}
 
-		// 4) if no exists, create new <GrandChild> as a new child of
-		// <Child> element.
+	if (start != 0)
 
-		String[] containers = elementPath.split(DefaultElementPathSign);
+	    Metrics.queried("getDoubleValuesOf", path, values == null ? 0
+		    : values.length, isIndexed(path), start);
 
-		String next = "";
+	return values;
 
-		Element last = this;
+    }
 
-		for (int i = 0; i < containers.length; i++) {
+    /**
+     * 
+     * Get the values specified by 'path' as booleans of "true" or "false"
+     * with case ignored, the path is resolved the same as getValuesOf().
+     * 
+     * The values are parsed once and kept by the elements and attributes
+     * until they are changed, so repeated queries don't parse them again.
+     * 
+     * @param path
+     *            - The whole path of a Element or a Attribute.
+     * 
+     * @return The values, or null if there is no such element or attribute.
+     * 
+     * @throws IllegalArgumentException
+     *             if any value is absent or neither "true" nor "false".
+     */
 
-		    next += containers[i];
+    public boolean[] getBooleanValuesOf(String path) {
 
-		    if (getElementsOf(next) == null) {
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-			newElement = new Element(containers[i], last);
+	List<ParsedValue> parsedValues = parsedValuesOf(path);
 
-		    }
+	boolean[] values = null;
 
-		    last = getElementsOf(next).get(0);
+	if (parsedValues != null) {
 
-		    next += DefaultElementPathSign;
+	    values = new boolean[parsedValues.size()];
 
-		}
+	    for (int i = 0; i < values.length; i++) {
 
-		elements = getElementsOf(elementPath);
+		values[i] = parsedValues.get(i).asBoolean();
 
 	    }
 
-	    int size = values.length;
+	}
 
-	    if (size > elements.size()) {
+	if (start != 0)
 
-		// In case the existing elements are less than values.length,
-		// create new elements under the last container
+	    Metrics.queried("getBooleanValuesOf", path, values == null ? 0
+		    : values.length, isIndexed(path), start);
 
-		int lastChildMark = elementPath
-			.lastIndexOf(DefaultElementPathSign);
+	return values;
 
-		String lastContainerPath = lastChildMark == -1 ? ""
-			: elementPath.substring(0, lastChildMark);
+    }
 
-		String lastElementName = elementPath
-			.substring(lastChildMark + 1);
+    /**
+     * 
+     * Count the values specified by 'path' without composing them.
+     * 
+     * For a path of attributes, the elements without the attribute are not
+     * counted, though getValuesOf() returns null for each of them: the count
+     * is that of the non-null values, not getValuesOf(path).length. Use
+     * countOf() on the element path to count the elements themselves.
+     * 
+     * @param path
+     *            - The whole path of a Element or a Attribute, resolved the
+     *            same as getValuesOf().
+     * 
+     * @return Count of the elements, or of the elements having the attribute
+     *         when the path denotes attributes; 1 if the path is "Value" or
+     *         the name of an attribute of this element.
+     */
 
-		Element firstContainer = getElementsOf(lastContainerPath)
-			.get(0);
+    public int countOf(String path) {
 
-		for (int i = elements.size(); i < size; i++) {
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-		    newElement = new Element(lastElementName, firstContainer);
+	int count = 0;
 
-		}
+	if (path == Value || (attributes != null && attributes.containsKey(path))) {
 
-		elements = getElementsOf(elementPath);
+	    count = 1;
+
+	} else {
+
+	    PathExpression plan = planOf(path);
+
+	    if (plan != null)
+
+		count = plan.count(this);
+
+	}
+
+	if (start != 0)
+
+	    Metrics.queried("countOf", path, count, isIndexed(path), start);
+
+	return count;
+
+    }
+
+    /**
+     * 
+     * Check if there is any value specified by 'path', the evaluation stops
+     * once one is found.
+     * 
+     * @param path
+     *            - The whole path of a Element or a Attribute, resolved the
+     *            same as getValuesOf().
+     * 
+     * @return 'true' if there is any such element, or any such element
+     *         having the attribute when the path denotes attributes.
+     */
+
+    public boolean exists(String path) {
+
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
+
+	boolean exists;
+
+	if (path == Value || (attributes != null && attributes.containsKey(path))) {
+
+	    exists = true;
+
+	} else {
+
+	    PathExpression plan = planOf(path);
+
+	    exists = plan != null && plan.exists(this);
+
+	}
+
+	if (start != 0)
+
+	    Metrics.queried("exists", path, exists ? 1 : 0, isIndexed(path),
+		    start);
+
+	return exists;
+
+    }
+
+    /**
+     * 
+     * Get the first value specified by 'path' in document order, the
+     * evaluation stops once it is found when possible.
+     * 
+     * @param path
+     *            - The whole path of a Element or a Attribute, resolved the
+     *            same as getValuesOf().
+     * 
+     * @return The innerText of the first element, or the attribute value of
+     *         the first element having the attribute when the path denotes
+     *         attributes; null if there is none.
+     */
+
+    public String firstValueOf(String path) {
+
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
+
+	String value = null;
+
+	boolean found = true;
+
+	if (path == Value) {
+
+	    value = getValue();
+
+	} else if (attributes != null && attributes.containsKey(path)) {
+
+	    value = getAttributeValue(path);
+
+	} else {
+
+	    PathExpression plan = planOf(path);
+
+	    Element first = plan == null ? null : plan.first(this);
+
+	    found = first != null;
+
+	    if (found)
+
+		value = plan.getAttributeName() == null ? first.getValue()
+			: first.getAttributeValue(plan.getAttributeName());
+
+	}
+
+	if (start != 0)
+
+	    Metrics.queried("firstValueOf", path, found ? 1 : 0,
+		    isIndexed(path), start);
+
+	return value;
+
+    }
+
+    /**
+     * 
+     * Get the compiled plan of the path, or null if the path is malformed.
+     */
+
+    private static PathExpression planOf(String path) {
+
+	try {
+
+	    return PathExpression.compile(path);
+
+	} catch (InvalidParameterException ex) {
+
+	    ex.printStackTrace();
+
+	    return null;
+
+	}
+
+    }
+
+    /**
+     * 
+     * Get the parsed values of the value of this element, or of the
+     * attributes or elements specified by 'path', the same as valuesOf().
+     */
+
+    List<ParsedValue> parsedValuesOf(String path) {
+
+	List<ParsedValue> parsedValues = new ArrayList<ParsedValue>();
+
+	if (path == Value) {
+
+	    parsedValues.add(parsedValue());
+
+	    return parsedValues;
+
+	} else if (attributes != null && attributes.containsKey(path)) {
+
+	    parsedValues.add(attributes.get(path).parsedValue());
+
+	    return parsedValues;
+
+	}
+
+	PathExpression plan = planOf(path);
+
+	if (plan == null)
+
+	    return null;
+
+	List<Element> elements = elementsOf(plan.getElementPath());
+
+	if (elements == null)
+
+	    return null;
+
+	String attributeName = plan.getAttributeName();
+
+	for (int i = 0; i < elements.size(); i++) {
+
+	    Element element = elements.get(i);
+
+	    if (attributeName == null) {
+
+		parsedValues.add(element.parsedValue());
+
+		continue;
+
+	    }
+
+	    Attribute attribute = element.attributes == null ? null
+		    : element.attributes.get(attributeName);
+
+	    parsedValues.add(attribute == null ? ParsedValue.Null : attribute
+		    .parsedValue());
+
+	}
+
+	return parsedValues;
+
+    }
+
+    /**
+     * 
+     * Get the typed values parsed from the value of this element.
+     */
+
+    ParsedValue parsedValue() {
+
+	ParsedValue current = parsed;
+
+	if (current == null || !current.isOf(value)) {
+
+	    current = new ParsedValue(value);
+
+	    parsed = current;
+
+	}
+
+	return current;
+
+    }
+
+    /**
+     * 
+     * Set the values of innerText/attribute/childElements/childAttributes
+     * specified by 'path'.
+     * 
+     * This would facilitate creation of a layered DOM tree conveniently.
+     * 
+     * For example, run setValuesOf("Child>GrandChild<Id", "1st", "2nd") of an
+     * empty element would:
+     * 
+     * 1) Create a new <Child> element;
+     * 
+     * 2) Create TWO new <GrandChild> element under the newly created <Child>
+     * element;
+     * 
+     * 3) First <GrandChild> element would have "Id" attribute of "1st", and
+     * second <GrandChild> of "2nd".
+     * 
+     * If then call setValuesOf("Child>GrandChild<Id", "1", "2", "3"), no a new
+     * <GrandChild> element would be created
+     * 
+     * and the attribute values of these <GrandChild> elements would be set to
+     * "1", "2" and "3" respectively.
+     * 
+     * @param path
+     *            - The whole path of a Element or a Attribute.
+     * 
+     *            For example, "SOAP:Envelope>SOAP:Body>Child" denotes <Child>
+     *            element/elements under <SOAP:Body>.
+     * 
+     *            "SOAP:Envelope>SOAP:Body>Child<Attr" denotes the "Attr"
+     *            attribute of the above <Child> element/elements.
+     * 
+     * @param values
+     *            - The values to be set when 'path':
+     * 
+     *            1) equals to "Value": then set the new value of the innerText
+     *            of this element.
+     * 
+     *            2) equals to some existing attribute name: then set the new
+     *            value of that attribute.
+     * 
+     *            3) is parsed as some elements, then their innerText would be
+     *            set.
+     * 
+     *            4) is parsed as some attributes, then these attribute values
+     *            would be set.
+     * 
+     * @return 'true' if setting is successful, 'false' if failed.
+     */
+
+    public Boolean setValuesOf(String path, String... values) {
+
+	if (!Metrics.isEnabled())
+
+	    return assignValuesOf(path, values);
+
+	long start = System.nanoTime();
+
+	boolean indexed = isIndexed(path);
+
+	Boolean result = assignValuesOf(path, values);
+
+	Metrics.queried("setValuesOf", path, values == null ? 0 : values.length,
+		indexed, start);
+
+	return result;
+
+    }
+
+    /**
+     * 
+     * Set the values specified by 'path' without being measured.
+     */
+
+    private Boolean assignValuesOf(String path, String... values) {
+
+	try {
+
+	    if (path == Value) {
+
+		if (values.length != 1)
+
+		    throw new InvalidParameterException(
+			    "Only one String value is expected to set the value of this element");
+
+		// Change the innerText value of this element
+
+		setValue(values[0]);
+
+		return true;
+
+	    } else if (attributes != null && attributes.containsKey(path)) {
+
+		if (values.length != 1)
+
+		    throw new InvalidParameterException(
+			    "Only one String value is expected to set the attribute value.");
+
+		// Set the attribute value of this element
+
+		setAttributeValue(path, values[0]);
+
+		return true;
+
+	    }
+
+	    PathExpression plan = PathExpression.compile(path);
+
+	    String elementPath = plan.getElementPath();
+
+	    // Try to treat the path as a key to its direct children elements
+	    // first
+
+	    List<Element> elements = elementsOf(elementPath);
+
+	    if (plan.isPattern()
+		    && (elements == null || values.length > elements.size()))
+
+		throw new InvalidParameterException(String.format(
+			"The elements of '%s' cannot be created.", path));
+
+	    Element newElement = null;
+
+	    if (elements == null) {
+
+		// 'path' is not a key for its own direct children, thus split
+		// it with '>'
+
+		// For instance, "Child>GrandChild" would be split to {"Child",
+		// "GrandChild"} then this element would:
+
+		// 1) search "Child" as its direct children elements;
+
+		// 2) if no <Child> element exists, create one;
+
+		// 3) search "Child>GrandChild" as its direct children elements;
+
+		// 4) if no exists, create new <GrandChild> as a new child of
+		// <Child> element.
+
+		String[] containers = elementPath.split(DefaultElementPathSign);
+
+		String next = "";
+
+		Element last = this;
+
+		for (int i = 0; i < containers.length; i++) {
+
+		    next += containers[i];
+
+		    if (elementsOf(next) == null) {
+
+			newElement = new Element(containers[i], last);
+
+		    }
+
+		    last = elementsOf(next).get(0);
+
+		    next += DefaultElementPathSign;
+
+		}
+
+		elements = elementsOf(elementPath);
+
+	    }
+
+	    int size = values.length;
+
+	    if (size > elements.size()) {
+
+		// In case the existing elements are less than values.length,
+		// create new elements under the last container
+
+		int lastChildMark = elementPath
+			.lastIndexOf(DefaultElementPathSign);
+
+		String lastContainerPath = lastChildMark == -1 ? ""
+			: elementPath.substring(0, lastChildMark);
+
+		String lastElementName = elementPath
+			.substring(lastChildMark + 1);
+
+		Element firstContainer = elementsOf(lastContainerPath)
+			.get(0);
+
+		for (int i = elements.size(); i < size; i++) {
+
+		    newElement = new Element(lastElementName, firstContainer);
+
+		}
+
+		elements = elementsOf(elementPath);
 
 	    }
 
-	    if (segments.length == 1) {
+	    String attributeName = plan.getAttributeName();
+
+	    if (attributeName == null) {
 
 		// The path identify Element, thus set their innerText
 
@@ -990,8 +1595,6 @@ public class Element {
 		// The path identify Attribute, thus set values of these
 		// attribute accordingly
 
-		String attributeName = segments[1];
-
 		for (int i = 0; i < size; i++) {
 
 		    elements.get(i).setAttributeValue(attributeName, values[i]);
@@ -1041,10 +1644,14 @@ public class Element {
 	    throw new SAXException(
 		    "Attribute name must be unique within an Element.");
 
-	if (value != null)
+	if (value != null) {
 
 	    this.attributes.put(name, new Attribute(this, name, value));
 
+	    attributeChanged(name);
+
+	}
+
 	return this;
 
     }
@@ -1210,35 +1817,6 @@ public class Element {
 
     }
 
-    private String getAttributeString() {
-
-	return allAttributesAsString(DefaultDisplayEmptyAttribute);
-
-    }
-
-    private String allAttributesAsString(Boolean outputEmptyAttribute) {
-
-	Iterator<Entry<String, Attribute>> iterator = attributes.entrySet()
-		.iterator();
-
-	StringBuilder sb = new StringBuilder();
-
-	while (iterator.hasNext()) {
-
-	    Attribute attribute = iterator.next().getValue();
-
-	    if (outputEmptyAttribute || !attribute.isEmpty()) {
-
-		sb.append(" " + attribute);
-
-	    }
-
-	}
-
-	return sb.toString();
-
-    }
-
     @Override
     public String toString() {
 
@@ -1265,115 +1843,29 @@ public class Element {
     public String toString(int indent, Boolean outputEmptyAttribute,
 	    Boolean outputEmptyElement) {
 
-	// If this is an empty element and no need to output empty element,
-	// return "" immediately.
-
-	if (!outputEmptyElement && this.isEmpty())
-
-	    return "";
-
-	String indentString = StringUtils.repeat(DefaultIndentHolder, indent);
-
-	StringBuilder sb = new StringBuilder(indentString + "<" + name);
-
-	// If this element has only attributes
-
-	if ((children == null || children.size() == 0)
-		&& (value == null || value.trim().length() == 0)) {
-
-	    // Compose the empty element tag
-
-	    if (attributes != null) {
-
-		sb.append(allAttributesAsString(outputEmptyAttribute));
-
-	    }
-
-	    sb.append("/>");
-
-	} else {
-
-	    // Compose the opening tag
-
-	    if (attributes != null) {
-
-		sb.append(allAttributesAsString(outputEmptyAttribute));
-
-	    }
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-	    sb.append('>');
+	SerializationContext context = SerializationContext.acquire();
 
-	    // Include the children elements by order
-
-	    if (children != null && !children.isEmpty()) {
-
-		sb.append(NewLine);
-
-		Iterator<Entry<String, List<Element>>> iterator2 = children
-			.entrySet().iterator();
-
-		while (iterator2.hasNext()) {
-
-		    Entry<String, List<Element>> next = iterator2.next();
-
-		    String path = next.getKey();
-
-		    if (path.contains(DefaultElementPathSign))
-
-			continue;
-
-		    List<Element> elements = next.getValue();
-
-		    for (int i = 0; i < elements.size(); i++) {
-
-			Element element = elements.get(i);
-
-			if (outputEmptyElement || !elements.get(i).isEmpty()) {
-
-			    sb.append(element.toString(indent + 1,
-				    outputEmptyAttribute, outputEmptyElement)
-				    + NewLine);
-
-			}
-
-		    }
-
-		}
-
-	    }
-
-	    // Include the inner text of this element
-
-	    if (StringUtils.isNotBlank(value)) {
-
-		if (children != null && !children.isEmpty()) {
-
-		    sb.append(IgnoreLeadingSpace ? indentString
-			    + DefaultIndentHolder + value + NewLine : value
-			    + NewLine);
-
-		} else {
+	try {
 
-		    sb.append(value);
+	    StringBuilder sb = context.chars();
 
-		}
+	    new XmlWriter(outputEmptyAttribute, outputEmptyElement).write(this,
+		    indent, sb);
 
-	    }
+	    if (start != 0)
 
-	    // Include the closing tag
+		Metrics.serialized(Metrics.Xml, sb.length(), start);
 
-	    if (children != null && !children.isEmpty()) {
-
-		sb.append(indentString);
+	    return sb.toString();
 
-	    }
+	} finally {
 
-	    sb.append(String.format(ClosingTagFormat, name));
+	    context.release();
 
 	}
 
-	return sb.toString();
-
     }
 
     protected String getJsonStringOf(List<Element> objectElements,
@@ -1445,157 +1937,88 @@ public class Element {
 
     }
 
+    /**
+     * 
+     * Get the JSON form of this element.
+     * 
+     * @param indent
+     *            - Indent count for this element.
+     * 
+     * @return String like "name":{...} to represent this element.
+     */
+
     public String toJSON(int indent) {
 
-	String indentString = StringUtils.repeat(DefaultIndentHolder, indent);
+	long start = Metrics.isEnabled() ? System.nanoTime() : 0;
 
-	StringBuilder sb = new StringBuilder();
+	SerializationContext context = SerializationContext.acquire();
 
-	sb.append(String.format("%s\"%s\":", indentString, this.getName()));
+	try {
 
-	String thisPath = this.getPath();
+	    StringBuilder sb = context.chars();
 
-	// If there is valid text node, return it immediately
+	    new JsonWriter(sb).write(this, indent);
 
-	if (!StringUtils.isBlank(this.value)) {
+	    if (start != 0)
 
-	    sb.append(String.format("\"%s\"", this.getValue()));
+		Metrics.serialized(Metrics.Json, sb.length(), start);
 
 	    return sb.toString();
 
-	}
+	} catch (IOException e) {
 
-	// Output as an object
+	    // Never happen when appending to a StringBuilder
 
-	sb.append("{");
-
-	// Otherwise, consider both the attributes and its children elements for
-	// output
-
-	if (this.attributes != null) {
-
-	    String attrIndent = StringUtils.repeat(DefaultIndentHolder,
-		    indent + 1);
-
-	    for (Map.Entry<String, Attribute> entry : this.attributes
-		    .entrySet()) {
-
-		String attrName = entry.getKey();
+	    e.printStackTrace();
 
-		String attrValue = this.getAttributeValue(attrName);
+	    return null;
 
-		sb.append(String.format("\n%s\"%s\": \"%s\",", attrIndent,
-			attrName, attrValue));
+	} finally {
 
-	    }
+	    context.release();
 
 	}
 
-	if (this.children != null) {
-
-	    List<String> firstLevelPathes = new ArrayList<String>();
-
-	    for (Map.Entry<String, List<Element>> entry : this.children
-		    .entrySet()) {
-
-		String originalPath = entry.getKey();
-
-		int firstSignPos = StringUtils.indexOfAny(originalPath, '>',
-			'<');
-
-		String elementName = elementNameOf(originalPath);
-
-		if (firstSignPos == -1) {
-
-		    firstLevelPathes.add(originalPath);
-
-		}
-
-	    }
-
-	    for (String firstLevelPath : firstLevelPathes) {
-
-		List<Element> elements = this.getElementsOf(firstLevelPath);
-
-		// Check to see if elements could be converted to JSON array
-
-		if (elements.size() > 1) {
-
-		    Boolean asArray = true;
-
-		    for (Element e : elements) {
-
-			if (!StringUtils.isBlank(e.getValue())) {
-
-			    asArray = false;
-
-			    break;
-
-			}
-
-		    }
-
-		    // If they could be treated as array
-
-		    if (asArray) {
-
-			String jsonKey = String.format("\"%s\":",
-				elements.get(0).getName());
-
-			sb.append(String.format("\n%s%s[\n",
-
-			StringUtils.repeat(DefaultIndentHolder, indent + 1),
-				jsonKey));
-
-			for (Element e : elements) {
-
-			    sb.append(String.format("%s,\n",
-				    e.toJSON(indent + 2).replace(jsonKey, "")));
-
-			}
-
-			// Remove the last ','
-
-			sb.setLength(sb.length() - 2);
-
-			sb.append(String.format("\n%s],", StringUtils.repeat(
-				DefaultIndentHolder, indent + 1)));
-
-			continue;
-
-		    }
-
-		}
-
-		// Otherwise, output the elements one by one
-
-		for (Element e : elements) {
-
-		    sb.append(String.format("\n%s,", e.toJSON(indent + 1)));
-
-		}
-
-	    }
-
-	    //
+    }
 
-	    // //Remove the last ',' and append '}'
+    /**
+     * 
+     * Write the JSON form of this element to the output directly.
+     * 
+     * @param out
+     *            - Appendable like a Writer to receive the output.
+     * 
+     * @throws IOException
+     */
 
-	    // sb.setLength(sb.length()-1);
+    public void writeJSON(Appendable out) throws IOException {
 
-	    // sb.append("\n" + indentString + "}");
+	new JsonWriter(out).write(this, 0);
 
-	}
+    }
 
-	if (sb.toString().endsWith(",")) {
+    /**
+     * 
+     * Write the JSON form of this element to the stream with the charset
+     * specified, the stream would be flushed but not closed.
+     * 
+     * @param out
+     *            - OutputStream to receive the output.
+     * 
+     * @param charset
+     *            - Charset to encode the JSON text.
+     * 
+     * @throws IOException
+     */
 
-	    sb.setLength(sb.toString().length() - 1);
+    public void writeJSON(OutputStream out, Charset charset)
+	    throws IOException {
 
-	    sb.append(String.format("\n%s}", indentString));
+	Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset));
 
-	}
+	writeJSON(writer);
 
-	return sb.toString();
+	writer.flush();
 
     }
 
@@ -0,0 +1,152 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Pipeline to walk through an Element tree only once, and feed the events to
+ * several ExportSinks, so that XML, JSON and records could be exported
+ * together.
+ *
+ * For example:
+ *
+ * RecordExportSink records = new RecordExportSink(doc, "book", null);
+ *
+ * new ExportPipeline().add(new XmlExportSink(xmlWriter, charset, true))
+ * .add(new JsonExportSink(jsonWriter, doc)).add(records).run(doc);
+ *
+ * @version $Id$
+ */
+
+public class ExportPipeline {
+
+    private final List<ExportSink> sinks = new ArrayList<ExportSink>();
+
+    // Kept as an array to avoid creating iterators for every event
+
+    private ExportSink[] sinkArray = new ExportSink[0];
+
+    /**
+     *
+     * Append a sink to receive the events.
+     *
+     * @param sink
+     *            - ExportSink to be fed.
+     *
+     * @return This pipeline for cascading processing.
+     */
+
+    public ExportPipeline add(ExportSink sink) {
+
+	if (sink != null) {
+
+	    sinks.add(sink);
+
+	    sinkArray = sinks.toArray(new ExportSink[sinks.size()]);
+
+	}
+
+	return this;
+
+    }
+
+    /**
+     *
+     * Walk through the tree and feed all sinks.
+     *
+     * @param root
+     *            - Root of the tree to be exported.
+     *
+     * @throws IOException
+     */
+
+    public void run(Element root) throws IOException {
+
+	for (ExportSink sink : sinkArray) {
+
+	    sink.startDocument(root);
+
+	}
+
+	walk(root, 0);
+
+	for (ExportSink sink : sinkArray) {
+
+	    sink.endDocument(root);
+
+	}
+
+    }
+
+    private void walk(Element element, int level) throws IOException {
+
+	ExportSink[] sinks = sinkArray;
+
+	for (ExportSink sink : sinks) {
+
+	    sink.startElement(element, level);
+
+	}
+
+	if (element.children != null) {
+
+	    for (Map.Entry<String, List<Element>> entry : element.children
+		    .entrySet()) {
+
+		// Only the direct children are kept with keys of their names
+
+		if (entry.getKey().contains(Element.DefaultElementPathSign))
+
+		    continue;
+
+		List<Element> elements = entry.getValue();
+
+		for (ExportSink sink : sinks) {
+
+		    sink.startGroup(elements, level + 1);
+
+		}
+
+		for (int i = 0; i < elements.size(); i++) {
+
+		    walk(elements.get(i), level + 1);
+
+		}
+
+		for (ExportSink sink : sinks) {
+
+		    sink.endGroup(elements, level + 1);
+
+		}
+
+	    }
+
+	}
+
+	for (ExportSink sink : sinks) {
+
+	    sink.endElement(element, level);
+
+	}
+
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ *
+ * Receiver of the events of walking through an Element tree by
+ * ExportPipeline.
+ *
+ * The children of an element are visited by groups of the same name, in the
+ * same order as they are displayed by Element.toString().
+ *
+ * @version $Id$
+ */
+
+public interface ExportSink {
+
+    /**
+     *
+     * Called before the root is visited.
+     *
+     * @param root
+     *            - Root element of the walk.
+     */
+
+    void startDocument(Element root) throws IOException;
+
+    /**
+     *
+     * Called when an element is entered, before its children.
+     *
+     * @param element
+     *            - Element entered.
+     *
+     * @param level
+     *            - Level relative to the root, 0 for the root.
+     */
+
+    void startElement(Element element, int level) throws IOException;
+
+    /**
+     *
+     * Called before a group of children of the same name are visited.
+     *
+     * @param elements
+     *            - Children sharing the same name.
+     *
+     * @param level
+     *            - Level of the children relative to the root.
+     */
+
+    void startGroup(List<Element> elements, int level) throws IOException;
+
+    /**
+     *
+     * Called after a group of children of the same name have been visited.
+     */
+
+    void endGroup(List<Element> elements, int level) throws IOException;
+
+    /**
+     *
+     * Called when an element is left, after its children.
+     */
+
+    void endElement(Element element, int level) throws IOException;
+
+    /**
+     *
+     * Called after the root is visited.
+     */
+
+    void endDocument(Element root) throws IOException;
+
+}
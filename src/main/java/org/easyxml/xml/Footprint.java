@@ -0,0 +1,619 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Estimated retained bytes of an Element tree, broken down by the kinds of
+ * objects keeping them.
+ *
+ * The estimation assumes a 64-bit JVM with compressed references: 12 bytes
+ * of object header, 4 bytes per reference and 8 bytes alignment, with the
+ * layouts of String, ArrayList and LinkedHashMap of the JDK. Strings and
+ * lists shared by several elements are counted only once. The capacity of
+ * an ArrayList is estimated by its default growth from 10, which would be a
+ * little more than those copied with the exact size.
+ *
+ * Besides the tree, a Document keeps the NameIndex once it is queried and
+ * the results of the query cache once it is enabled, which could retain as
+ * much as the tree itself. They are counted apart, since they are released
+ * once the tree is changed or the cache is disabled.
+ *
+ * @version $Id$
+ */
+
+public final class Footprint {
+
+    static final int ObjectHeader = 12;
+
+    static final int ArrayHeader = 16;
+
+    static final int Reference = 4;
+
+    static final int Alignment = 8;
+
+    // Strings are composed of bytes instead of chars since Java 9
+
+    static final boolean CompactStrings = !System.getProperty(
+	    "java.specification.version", "1.7").startsWith("1.");
+
+    static final int StringObject = align(ObjectHeader + Reference + 4 + 2);
+
+    static final int ArrayListObject = align(ObjectHeader + 4 + 4 + Reference);
+
+    static final int LinkedHashMapObject = align(ObjectHeader + 4 * Reference
+	    + 4 * 4 + 2 * Reference + 1);
+
+    static final int LinkedHashMapEntry = align(ObjectHeader + 4 + 5 * Reference);
+
+    static final int AttributeObject = align(ObjectHeader + 4 * Reference);
+
+    static final int ParsedValueObject = align(ObjectHeader + Reference + 8
+	    + 8 + 1 + 1);
+
+    static final int HashMapObject = align(ObjectHeader + 4 * Reference + 3
+	    * 4 + 4);
+
+    static final int HashMapNode = align(ObjectHeader + 4 + 3 * Reference);
+
+    static final int IdentityHashMapObject = align(ObjectHeader + 4
+	    * Reference + 2 * 4);
+
+    static final int NameIndexObject = align(ObjectHeader + 6 * Reference);
+
+    // The Comparator of the document order kept by NameIndex
+
+    static final int ComparatorObject = align(ObjectHeader + Reference);
+
+    // ConcurrentHashMap.Node, LruCache.Entry with its slot of the ring and
+    // Document.CachedResult of a result cached
+
+    static final int CachedResultObjects = align(ObjectHeader + 4 + 3
+	    * Reference)
+	    + align(ObjectHeader + 2 * Reference + 4 + 1) + Reference
+	    + align(ObjectHeader + 8 + Reference);
+
+    static final int UnmodifiableListObject = align(ObjectHeader + 2
+	    * Reference);
+
+    static final int UnmodifiableMapObject = align(ObjectHeader + 4
+	    * Reference);
+
+    private long elementBytes = 0;
+
+    private long nameBytes = 0;
+
+    private long valueBytes = 0;
+
+    private long attributeBytes = 0;
+
+    private long childMapBytes = 0;
+
+    private long childListBytes = 0;
+
+    private long pathKeyBytes = 0;
+
+    private long pathIndexBytes = 0;
+
+    private long indexBytes = 0;
+
+    private long queryCacheBytes = 0;
+
+    private int elementCount = 0;
+
+    private int attributeCount = 0;
+
+    private int pathKeyCount = 0;
+
+    private int cachedResultCount = 0;
+
+    // Strings and lists counted already
+
+    private final Map<Object, Boolean> counted = new IdentityHashMap<Object, Boolean>();
+
+    private Footprint() {
+
+    }
+
+    /**
+     *
+     * Estimate the footprint of the tree with one walk.
+     *
+     * @param root
+     *            - Root of the tree.
+     *
+     * @return Footprint of the root and all its descendants, with the
+     *         NameIndex and the query cache when the root is a Document.
+     */
+
+    static Footprint of(Element root) {
+
+	Footprint footprint = new Footprint();
+
+	footprint.walk(root);
+
+	// Counted after the tree, so that the names and values shared with
+	// the tree are not counted again
+
+	if (root instanceof Document)
+
+	    ((Document) root).estimateCaches(footprint);
+
+	footprint.counted.clear();
+
+	return footprint;
+
+    }
+
+    private void walk(Element element) {
+
+	elementCount++;
+
+	elementBytes += align(ObjectHeader + 6 * Reference
+		+ (element instanceof Document ? 4 * Reference + 8 : 0));
+
+	nameBytes += stringBytes(element.name);
+
+	valueBytes += stringBytes(element.value);
+
+	if (element.parsed != null)
+
+	    valueBytes += ParsedValueObject;
+
+	if (element.attributes != null) {
+
+	    attributeBytes += mapBytes(element.attributes);
+
+	    for (Attribute attribute : element.attributes.values()) {
+
+		attributeCount++;
+
+		attributeBytes += AttributeObject
+			+ stringBytes(attribute.getName());
+
+		valueBytes += stringBytes(attribute.getEscapedValue());
+
+		if (attribute.parsed != null)
+
+		    valueBytes += ParsedValueObject;
+
+	    }
+
+	}
+
+	if (element.children == null)
+
+	    return;
+
+	childMapBytes += mapBytes(element.children) - LinkedHashMapEntry
+		* element.children.size();
+
+	for (Map.Entry<String, List<Element>> entry : element.children
+		.entrySet()) {
+
+	    String key = entry.getKey();
+
+	    List<Element> elements = entry.getValue();
+
+	    if (key.contains(Element.DefaultElementPathSign)) {
+
+		// Kept by setParent() as the index of the descendants
+
+		pathKeyCount++;
+
+		pathKeyBytes += stringBytes(key);
+
+		pathIndexBytes += LinkedHashMapEntry + listBytes(elements);
+
+		continue;
+
+	    }
+
+	    nameBytes += stringBytes(key);
+
+	    childMapBytes += LinkedHashMapEntry;
+
+	    childListBytes += listBytes(elements);
+
+	    for (Element child : elements) {
+
+		walk(child);
+
+	    }
+
+	}
+
+    }
+
+    /**
+     *
+     * Count the lists, maps and arrays of the NameIndex, the elements and
+     * the names are kept by the tree.
+     */
+
+    void index(NameIndex index) {
+
+	indexBytes += NameIndexObject + ComparatorObject
+		+ listBytes(index.elements);
+
+	int length = 64;
+
+	while (index.ranges.size() * 3 > length) {
+
+	    length <<= 1;
+
+	}
+
+	indexBytes += IdentityHashMapObject
+		+ align(ArrayHeader + Reference * length)
+		+ (long) align(ArrayHeader + 2 * 4) * index.ranges.size();
+
+	indexBytes += hashMapBytes(index.elementsByName);
+
+	for (Map.Entry<String, List<Element>> entry : index.elementsByName
+		.entrySet()) {
+
+	    indexBytes += stringBytes(entry.getKey())
+		    + listBytes(entry.getValue());
+
+	}
+
+	indexBytes += hashMapBytes(index.numbersByName);
+
+	for (int[] numbers : index.numbersByName.values()) {
+
+	    indexBytes += align(ArrayHeader + 4 * numbers.length);
+
+	}
+
+	indexBytes += hashMapBytes(index.elementsByAttributeValue);
+
+	for (Map.Entry<String, Map<String, List<Element>>> entry : index.elementsByAttributeValue
+		.entrySet()) {
+
+	    Map<String, List<Element>> elementsByValue = entry.getValue();
+
+	    indexBytes += stringBytes(entry.getKey())
+		    + hashMapBytes(elementsByValue);
+
+	    for (Map.Entry<String, List<Element>> value : elementsByValue
+		    .entrySet()) {
+
+		indexBytes += stringBytes(value.getKey())
+			+ listBytes(value.getValue());
+
+	    }
+
+	}
+
+    }
+
+    /**
+     *
+     * Count a result of the query cache, which is either the values of
+     * getValuesOf() or the unmodifiable records of mapOf().
+     */
+
+    void cachedResult(String key, Object result) {
+
+	cachedResultCount++;
+
+	queryCacheBytes += Reference + CachedResultObjects + stringBytes(key);
+
+	if (result instanceof String[]) {
+
+	    String[] values = (String[]) result;
+
+	    queryCacheBytes += align(ArrayHeader + Reference * values.length);
+
+	    for (String value : values) {
+
+		queryCacheBytes += stringBytes(value);
+
+	    }
+
+	} else if (result instanceof List) {
+
+	    List<?> records = (List<?>) result;
+
+	    // Copied with the exact size
+
+	    queryCacheBytes += UnmodifiableListObject + ArrayListObject
+		    + align(ArrayHeader + Reference * records.size());
+
+	    for (Object record : records) {
+
+		Map<?, ?> map = (Map<?, ?>) record;
+
+		queryCacheBytes += UnmodifiableMapObject + hashMapBytes(map);
+
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+
+		    queryCacheBytes += stringBytes((String) entry.getKey())
+			    + stringBytes((String) entry.getValue());
+
+		}
+
+	    }
+
+	}
+
+    }
+
+    private long stringBytes(String text) {
+
+	if (text == null || counted.put(text, true) != null)
+
+	    return 0;
+
+	int length = text.length();
+
+	boolean latin1 = CompactStrings;
+
+	for (int i = 0; latin1 && i < length; i++) {
+
+	    latin1 = text.charAt(i) < 256;
+
+	}
+
+	return StringObject + align(ArrayHeader + (latin1 ? length : 2 * length));
+
+    }
+
+    private long listBytes(Collection<?> list) {
+
+	if (counted.put(list, true) != null)
+
+	    return 0;
+
+	int capacity = 10;
+
+	while (capacity < list.size()) {
+
+	    capacity += capacity >> 1;
+
+	}
+
+	return ArrayListObject + align(ArrayHeader + Reference * capacity);
+
+    }
+
+    /**
+     *
+     * Bytes of the LinkedHashMap with its table and entries, excluding the
+     * keys and values.
+     */
+
+    private static long mapBytes(Map<?, ?> map) {
+
+	return LinkedHashMapObject + (long) LinkedHashMapEntry * map.size()
+		+ tableBytes(map.size());
+
+    }
+
+    /**
+     *
+     * Bytes of the HashMap with its table and nodes, excluding the keys and
+     * values.
+     */
+
+    private static long hashMapBytes(Map<?, ?> map) {
+
+	return HashMapObject + (long) HashMapNode * map.size()
+		+ tableBytes(map.size());
+
+    }
+
+    private static long tableBytes(int size) {
+
+	if (size == 0)
+
+	    return 0;
+
+	// The table is doubled from 16 when the size is over 3/4 of it
+
+	int capacity = 16;
+
+	while (size > capacity * 3 / 4) {
+
+	    capacity <<= 1;
+
+	}
+
+	return align(ArrayHeader + Reference * capacity);
+
+    }
+
+    static int align(int bytes) {
+
+	return (bytes + Alignment - 1) / Alignment * Alignment;
+
+    }
+
+    /**
+     *
+     * Bytes of the Element objects.
+     */
+
+    public long getElementBytes() {
+
+	return elementBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the names of the elements.
+     */
+
+    public long getNameBytes() {
+
+	return nameBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the innerText of the elements and the values of the attributes.
+     */
+
+    public long getValueBytes() {
+
+	return valueBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the Attribute objects, their names and the maps keeping them.
+     */
+
+    public long getAttributeBytes() {
+
+	return attributeBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the children maps and their entries of the direct children.
+     */
+
+    public long getChildMapBytes() {
+
+	return childMapBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the lists of the direct children.
+     */
+
+    public long getChildListBytes() {
+
+	return childListBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the path keys like "a>b>c" kept in the children maps.
+     */
+
+    public long getPathKeyBytes() {
+
+	return pathKeyBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the map entries and lists kept for the path keys.
+     */
+
+    public long getPathIndexBytes() {
+
+	return pathIndexBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the NameIndex kept by the Document, 0 if it is not composed.
+     */
+
+    public long getIndexBytes() {
+
+	return indexBytes;
+
+    }
+
+    /**
+     *
+     * Bytes of the results kept by the query cache of the Document, with
+     * their keys and the entries keeping them.
+     */
+
+    public long getQueryCacheBytes() {
+
+	return queryCacheBytes;
+
+    }
+
+    public int getElementCount() {
+
+	return elementCount;
+
+    }
+
+    public int getAttributeCount() {
+
+	return attributeCount;
+
+    }
+
+    public int getPathKeyCount() {
+
+	return pathKeyCount;
+
+    }
+
+    public int getCachedResultCount() {
+
+	return cachedResultCount;
+
+    }
+
+    /**
+     *
+     * Bytes kept for the path index, which could be dropped without losing
+     * any content.
+     */
+
+    public long getPathOverheadBytes() {
+
+	return pathKeyBytes + pathIndexBytes;
+
+    }
+
+    public long getTotalBytes() {
+
+	return elementBytes + nameBytes + valueBytes + attributeBytes
+		+ childMapBytes + childListBytes + pathKeyBytes
+		+ pathIndexBytes + indexBytes + queryCacheBytes;
+
+    }
+
+    @Override
+    public String toString() {
+
+	return String
+		.format("total=%d, elements=%d (%d), names=%d, values=%d, attributes=%d (%d), childMaps=%d, childLists=%d, pathKeys=%d (%d), pathIndex=%d, index=%d, queryCache=%d (%d)",
+			getTotalBytes(), elementBytes, elementCount, nameBytes,
+			valueBytes, attributeBytes, attributeCount,
+			childMapBytes, childListBytes, pathKeyBytes,
+			pathKeyCount, pathIndexBytes, indexBytes,
+			queryCacheBytes, cachedResultCount);
+
+    }
+
+}
@@ -0,0 +1,562 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xml.sax.SAXException;
+
+/**
+ *
+ * Equi-join of the records of two documents on their key paths: the records
+ * of the build side are kept by a hash table of their keys, then the records
+ * of the probe side are matched one by one, so each side is read only once.
+ * The build side is expected to be the smaller one, the probe side could be
+ * a Document or a SAX stream read by RecordReader.join().
+ *
+ * A key path is a whole path like "customer<id" or "order>customerId", the
+ * records are the elements owning the key values: "customer" and "order"
+ * respectively. Records are matched by the first value of their keys, those
+ * without key are skipped.
+ *
+ * The merged records are maps of both records like Document.mapOf(), the
+ * names of the right side already used by the left side are prefixed by the
+ * name of its record element like "customer_id". Only matched pairs are
+ * merged, in the order of the probe side and then of the build side.
+ *
+ * Only the build elements are kept by their keys, the records of a key are
+ * converted when it is matched for the first time and then reused, so the
+ * keys never matched cost no record. A HashJoin is not thread safe.
+ *
+ * @version $Id$
+ */
+
+public final class HashJoin {
+
+    private final String recordPath;
+
+    private final String recordName;
+
+    // Name of the probe records when the build side is the left side of the
+    // merged records, otherwise null
+
+    private final String probeName;
+
+    private final Map<String, List<Element>> elements = new HashMap<String, List<Element>>();
+
+    // Records of the keys matched, converted from the elements on demand
+
+    private final Map<String, List<Map<String, String>>> records = new HashMap<String, List<Map<String, String>>>();
+
+    // Extractor of the build records, null if there is none
+
+    private final PathExtractor extractor;
+
+    private int size = 0;
+
+    /**
+     *
+     * Build the hash table over the records of a document, with all
+     * attributes and children of the records.
+     *
+     * @param build
+     *            - The smaller document.
+     *
+     * @param keyPath
+     *            - Whole key path like "customer<id".
+     */
+
+    public HashJoin(Document build, String keyPath) {
+
+	this(build, keyPath, null, null);
+
+    }
+
+    /**
+     *
+     * Build the hash table over the records of a document.
+     *
+     * @param build
+     *            - The smaller document.
+     *
+     * @param keyPath
+     *            - Whole key path like "customer<id".
+     *
+     * @param pathMap
+     *            - Map of the paths relative to the records (as key) and
+     *            their display names (as value), or null to use all
+     *            attributes and children.
+     *
+     * @throws InvalidParameterException
+     *             if the key path is a pattern or of a single element.
+     */
+
+    public HashJoin(Document build, String keyPath, Map<String, String> pathMap) {
+
+	this(build, keyPath, pathMap, null);
+
+    }
+
+    private HashJoin(Document build, String keyPath,
+	    Map<String, String> pathMap, String probeName) {
+
+	this.probeName = probeName;
+
+	recordPath = recordPathOf(keyPath);
+
+	recordName = nameOf(recordPath);
+
+	List<Element> buildElements = build.getElementsOf(recordPath);
+
+	if (buildElements == null) {
+
+	    extractor = null;
+
+	    return;
+
+	}
+
+	if (pathMap == null)
+
+	    pathMap = Document.pathMapOf(buildElements);
+
+	extractor = new PathExtractor(pathMap);
+
+	PathExtractor keyExtractor = new PathExtractor(Collections
+		.singletonMap(keyOf(keyPath), keyPath));
+
+	for (Element element : buildElements) {
+
+	    String key = keyOf(keyExtractor.valuesOf(element, 0));
+
+	    if (key == null)
+
+		continue;
+
+	    List<Element> matched = elements.get(key);
+
+	    if (matched == null) {
+
+		matched = new ArrayList<Element>(1);
+
+		elements.put(key, matched);
+
+	    }
+
+	    matched.add(element);
+
+	    size++;
+
+	}
+
+    }
+
+    /**
+     *
+     * Join the records of two documents, the hash table is built over the
+     * document with fewer records and the other is probed.
+     *
+     * @return The merged records with those of the left document on the left
+     *         side.
+     *
+     * @throws InvalidParameterException
+     *             if any key path is a pattern or of a single element.
+     */
+
+    public static List<Map<String, String>> join(Document left,
+	    String leftKeyPath, Document right, String rightKeyPath) {
+
+	if (left.countOf(recordPathOf(leftKeyPath)) <= right
+		.countOf(recordPathOf(rightKeyPath)))
+
+	    return new HashJoin(left, leftKeyPath, null,
+		    nameOf(recordPathOf(rightKeyPath))).join(right, rightKeyPath);
+
+	return new HashJoin(right, rightKeyPath).join(left, leftKeyPath);
+
+    }
+
+    /**
+     *
+     * Get the path of the records owning the values of the key path.
+     *
+     * @throws InvalidParameterException
+     *             if the key path is a pattern or of a single element.
+     */
+
+    public static String recordPathOf(String keyPath) {
+
+	if (PathExpression.isPattern(keyPath))
+
+	    throw new InvalidParameterException(String.format(
+		    "Pattern \'%s\' is not supported by HashJoin.", keyPath));
+
+	int mark = keyPath.indexOf(Attribute.DefaultAttributePathSign);
+
+	if (mark != -1)
+
+	    return keyPath.substring(0, mark);
+
+	mark = keyPath.lastIndexOf(Element.DefaultElementPathSign);
+
+	if (mark == -1)
+
+	    throw new InvalidParameterException(String.format(
+		    "Key path \'%s\' shall be of an attribute or a child.",
+		    keyPath));
+
+	return keyPath.substring(0, mark);
+
+    }
+
+    private static String nameOf(String recordPath) {
+
+	return recordPath.substring(recordPath
+		.lastIndexOf(Element.DefaultElementPathSign) + 1);
+
+    }
+
+    /**
+     *
+     * Get the key path relative to its records, like "<id" or "customerId".
+     */
+
+    public static String keyOf(String keyPath) {
+
+	return keyPath.substring(recordPathOf(keyPath).length()
+		+ (keyPath.contains(Attribute.DefaultAttributePathSign) ? 0 : 1));
+
+    }
+
+    /**
+     *
+     * Get the key of the values of a key path, null if there is none.
+     */
+
+    public static String keyOf(String[] values) {
+
+	return values == null || values.length == 0 ? null : values[0];
+
+    }
+
+    /**
+     *
+     * Get the count of the records kept by the hash table.
+     */
+
+    public int size() {
+
+	return size;
+
+    }
+
+    /**
+     *
+     * Check if any record of the build side is of the key.
+     */
+
+    public boolean contains(String key) {
+
+	return key != null && elements.containsKey(key);
+
+    }
+
+    public String getRecordPath() {
+
+	return recordPath;
+
+    }
+
+    /**
+     *
+     * Join the records of the probe side with all their attributes and
+     * children.
+     *
+     * @param probe
+     *            - The larger document.
+     *
+     * @param keyPath
+     *            - Whole key path like "order<customerId".
+     *
+     * @throws InvalidParameterException
+     *             if the key path is a pattern or of a single element.
+     */
+
+    public List<Map<String, String>> join(Document probe, String keyPath) {
+
+	return join(probe, keyPath, null);
+
+    }
+
+    /**
+     *
+     * Join the records of the probe side.
+     *
+     * @param probe
+     *            - The larger document.
+     *
+     * @param keyPath
+     *            - Whole key path like "order<customerId".
+     *
+     * @param pathMap
+     *            - Map of the paths relative to the records (as key) and
+     *            their display names (as value), or null to use all
+     *            attributes and children.
+     *
+     * @return The merged records of the matched pairs.
+     *
+     * @throws InvalidParameterException
+     *             if the key path is a pattern or of a single element.
+     */
+
+    public List<Map<String, String>> join(Document probe, String keyPath,
+	    Map<String, String> pathMap) {
+
+	List<Map<String, String>> merged = new ArrayList<Map<String, String>>();
+
+	List<Element> probeElements = probe.getElementsOf(recordPathOf(keyPath));
+
+	if (probeElements == null || size == 0)
+
+	    return merged;
+
+	if (pathMap == null)
+
+	    pathMap = Document.pathMapOf(probeElements);
+
+	PathExtractor extractor = new PathExtractor(pathMap);
+
+	PathExtractor keyExtractor = new PathExtractor(Collections
+		.singletonMap(keyOf(keyPath), keyPath));
+
+	for (Element element : probeElements) {
+
+	    String key = keyOf(keyExtractor.valuesOf(element, 0));
+
+	    if (contains(key))
+
+		probe(extractor.recordOf(element), key, merged);
+
+	}
+
+	return merged;
+
+    }
+
+    /**
+     *
+     * Merge a record of the probe side with the records of the same key.
+     *
+     * @param record
+     *            - Record of the probe side.
+     *
+     * @param key
+     *            - Key of the record.
+     *
+     * @param merged
+     *            - List to keep the merged records.
+     *
+     * @return Count of the records merged.
+     */
+
+    public int probe(Map<String, String> record, String key,
+	    List<Map<String, String>> merged) {
+
+	List<Map<String, String>> matched = recordsOf(key);
+
+	if (matched == null)
+
+	    return 0;
+
+	for (Map<String, String> buildRecord : matched) {
+
+	    merged.add(probeName != null ? merge(buildRecord, record,
+		    probeName) : merge(record, buildRecord, recordName));
+
+	}
+
+	return matched.size();
+
+    }
+
+    /**
+     *
+     * Get the records of the build side of the key, they are converted once
+     * when the key is matched for the first time.
+     */
+
+    private List<Map<String, String>> recordsOf(String key) {
+
+	if (key == null)
+
+	    return null;
+
+	List<Map<String, String>> matched = records.get(key);
+
+	if (matched != null)
+
+	    return matched;
+
+	List<Element> buildElements = elements.get(key);
+
+	if (buildElements == null)
+
+	    return null;
+
+	matched = new ArrayList<Map<String, String>>(buildElements.size());
+
+	for (Element element : buildElements) {
+
+	    matched.add(extractor.recordOf(element));
+
+	}
+
+	records.put(key, matched);
+
+	return matched;
+
+    }
+
+    private static Map<String, String> merge(Map<String, String> leftRecord,
+	    Map<String, String> rightRecord, String rightName) {
+
+	HashMap<String, String> map = new HashMap<String, String>(leftRecord);
+
+	for (Map.Entry<String, String> entry : rightRecord.entrySet()) {
+
+	    String name = entry.getKey();
+
+	    if (leftRecord.containsKey(name))
+
+		name = rightName + "_" + name;
+
+	    map.put(name, entry.getValue());
+
+	}
+
+	return map;
+
+    }
+
+    /**
+     *
+     * Join the records of the probe side into a new Document: each matched
+     * record of the probe side is copied with the matched records of the
+     * build side appended as its children.
+     *
+     * @param probe
+     *            - The larger document.
+     *
+     * @param keyPath
+     *            - Whole key path like "order<customerId".
+     *
+     * @return Document named as the probe document.
+     *
+     * @throws InvalidParameterException
+     *             if the key path is a pattern or of a single element.
+     */
+
+    public Document joinDocument(Document probe, String keyPath) {
+
+	Document document = new Document(probe.getName());
+
+	List<Element> probeElements = probe.getElementsOf(recordPathOf(keyPath));
+
+	if (probeElements == null || size == 0)
+
+	    return document;
+
+	PathExtractor keyExtractor = new PathExtractor(Collections
+		.singletonMap(keyOf(keyPath), keyPath));
+
+	try {
+
+	    for (Element element : probeElements) {
+
+		String key = keyOf(keyExtractor.valuesOf(element, 0));
+
+		List<Element> matched = key == null ? null : elements.get(key);
+
+		if (matched == null)
+
+		    continue;
+
+		Element copy = copyOf(element, document);
+
+		for (Element buildElement : matched) {
+
+		    copyOf(buildElement, copy);
+
+		}
+
+	    }
+
+	} catch (SAXException ex) {
+
+	    ex.printStackTrace();
+
+	}
+
+	return document;
+
+    }
+
+    private static Element copyOf(Element source, Element parent)
+	    throws SAXException {
+
+	Element copy = new Element(source.getName(), parent, source.getValue());
+
+	if (source.attributes != null) {
+
+	    for (Attribute attribute : source.attributes.values()) {
+
+		copy.addAttribute(attribute.getName(), attribute.getValue());
+
+	    }
+
+	}
+
+	if (source.children != null) {
+
+	    for (Map.Entry<String, List<Element>> entry : source.children
+		    .entrySet()) {
+
+		// Keys with the path sign are indexes of the descendants
+
+		if (entry.getKey().contains(Element.DefaultElementPathSign))
+
+		    continue;
+
+		for (Element child : entry.getValue()) {
+
+		    copyOf(child, copy);
+
+		}
+
+	    }
+
+	}
+
+	return copy;
+
+    }
+
+}
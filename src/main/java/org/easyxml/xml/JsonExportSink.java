@@ -0,0 +1,356 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ *
+ * ExportSink to output one element of the tree as JSON, the output is the
+ * same as that of toJSON() of the element.
+ *
+ * @version $Id$
+ */
+
+public class JsonExportSink implements ExportSink {
+
+    private final JsonWriter writer;
+
+    private final Appendable out;
+
+    // Element to be output, only events within its subtree are concerned
+
+    private Element target;
+
+    // Level of the target, or -1 if it is not entered yet
+
+    private int baseLevel = -1;
+
+    private boolean done = false;
+
+    // Level of the element output as a string whose subtree is neglected, or
+    // -1
+
+    private int skippedLevel = -1;
+
+    // States of the objects being output, indexed by relative level
+
+    private int[] indents = new int[16];
+
+    private boolean[] hasMember = new boolean[16];
+
+    private boolean[] inArray = new boolean[16];
+
+    private int[] groupIndex = new int[16];
+
+    /**
+     *
+     * Output the root of the walk, or its DefaultContainer if the root is a
+     * Document with the DefaultContainer specified.
+     *
+     * @param out
+     *            - Appendable to receive the output.
+     */
+
+    public JsonExportSink(Appendable out) {
+
+	this(out, null);
+
+    }
+
+    /**
+     *
+     * @param out
+     *            - Appendable to receive the output.
+     *
+     * @param target
+     *            - Element to be output.
+     */
+
+    public JsonExportSink(Appendable out, Element target) {
+
+	this.out = out;
+
+	this.writer = new JsonWriter(out);
+
+	this.target = target;
+
+    }
+
+    @Override
+    public void startDocument(Element root) {
+
+	if (target == null) {
+
+	    Element container = root instanceof Document ? ((Document) root)
+		    .getDefaultContainer() : null;
+
+	    target = container == null ? root : container;
+
+	}
+
+    }
+
+    @Override
+    public void startElement(Element element, int level) throws IOException {
+
+	if (baseLevel == -1) {
+
+	    if (element != target || done)
+
+		return;
+
+	    baseLevel = level;
+
+	}
+
+	if (skippedLevel != -1)
+
+	    return;
+
+	int depth = level - baseLevel;
+
+	ensureCapacity(depth);
+
+	if (depth == 0) {
+
+	    indents[0] = 0;
+
+	    writer.writeIndent(0);
+
+	    writer.writeString(element.getName());
+
+	    out.append(':');
+
+	} else if (inArray[depth - 1]) {
+
+	    // Members of an array are output without their names
+
+	    if (groupIndex[depth - 1]++ != 0)
+
+		out.append(',').append(Element.NewLine);
+
+	    indents[depth] = indents[depth - 1] + 2;
+
+	    writer.writeIndent(indents[depth]);
+
+	} else {
+
+	    if (groupIndex[depth - 1]++ != 0)
+
+		out.append(',');
+
+	    out.append(Element.NewLine);
+
+	    indents[depth] = indents[depth - 1] + 1;
+
+	    writer.writeIndent(indents[depth]);
+
+	    writer.writeString(element.getName());
+
+	    out.append(':');
+
+	}
+
+	if (!StringUtils.isBlank(element.value)) {
+
+	    // Output the innerText only and neglect the children
+
+	    writer.writeString(element.getValue());
+
+	    skippedLevel = level;
+
+	    return;
+
+	}
+
+	out.append('{');
+
+	hasMember[depth] = false;
+
+	if (element.attributes != null) {
+
+	    for (Attribute attribute : element.attributes.values()) {
+
+		if (hasMember[depth])
+
+		    out.append(',');
+
+		out.append(Element.NewLine);
+
+		writer.writeIndent(indents[depth] + 1);
+
+		writer.writeString(attribute.getName());
+
+		out.append(": ");
+
+		writer.writeString(attribute.getValue());
+
+		hasMember[depth] = true;
+
+	    }
+
+	}
+
+    }
+
+    @Override
+    public void startGroup(List<Element> elements, int level)
+	    throws IOException {
+
+	if (!isConcerned(level - 1))
+
+	    return;
+
+	int parent = level - 1 - baseLevel;
+
+	if (hasMember[parent])
+
+	    out.append(',');
+
+	hasMember[parent] = true;
+
+	groupIndex[parent] = 0;
+
+	inArray[parent] = writer.isArray(elements);
+
+	if (inArray[parent]) {
+
+	    out.append(Element.NewLine);
+
+	    writer.writeIndent(indents[parent] + 1);
+
+	    writer.writeString(elements.get(0).getName());
+
+	    out.append(":[").append(Element.NewLine);
+
+	}
+
+    }
+
+    @Override
+    public void endGroup(List<Element> elements, int level)
+	    throws IOException {
+
+	if (!isConcerned(level - 1))
+
+	    return;
+
+	int parent = level - 1 - baseLevel;
+
+	if (inArray[parent]) {
+
+	    out.append(Element.NewLine);
+
+	    writer.writeIndent(indents[parent] + 1);
+
+	    out.append(']');
+
+	    inArray[parent] = false;
+
+	}
+
+    }
+
+    @Override
+    public void endElement(Element element, int level) throws IOException {
+
+	if (baseLevel == -1)
+
+	    return;
+
+	if (skippedLevel != -1) {
+
+	    if (skippedLevel == level) {
+
+		skippedLevel = -1;
+
+		finishIfTarget(element);
+
+	    }
+
+	    return;
+
+	}
+
+	int depth = level - baseLevel;
+
+	if (hasMember[depth]) {
+
+	    out.append(Element.NewLine);
+
+	    writer.writeIndent(indents[depth]);
+
+	}
+
+	out.append('}');
+
+	finishIfTarget(element);
+
+    }
+
+    @Override
+    public void endDocument(Element root) {
+
+    }
+
+    /**
+     *
+     * Check if the element of the level is an object being output.
+     */
+
+    private boolean isConcerned(int level) {
+
+	return baseLevel != -1 && level >= baseLevel
+		&& (skippedLevel == -1 || level < skippedLevel);
+
+    }
+
+    private void finishIfTarget(Element element) {
+
+	if (element == target) {
+
+	    baseLevel = -1;
+
+	    done = true;
+
+	}
+
+    }
+
+    private void ensureCapacity(int depth) {
+
+	if (depth < indents.length)
+
+	    return;
+
+	int length = Math.max(depth + 1, indents.length * 2);
+
+	indents = Arrays.copyOf(indents, length);
+
+	hasMember = Arrays.copyOf(hasMember, length);
+
+	inArray = Arrays.copyOf(inArray, length);
+
+	groupIndex = Arrays.copyOf(groupIndex, length);
+
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.easyxml.util.Escaper;
+
+/**
+ *
+ * Writer to output an Element and all its descendants as JSON in one pass.
+ *
+ * The innerText of an element is output as a string, otherwise the element
+ * is output as an object composed of its attributes and children elements.
+ * The children sharing the same name are output as an array when none of
+ * them has innerText.
+ *
+ * @version $Id$
+ */
+
+public class JsonWriter {
+
+    private final Appendable out;
+
+    public JsonWriter(Appendable out) {
+
+	this.out = out;
+
+    }
+
+    /**
+     *
+     * Output the element as a named JSON member, like "name":{...}.
+     *
+     * @param element
+     *            - Element to be output.
+     *
+     * @param indent
+     *            - Indent count for this element.
+     *
+     * @throws IOException
+     */
+
+    public void write(Element element, int indent) throws IOException {
+
+	writeIndent(indent);
+
+	writeString(element.getName());
+
+	out.append(':');
+
+	writeContent(element, indent);
+
+    }
+
+    /**
+     *
+     * Output the innerText of the element as a string, or its attributes and
+     * children elements as an object.
+     */
+
+    protected void writeContent(Element element, int indent)
+	    throws IOException {
+
+	if (!StringUtils.isBlank(element.value)) {
+
+	    writeString(element.getValue());
+
+	    return;
+
+	}
+
+	out.append('{');
+
+	Boolean hasMember = false;
+
+	if (element.attributes != null) {
+
+	    for (Attribute attribute : element.attributes.values()) {
+
+		if (hasMember)
+
+		    out.append(',');
+
+		out.append(Element.NewLine);
+
+		writeIndent(indent + 1);
+
+		writeString(attribute.getName());
+
+		out.append(": ");
+
+		writeString(attribute.getValue());
+
+		hasMember = true;
+
+	    }
+
+	}
+
+	if (element.children != null) {
+
+	    for (Map.Entry<String, List<Element>> entry : element.children
+		    .entrySet()) {
+
+		// Only the direct children are kept with keys of their names
+
+		if (entry.getKey().contains(Element.DefaultElementPathSign))
+
+		    continue;
+
+		List<Element> elements = entry.getValue();
+
+		if (hasMember)
+
+		    out.append(',');
+
+		if (isArray(elements)) {
+
+		    writeArray(elements, indent + 1);
+
+		} else {
+
+		    for (int i = 0; i < elements.size(); i++) {
+
+			if (i != 0)
+
+			    out.append(',');
+
+			out.append(Element.NewLine);
+
+			write(elements.get(i), indent + 1);
+
+		    }
+
+		}
+
+		hasMember = true;
+
+	    }
+
+	}
+
+	if (hasMember) {
+
+	    out.append(Element.NewLine);
+
+	    writeIndent(indent);
+
+	}
+
+	out.append('}');
+
+    }
+
+    /**
+     *
+     * Output elements of the same name as a JSON array.
+     */
+
+    protected void writeArray(List<Element> elements, int indent)
+	    throws IOException {
+
+	out.append(Element.NewLine);
+
+	writeIndent(indent);
+
+	writeString(elements.get(0).getName());
+
+	out.append(":[").append(Element.NewLine);
+
+	for (int i = 0; i < elements.size(); i++) {
+
+	    if (i != 0)
+
+		out.append(',').append(Element.NewLine);
+
+	    writeIndent(indent + 1);
+
+	    writeContent(elements.get(i), indent + 1);
+
+	}
+
+	out.append(Element.NewLine);
+
+	writeIndent(indent);
+
+	out.append(']');
+
+    }
+
+    /**
+     *
+     * Elements of the same name could be treated as an array when there are
+     * more than one of them and none has innerText.
+     */
+
+    protected Boolean isArray(List<Element> elements) {
+
+	if (elements.size() < 2)
+
+	    return false;
+
+	for (Element e : elements) {
+
+	    if (!StringUtils.isBlank(e.value))
+
+		return false;
+
+	}
+
+	return true;
+
+    }
+
+    protected void writeIndent(int indent) throws IOException {
+
+	SerializationContext.appendIndent(out, indent);
+
+    }
+
+    /**
+     *
+     * Output the text as a JSON string with quotation marks, backslashes and
+     * control characters escaped.
+     */
+
+    protected void writeString(String text) throws IOException {
+
+	out.append('"');
+
+	Escaper.JSON.escape(text, out);
+
+	out.append('"');
+
+    }
+
+}
@@ -0,0 +1,404 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.easyxml.metrics.Metrics;
+
+/**
+ *
+ * Thread-safe map of bounded size, an entry not used recently is evicted
+ * when the capacity is reached.
+ *
+ * The entries are read without any lock: get() only marks the entry as
+ * used, so the readers don't contend with each other. The eviction is an
+ * approximation of LRU by the clock algorithm: the entries are kept in a
+ * ring of slots, and a hand going round it from where it stopped last gives
+ * the entries used since it passed them a second chance and evicts the
+ * first one not used. So an entry is evicted only if it is not read during
+ * a whole round of the hand.
+ *
+ * The hits and misses of get() are counted and reported to Metrics only
+ * when it is enabled, so the lookups don't write shared counters otherwise.
+ *
+ * @version $Id$
+ */
+
+final class LruCache<K, V> {
+
+    private static final class Entry<K, V> {
+
+	private final K key;
+
+	private final V value;
+
+	// Index of the slot of the ring
+
+	private final int slot;
+
+	// Set when the entry is read, cleared when the hand passes it
+
+	private volatile boolean used = false;
+
+	private Entry(K key, V value, int slot) {
+
+	    this.key = key;
+
+	    this.value = value;
+
+	    this.slot = slot;
+
+	}
+
+    }
+
+    private final Map<K, Entry<K, V>> map = new ConcurrentHashMap<K, Entry<K, V>>();
+
+    // Ring of the entries in the order of the clock, guarded by this
+
+    private Entry<K, V>[] slots;
+
+    // Count of the slots used, they are filled from the first one
+
+    private int filled = 0;
+
+    // Slot examined first by the next eviction
+
+    private int hand = 0;
+
+    /**
+     *
+     * Test of the values found by get(), a value failing it is counted as a
+     * miss, removed from the cache and returned as null.
+     */
+
+    interface Validator<V> {
+
+	boolean isValid(V value);
+
+    }
+
+    private final String name;
+
+    private volatile int capacity;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     *
+     * @param name
+     *            - Name of the cache reported to Metrics, like
+     *            Metrics.PlanCache.
+     *
+     * @param capacity
+     *            - Count of entries kept at most, 0 to keep nothing.
+     */
+
+    LruCache(String name, int capacity) {
+
+	if (capacity < 0)
+
+	    throw new IllegalArgumentException(
+		    "The capacity cannot be negative!");
+
+	this.name = name;
+
+	this.capacity = capacity;
+
+	slots = newSlots(capacity);
+
+    }
+
+    V get(K key) {
+
+	return get(key, null);
+
+    }
+
+    /**
+     *
+     * Get the value of the key if it passes the validator.
+     *
+     * @param validator
+     *            - Test of the value found, or null to accept any value.
+     *
+     * @return The value, or null if it is not found or not valid.
+     */
+
+    V get(K key, Validator<? super V> validator) {
+
+	Entry<K, V> entry = map.get(key);
+
+	V value = null;
+
+	if (entry != null) {
+
+	    // Written only when it is not set, to keep the reads of a hot
+	    // entry from writing the same cache line
+
+	    if (!entry.used)
+
+		entry.used = true;
+
+	    if (validator == null || validator.isValid(entry.value))
+
+		value = entry.value;
+
+	    else
+
+		remove(entry);
+
+	}
+
+	if (Metrics.isEnabled()) {
+
+	    (value != null ? hits : misses).incrementAndGet();
+
+	    Metrics.cacheAccessed(name, value != null);
+
+	}
+
+	return value;
+
+    }
+
+    synchronized void put(K key, V value) {
+
+	if (capacity == 0)
+
+	    return;
+
+	Entry<K, V> old = map.get(key);
+
+	int slot;
+
+	if (old != null)
+
+	    slot = old.slot;
+
+	else if (filled < capacity)
+
+	    slot = filled++;
+
+	else
+
+	    slot = evict();
+
+	Entry<K, V> entry = new Entry<K, V>(key, value, slot);
+
+	slots[slot] = entry;
+
+	map.put(key, entry);
+
+    }
+
+    synchronized void clear() {
+
+	map.clear();
+
+	slots = newSlots(capacity);
+
+	filled = 0;
+
+	hand = 0;
+
+    }
+
+    int size() {
+
+	return map.size();
+
+    }
+
+    /**
+     *
+     * Get the values kept by their keys, without marking them as used.
+     */
+
+    Map<K, V> snapshot() {
+
+	Map<K, V> values = new HashMap<K, V>(map.size() * 2);
+
+	for (Map.Entry<K, Entry<K, V>> entry : map.entrySet()) {
+
+	    values.put(entry.getKey(), entry.getValue().value);
+
+	}
+
+	return values;
+
+    }
+
+    /**
+     *
+     * Count of the values found by get() while Metrics is enabled.
+     */
+
+    long getHits() {
+
+	return hits.get();
+
+    }
+
+    /**
+     *
+     * Count of the values not found or not valid by get() while Metrics is
+     * enabled.
+     */
+
+    long getMisses() {
+
+	return misses.get();
+
+    }
+
+    int getCapacity() {
+
+	return capacity;
+
+    }
+
+    /**
+     *
+     * Set the count of entries kept at most, the entries not used recently
+     * are evicted immediately if there are more.
+     */
+
+    synchronized void setCapacity(int capacity) {
+
+	if (capacity < 0)
+
+	    throw new IllegalArgumentException(
+		    "The capacity cannot be negative!");
+
+	while (filled > capacity) {
+
+	    release(evict());
+
+	}
+
+	Entry<K, V>[] resized = newSlots(capacity);
+
+	System.arraycopy(slots, 0, resized, 0, filled);
+
+	slots = resized;
+
+	this.capacity = capacity;
+
+    }
+
+    /**
+     *
+     * Remove the entry unless it has been replaced or evicted meanwhile.
+     */
+
+    private synchronized void remove(Entry<K, V> entry) {
+
+	if (slots.length <= entry.slot || slots[entry.slot] != entry)
+
+	    return;
+
+	map.remove(entry.key);
+
+	slots[entry.slot] = null;
+
+	release(entry.slot);
+
+    }
+
+    /**
+     *
+     * Release the slot emptied, the last entry is moved into it to keep the
+     * entries contiguous.
+     */
+
+    private void release(int slot) {
+
+	filled--;
+
+	if (slot != filled) {
+
+	    Entry<K, V> last = slots[filled];
+
+	    Entry<K, V> moved = new Entry<K, V>(last.key, last.value, slot);
+
+	    moved.used = last.used;
+
+	    slots[slot] = moved;
+
+	    map.put(last.key, moved);
+
+	}
+
+	slots[filled] = null;
+
+	if (hand >= filled)
+
+	    hand = 0;
+
+    }
+
+    /**
+     *
+     * Evict an entry by the clock: the hand clears the marks of the entries
+     * used and stops at the first one not used, it ends within two rounds
+     * even if the entries are read meanwhile.
+     *
+     * @return The slot of the entry evicted, to be taken by another one.
+     */
+
+    private int evict() {
+
+	for (int i = 0; i < filled * 2; i++) {
+
+	    Entry<K, V> entry = slots[hand];
+
+	    if (!entry.used)
+
+		break;
+
+	    entry.used = false;
+
+	    hand = (hand + 1) % filled;
+
+	}
+
+	int slot = hand;
+
+	map.remove(slots[slot].key);
+
+	slots[slot] = null;
+
+	hand = (hand + 1) % filled;
+
+	return slot;
+
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Entry<K, V>[] newSlots(int capacity) {
+
+	return new Entry[capacity];
+
+    }
+
+}
@@ -0,0 +1,416 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Inverted index from the element names to the elements of a tree in document
+ * order, that is, the order of Element.toString().
+ *
+ * Every element is numbered by its position in the document order, and keeps
+ * the number of its last descendant, so the descendants of any element are
+ * located by binary searches instead of walking through its subtree.
+ *
+ * The values of the attributes specified are also indexed, to locate the
+ * elements by the attribute values directly.
+ *
+ * The index is a snapshot of the tree, it is kept by Document and discarded
+ * once the tree is changed, or the value of an attribute indexed is changed.
+ * The values of the elements and of the other attributes are not indexed,
+ * so their changes keep it.
+ *
+ * @version $Id$
+ */
+
+final class NameIndex {
+
+    // All elements in document order, the position is the number of an
+    // element
+
+    final List<Element> elements = new ArrayList<Element>();
+
+    // Number of the element and that of its last descendant
+
+    final Map<Element, int[]> ranges = new IdentityHashMap<Element, int[]>();
+
+    final Map<String, List<Element>> elementsByName = new HashMap<String, List<Element>>();
+
+    // Numbers of the elements of elementsByName
+
+    final Map<String, int[]> numbersByName = new HashMap<String, int[]>();
+
+    // Elements by the values of the attributes indexed, then by the
+    // attribute names
+
+    final Map<String, Map<String, List<Element>>> elementsByAttributeValue = new HashMap<String, Map<String, List<Element>>>();
+
+    private final Comparator<Element> documentOrder = new Comparator<Element>() {
+
+	@Override
+	public int compare(Element e1, Element e2) {
+
+	    return numberOf(e1) - numberOf(e2);
+
+	}
+
+    };
+
+    /**
+     *
+     * Get the index of the tree containing the element, it is the one kept
+     * by the Document when the root is a Document, otherwise it is composed
+     * on the fly.
+     */
+
+    static NameIndex of(Element element) {
+
+	Element root = element;
+
+	while (root.parent != null) {
+
+	    root = root.parent;
+
+	}
+
+	return root instanceof Document ? ((Document) root).getNameIndex()
+		: new NameIndex(root, null);
+
+    }
+
+    /**
+     *
+     * @param root
+     *            - Root of the tree to be indexed.
+     *
+     * @param attributeNames
+     *            - Names of the attributes whose values are indexed, or null.
+     */
+
+    NameIndex(Element root, Collection<String> attributeNames) {
+
+	if (attributeNames != null) {
+
+	    for (String attributeName : attributeNames) {
+
+		elementsByAttributeValue.put(attributeName,
+			new HashMap<String, List<Element>>());
+
+	    }
+
+	}
+
+	index(root);
+
+	for (Map.Entry<String, List<Element>> entry : elementsByName.entrySet()) {
+
+	    List<Element> list = entry.getValue();
+
+	    int[] numbers = new int[list.size()];
+
+	    for (int i = 0; i < numbers.length; i++) {
+
+		numbers[i] = ranges.get(list.get(i))[0];
+
+	    }
+
+	    numbersByName.put(entry.getKey(), numbers);
+
+	}
+
+    }
+
+    /**
+     *
+     * Index the tree in document order. The elements are walked with an
+     * explicit stack instead of recursion, so a tree of any depth is indexed
+     * without overflowing the call stack.
+     */
+
+    private void index(Element root) {
+
+	// Elements whose descendants are being indexed, with the iterators of
+	// their children
+
+	List<Element> ancestors = new ArrayList<Element>();
+
+	List<Iterator<Element>> iterators = new ArrayList<Iterator<Element>>();
+
+	add(root);
+
+	ancestors.add(root);
+
+	iterators.add(childrenOf(root));
+
+	while (!ancestors.isEmpty()) {
+
+	    int top = ancestors.size() - 1;
+
+	    Iterator<Element> iterator = iterators.get(top);
+
+	    if (iterator.hasNext()) {
+
+		Element child = iterator.next();
+
+		add(child);
+
+		ancestors.add(child);
+
+		iterators.add(childrenOf(child));
+
+		continue;
+
+	    }
+
+	    ranges.get(ancestors.remove(top))[1] = elements.size() - 1;
+
+	    iterators.remove(top);
+
+	}
+
+    }
+
+    private void add(Element element) {
+
+	elements.add(element);
+
+	ranges.put(element, new int[] { elements.size() - 1, 0 });
+
+	List<Element> list = elementsByName.get(element.name);
+
+	if (list == null) {
+
+	    list = new ArrayList<Element>();
+
+	    elementsByName.put(element.name, list);
+
+	}
+
+	list.add(element);
+
+	if (element.attributes != null && !elementsByAttributeValue.isEmpty()) {
+
+	    for (Attribute attribute : element.attributes.values()) {
+
+		Map<String, List<Element>> elementsByValue = elementsByAttributeValue
+			.get(attribute.getName());
+
+		if (elementsByValue == null)
+
+		    continue;
+
+		String value = attribute.getValue();
+
+		List<Element> elements = elementsByValue.get(value);
+
+		if (elements == null) {
+
+		    elements = new ArrayList<Element>();
+
+		    elementsByValue.put(value, elements);
+
+		}
+
+		elements.add(element);
+
+	    }
+
+	}
+
+    }
+
+    /**
+     *
+     * Get the direct children of the element in the order of its map.
+     */
+
+    private static Iterator<Element> childrenOf(Element element) {
+
+	if (element.children == null)
+
+	    return Collections.<Element> emptyList().iterator();
+
+	List<Element> children = new ArrayList<Element>();
+
+	for (Map.Entry<String, List<Element>> entry : element.children
+		.entrySet()) {
+
+	    // Only the direct children are kept with keys of their names
+
+	    if (entry.getKey().contains(Element.DefaultElementPathSign))
+
+		continue;
+
+	    children.addAll(entry.getValue());
+
+	}
+
+	return children.iterator();
+
+    }
+
+    /**
+     *
+     * Check if the element is within the tree indexed.
+     */
+
+    boolean contains(Element element) {
+
+	return ranges.containsKey(element);
+
+    }
+
+    /**
+     *
+     * Get the number of the element in document order, or -1 if it is not
+     * indexed.
+     */
+
+    int numberOf(Element element) {
+
+	int[] range = ranges.get(element);
+
+	return range == null ? -1 : range[0];
+
+    }
+
+    /**
+     *
+     * Get the number of the last descendant of the element, or the number of
+     * the element itself if it has no descendant.
+     */
+
+    int lastNumberOf(Element element) {
+
+	int[] range = ranges.get(element);
+
+	return range == null ? -1 : range[1];
+
+    }
+
+    /**
+     *
+     * Get the descendants of an element in document order.
+     *
+     * @param context
+     *            - Element whose descendants are concerned.
+     *
+     * @param name
+     *            - Name of the descendants, or null for descendants of any
+     *            name.
+     *
+     * @return Read-only list of the descendants, empty if there is none.
+     */
+
+    List<Element> descendantsOf(Element context, String name) {
+
+	int[] range = ranges.get(context);
+
+	if (range == null)
+
+	    return Collections.emptyList();
+
+	if (name == null)
+
+	    return Collections.unmodifiableList(elements.subList(range[0] + 1,
+		    range[1] + 1));
+
+	int[] numbers = numbersByName.get(name);
+
+	if (numbers == null)
+
+	    return Collections.emptyList();
+
+	int from = insertionPointOf(numbers, range[0] + 1);
+
+	int to = insertionPointOf(numbers, range[1] + 1);
+
+	return Collections.unmodifiableList(elementsByName.get(name).subList(
+		from, to));
+
+    }
+
+    /**
+     *
+     * Get the elements with the attribute value in document order.
+     *
+     * @param attributeName
+     *            - Name of the attribute.
+     *
+     * @param value
+     *            - Value of the attribute, un-escaped.
+     *
+     * @return null if the attribute is not indexed, otherwise the read-only
+     *         list of the elements, empty if there is none.
+     */
+
+    List<Element> elementsOf(String attributeName, String value) {
+
+	Map<String, List<Element>> elementsByValue = elementsByAttributeValue
+		.get(attributeName);
+
+	if (elementsByValue == null)
+
+	    return null;
+
+	List<Element> elements = elementsByValue.get(value);
+
+	return elements == null ? Collections.<Element> emptyList()
+		: Collections.unmodifiableList(elements);
+
+    }
+
+    /**
+     *
+     * Sort the indexed elements in document order.
+     */
+
+    void sort(List<Element> list) {
+
+	Collections.sort(list, documentOrder);
+
+    }
+
+    /**
+     *
+     * Get the count of elements indexed.
+     */
+
+    int size() {
+
+	return elements.size();
+
+    }
+
+    private static int insertionPointOf(int[] numbers, int number) {
+
+	int index = Arrays.binarySearch(numbers, number);
+
+	return index < 0 ? -index - 1 : index;
+
+    }
+
+}
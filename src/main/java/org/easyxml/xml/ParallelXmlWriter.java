@@ -0,0 +1,266 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *
+ * XmlWriter to display the children of one container element in parallel.
+ *
+ * The direct children of the container are split into chunks, each chunk is
+ * composed on the ForkJoinPool into its own buffer, and the buffers are then
+ * kept in document order, so the output is identical to that of XmlWriter.
+ *
+ * @version $Id$
+ */
+
+class ParallelXmlWriter extends XmlWriter {
+
+    // Minimum count of child elements to be composed by one task.
+
+    public static final int MinChunkSize = 16;
+
+    // Count of chunks expected to be executed by each worker thread, more
+    // chunks would balance better when the children have various sizes.
+
+    public static final int ChunksPerThread = 4;
+
+    private final ForkJoinPool pool;
+
+    private final Element container;
+
+    private final int chunkSize;
+
+    // The output is kept as segments to avoid joining huge buffers before
+    // writing them out.
+
+    private final List<StringBuilder> segments = new ArrayList<StringBuilder>();
+
+    /**
+     *
+     * @param container
+     *            - Element whose children would be composed in parallel.
+     *
+     * @param pool
+     *            - ForkJoinPool to execute the chunks.
+     *
+     * @param chunkSize
+     *            - Count of children in one chunk, or 0 to let it be decided
+     *            by the parallelism of the pool.
+     */
+
+    public ParallelXmlWriter(Boolean outputEmptyAttribute,
+	    Boolean outputEmptyElement, Element container, ForkJoinPool pool,
+	    int chunkSize) {
+
+	super(outputEmptyAttribute, outputEmptyElement);
+
+	this.container = container;
+
+	this.pool = pool;
+
+	this.chunkSize = chunkSize;
+
+    }
+
+    /**
+     *
+     * Compose the element and append the result to the output.
+     *
+     * @param element
+     *            - Element to be displayed, usually the root of the document.
+     *
+     * @param indent
+     *            - Indent count for this element.
+     *
+     * @param out
+     *            - Appendable to receive the output.
+     *
+     * @param keepSpace
+     *            - Specify if SPACE like ' ', '\t', '\n' shall be kept.
+     *
+     * @throws IOException
+     */
+
+    public void write(Element element, int indent, Appendable out,
+	    Boolean keepSpace) throws IOException {
+
+	segments.clear();
+
+	StringBuilder sb = new StringBuilder();
+
+	write(element, indent, sb);
+
+	segments.add(sb);
+
+	for (StringBuilder segment : segments) {
+
+	    // Removing all SPACE within each segment is the same as removing
+	    // them from the whole output
+
+	    if (!keepSpace) {
+
+		SerializationContext.removeSpaces(segment);
+
+	    }
+
+	    out.append(segment);
+
+	}
+
+	segments.clear();
+
+    }
+
+    @Override
+    protected void writeChildren(Element element, int indent, StringBuilder sb) {
+
+	if (element != container || pool == null) {
+
+	    super.writeChildren(element, indent, sb);
+
+	    return;
+
+	}
+
+	List<Element> children = new ArrayList<Element>();
+
+	collectChildren(element, children);
+
+	int size = children.size();
+
+	int step = chunkSize > 0 ? chunkSize : Math.max(MinChunkSize,
+		(size + pool.getParallelism() * ChunksPerThread - 1)
+			/ (pool.getParallelism() * ChunksPerThread));
+
+	List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+
+	for (int from = 0; from < size; from += step) {
+
+	    tasks.add(new ChunkTask(children, from, Math.min(size, from + step),
+		    indent + 1));
+
+	}
+
+	if (tasks.size() <= 1) {
+
+	    super.writeChildren(element, indent, sb);
+
+	    return;
+
+	}
+
+	pool.invoke(new ChunksTask(tasks));
+
+	// Keep what has been composed so far, then the chunks by order, and
+	// continue with a new buffer
+
+	segments.add(new StringBuilder(sb));
+
+	sb.setLength(0);
+
+	for (ChunkTask task : tasks) {
+
+	    segments.add(task.join());
+
+	}
+
+    }
+
+    /**
+     *
+     * Task to fork all chunks and wait for them.
+     */
+
+    private static class ChunksTask extends RecursiveTask<Void> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<ChunkTask> tasks;
+
+	ChunksTask(List<ChunkTask> tasks) {
+
+	    this.tasks = tasks;
+
+	}
+
+	@Override
+	protected Void compute() {
+
+	    ForkJoinTask.invokeAll(tasks);
+
+	    return null;
+
+	}
+
+    }
+
+    /**
+     *
+     * Task to compose a range of children into its own buffer.
+     */
+
+    private class ChunkTask extends RecursiveTask<StringBuilder> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<Element> children;
+
+	private final int from;
+
+	private final int to;
+
+	private final int indent;
+
+	ChunkTask(List<Element> children, int from, int to, int indent) {
+
+	    this.children = children;
+
+	    this.from = from;
+
+	    this.to = to;
+
+	    this.indent = indent;
+
+	}
+
+	@Override
+	protected StringBuilder compute() {
+
+	    XmlWriter writer = new XmlWriter(outputEmptyAttribute,
+		    outputEmptyElement);
+
+	    StringBuilder sb = new StringBuilder();
+
+	    for (int i = from; i < to; i++) {
+
+		writer.writeChild(children.get(i), indent, sb);
+
+	    }
+
+	    return sb;
+
+	}
+
+    }
+
+}
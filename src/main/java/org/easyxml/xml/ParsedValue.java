@@ -0,0 +1,139 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import org.easyxml.util.Escaper;
+
+/**
+ *
+ * Typed values parsed from the value of an Element or an Attribute, each type
+ * is parsed once when it is requested at the first time.
+ *
+ * It is kept by the Element or the Attribute until the value is changed, and
+ * is safe to be read by multiple threads.
+ *
+ * @version $Id$
+ */
+
+final class ParsedValue {
+
+    // Value of the attribute that the element doesn't have
+
+    static final ParsedValue Null = new ParsedValue(null);
+
+    private static final byte LongParsed = 1;
+
+    private static final byte DoubleParsed = 2;
+
+    private static final byte BooleanParsed = 4;
+
+    // Value kept escaped by the Element or the Attribute
+
+    private final String source;
+
+    private long longValue;
+
+    private double doubleValue;
+
+    private boolean booleanValue;
+
+    // Written after the values, so the values are visible to other threads
+    // once the flag is
+
+    private volatile byte parsed = 0;
+
+    ParsedValue(String source) {
+
+	this.source = source;
+
+    }
+
+    /**
+     *
+     * Check if it is parsed from the escaped value.
+     */
+
+    boolean isOf(String value) {
+
+	return source == value;
+
+    }
+
+    long asLong() {
+
+	if ((parsed & LongParsed) == 0) {
+
+	    longValue = Long.parseLong(text());
+
+	    parsed |= LongParsed;
+
+	}
+
+	return longValue;
+
+    }
+
+    double asDouble() {
+
+	if ((parsed & DoubleParsed) == 0) {
+
+	    doubleValue = Double.parseDouble(text());
+
+	    parsed |= DoubleParsed;
+
+	}
+
+	return doubleValue;
+
+    }
+
+    boolean asBoolean() {
+
+	if ((parsed & BooleanParsed) == 0) {
+
+	    String text = text();
+
+	    if (text.equalsIgnoreCase("true"))
+
+		booleanValue = true;
+
+	    else if (!text.equalsIgnoreCase("false"))
+
+		throw new IllegalArgumentException(String.format(
+			"\"%s\" is not a boolean value.", text));
+
+	    parsed |= BooleanParsed;
+
+	}
+
+	return booleanValue;
+
+    }
+
+    private String text() {
+
+	if (source == null)
+
+	    throw new NumberFormatException("Cannot parse a null value.");
+
+	// Numbers seldom contain any entity reference
+
+	return source.indexOf('&') == -1 ? source : Escaper
+		.unescapeXml(source);
+
+    }
+
+}
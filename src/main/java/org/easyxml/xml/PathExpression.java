@@ -0,0 +1,1265 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.easyxml.metrics.Metrics;
+
+/**
+ *
+ * Path of elements or attributes with wildcard steps and predicates, besides
+ * the names of the elements separated by '>' and the optional attribute name
+ * leaded by '<', a step could be:
+ *
+ * '*' to match the children of any name;
+ *
+ * '**' to match any number of levels, including none.
+ *
+ * Any step except '**' could be followed by predicates enclosed by '[' and
+ * ']', the elements are matched only when all predicates are met. For
+ * example, "catalog>book[genre='Fantasy']>title" denotes the <title> of the
+ * <book> of "Fantasy" genre, "book[@id='bk101']" the <book> whose "id" is
+ * "bk101", and "**>book[price>=10][isbn]<id" the "id" of the <book>
+ * elements at any depth with price no less than 10 and an <isbn> child. See
+ * PathPredicate for the syntax of the predicates.
+ *
+ * The '**' steps are resolved by the NameIndex kept by the Document, so the
+ * cost is proportional to the count of elements matched instead of the size
+ * of the tree. When the element queried is not within a Document, the
+ * subtrees are walked instead of composing an index for each query.
+ *
+ * Predicates of attribute equality are resolved by the attribute index when
+ * the attribute is indexed by Document.indexAttribute(), other predicates
+ * are evaluated while the candidates are collected.
+ *
+ * The elements matched are returned in document order without duplicates.
+ *
+ * A PathExpression is an immutable plan of the query, compile() keeps the
+ * plans in a bounded cache by their paths, so they are parsed only once and
+ * shared by any threads and documents.
+ *
+ * @version $Id$
+ */
+
+public final class PathExpression {
+
+    public static final String AnyName = "*";
+
+    public static final String AnyDepth = "**";
+
+    public static final int DefaultCacheSize = 1024;
+
+    private static final PathPredicate[] NoPredicates = new PathPredicate[0];
+
+    private static final LruCache<String, PathExpression> Plans = new LruCache<String, PathExpression>(
+	    Metrics.PlanCache, DefaultCacheSize);
+
+    /**
+     *
+     * Step of the path, with null name to match any name.
+     */
+
+    private static final class Step {
+
+	private final String name;
+
+	private final boolean anyDepth;
+
+	private final PathPredicate[] predicates;
+
+	private Step(String name, boolean anyDepth, PathPredicate[] predicates) {
+
+	    this.name = name;
+
+	    this.anyDepth = anyDepth;
+
+	    this.predicates = predicates;
+
+	}
+
+	private boolean matches(Element element) {
+
+	    if (name != null && !name.equals(element.name))
+
+		return false;
+
+	    for (PathPredicate predicate : predicates) {
+
+		if (!predicate.matches(element))
+
+		    return false;
+
+	    }
+
+	    return true;
+
+	}
+
+	// Predicate could be resolved by the attribute index, or null
+
+	private PathPredicate indexedPredicate() {
+
+	    for (PathPredicate predicate : predicates) {
+
+		if (predicate.getIndexedAttribute() != null)
+
+		    return predicate;
+
+	    }
+
+	    return null;
+
+	}
+
+    }
+
+    private final String path;
+
+    // Path of the elements, without the attribute name
+
+    private final String elementPath;
+
+    // Null when the path has neither wildcard nor predicate, then the
+    // elements are located by the children map directly
+
+    private final Step[] steps;
+
+    private final String attributeName;
+
+    // Whether any step is '**'
+
+    private final boolean anyDepth;
+
+    // Whether the elements matched might be out of document order: the last
+    // step selects the children of elements found by '**', which might be
+    // nested in each other
+
+    private final boolean unordered;
+
+    /**
+     *
+     * Get the plan of the path from the cache, or parse the path and cache
+     * the plan. The cache is read without any lock.
+     *
+     * @param path
+     *            - The whole path of elements or attributes.
+     *
+     * @throws InvalidParameterException
+     *             if the path is blank or malformed.
+     */
+
+    public static PathExpression compile(String path) {
+
+	if (path == null)
+
+	    throw new InvalidParameterException(
+		    "Blank path cannot be used to locate elements!");
+
+	PathExpression plan = Plans.get(path);
+
+	if (plan == null) {
+
+	    plan = new PathExpression(path);
+
+	    Plans.put(path, plan);
+
+	}
+
+	return plan;
+
+    }
+
+    /**
+     *
+     * Set the count of plans cached at most, 0 to disable the cache.
+     */
+
+    public static void setCacheSize(int size) {
+
+	Plans.setCapacity(size);
+
+    }
+
+    public static int getCacheSize() {
+
+	return Plans.getCapacity();
+
+    }
+
+    /**
+     *
+     * Discard all plans cached.
+     */
+
+    public static void clearCache() {
+
+	Plans.clear();
+
+    }
+
+    /**
+     *
+     * Parse the path expression.
+     *
+     * @param path
+     *            - The whole path of elements or attributes.
+     *
+     * @throws InvalidParameterException
+     *             if the path is blank or malformed.
+     */
+
+    public PathExpression(String path) {
+
+	if (StringUtils.isBlank(path))
+
+	    throw new InvalidParameterException(
+		    "Blank path cannot be used to locate elements!");
+
+	this.path = path;
+
+	if (!isPattern(path)) {
+
+	    String[] segments = path.split(Attribute.DefaultAttributePathSign);
+
+	    if (segments.length > 2)
+
+		throw new InvalidParameterException(
+			String.format(
+				"The path \'%s\' shall have at most one \'%s\' to denote the attribute of a kind of element.",
+				path, Attribute.DefaultAttributePathSign));
+
+	    elementPath = segments[0];
+
+	    attributeName = segments.length == 2 ? segments[1] : null;
+
+	    steps = null;
+
+	    anyDepth = false;
+
+	    unordered = false;
+
+	    return;
+
+	}
+
+	List<Step> stepList = new ArrayList<Step>();
+
+	String attribute = null;
+
+	// Split the path by '>' and '<' outside of the predicates
+
+	int depth = 0;
+
+	char quote = 0;
+
+	int begin = 0;
+
+	for (int i = 0; i < path.length(); i++) {
+
+	    char c = path.charAt(i);
+
+	    if (quote != 0) {
+
+		if (c == quote)
+
+		    quote = 0;
+
+	    } else if (c == '\'' || c == '"') {
+
+		quote = c;
+
+	    } else if (c == '[') {
+
+		depth++;
+
+	    } else if (c == ']') {
+
+		if (--depth < 0)
+
+		    break;
+
+	    } else if (depth == 0 && c == '>') {
+
+		stepList.add(stepOf(path.substring(begin, i)));
+
+		begin = i + 1;
+
+	    } else if (depth == 0 && c == '<') {
+
+		attribute = path.substring(i + 1);
+
+		break;
+
+	    }
+
+	}
+
+	if (depth != 0 || quote != 0)
+
+	    throw new InvalidParameterException(String.format(
+		    "The brackets or quotes of \'%s\' are not closed.", path));
+
+	if (attribute != null
+		&& (attribute.length() == 0 || !StringUtils.containsNone(
+			attribute, "<>[]*")))
+
+	    throw new InvalidParameterException(String.format(
+		    "The path \'%s\' shall end with one attribute name.", path));
+
+	stepList.add(stepOf(attribute == null ? path.substring(begin) : path
+		.substring(begin, path.length() - attribute.length() - 1)));
+
+	steps = stepList.toArray(new Step[stepList.size()]);
+
+	boolean hasAnyDepth = false;
+
+	for (Step step : steps) {
+
+	    hasAnyDepth |= step.anyDepth;
+
+	}
+
+	anyDepth = hasAnyDepth;
+
+	unordered = isNested(steps);
+
+	attributeName = attribute;
+
+	elementPath = attribute == null ? path : path.substring(0,
+		path.length() - attribute.length() - 1);
+
+    }
+
+    /**
+     *
+     * Check if the last step selects the children of the elements found by
+     * '**', with the steps merged the same as evaluate().
+     */
+
+    private static boolean isNested(Step[] steps) {
+
+	boolean nested = false;
+
+	for (int i = 0; i < steps.length; i++) {
+
+	    boolean anyDepth = steps[i].anyDepth;
+
+	    if (anyDepth && i + 1 < steps.length && !steps[i + 1].anyDepth)
+
+		i++;
+
+	    if (i == steps.length - 1)
+
+		return nested && !anyDepth;
+
+	    nested |= anyDepth;
+
+	}
+
+	return false;
+
+    }
+
+    private Step stepOf(String text) {
+
+	int bracket = text.indexOf('[');
+
+	String name = bracket == -1 ? text : text.substring(0, bracket);
+
+	if (name.length() == 0)
+
+	    throw new InvalidParameterException(String.format(
+		    "The path \'%s\' contains empty step.", path));
+
+	if (name.contains(AnyName) && !AnyName.equals(name)
+		&& !AnyDepth.equals(name))
+
+	    throw new InvalidParameterException(String.format(
+		    "The wildcard of \'%s\' shall be a whole step.", path));
+
+	if (bracket == -1)
+
+	    return new Step(AnyName.equals(name) ? null : name,
+		    AnyDepth.equals(name), NoPredicates);
+
+	if (AnyDepth.equals(name))
+
+	    throw new InvalidParameterException(String.format(
+		    "The step \'%s\' of \'%s\' cannot have predicates.",
+		    AnyDepth, path));
+
+	// Predicates are enclosed by brackets one after another
+
+	List<PathPredicate> predicates = new ArrayList<PathPredicate>();
+
+	char quote = 0;
+
+	int begin = bracket;
+
+	for (int i = bracket; i < text.length(); i++) {
+
+	    char c = text.charAt(i);
+
+	    if (quote != 0) {
+
+		if (c == quote)
+
+		    quote = 0;
+
+	    } else if (c == '\'' || c == '"') {
+
+		quote = c;
+
+	    } else if (c == '[' && i == begin) {
+
+		continue;
+
+	    } else if (c == ']') {
+
+		predicates.add(PathPredicate.parse(
+			text.substring(begin + 1, i), path));
+
+		begin = i + 1;
+
+	    } else if (i == begin || c == '[') {
+
+		throw new InvalidParameterException(String.format(
+			"The predicates of \'%s\' are malformed.", path));
+
+	    }
+
+	}
+
+	if (begin != text.length())
+
+	    throw new InvalidParameterException(String.format(
+		    "The predicates of \'%s\' are malformed.", path));
+
+	return new Step(AnyName.equals(name) ? null : name, false,
+		predicates.toArray(new PathPredicate[predicates.size()]));
+
+    }
+
+    /**
+     *
+     * Check if the path contains any wildcard step or predicate, otherwise it
+     * could be located by the children map directly.
+     */
+
+    public static boolean isPattern(String path) {
+
+	return path != null
+		&& (path.indexOf('*') != -1 || path.indexOf('[') != -1);
+
+    }
+
+    public String getPath() {
+
+	return path;
+
+    }
+
+    /**
+     *
+     * Get the path of the elements, that is, the path without the attribute
+     * name.
+     */
+
+    public String getElementPath() {
+
+	return elementPath;
+
+    }
+
+    /**
+     *
+     * Check if the path has any wildcard step or predicate.
+     */
+
+    public boolean isPattern() {
+
+	return steps != null;
+
+    }
+
+    /**
+     *
+     * Get the name of the attribute denoted, or null if the path denotes
+     * elements.
+     */
+
+    public String getAttributeName() {
+
+	return attributeName;
+
+    }
+
+    /**
+     *
+     * Get the elements matched by the steps, the attribute name is not
+     * concerned.
+     *
+     * @param context
+     *            - Element that the path is relative to.
+     *
+     * @return Elements in document order, empty if there is no match.
+     */
+
+    public List<Element> select(Element context) {
+
+	if (steps == null) {
+
+	    List<Element> elements = plainElementsOf(context);
+
+	    return elements == null ? new ArrayList<Element>()
+		    : new ArrayList<Element>(elements);
+
+	}
+
+	ListVisitor visitor = new ListVisitor();
+
+	// Only the children of nested elements need to be sorted, which is
+	// the only case to compose an index when there is no Document
+
+	if (evaluate(context, visitor) && visitor.elements.size() > 1)
+
+	    NameIndex.of(context).sort(visitor.elements);
+
+	return visitor.elements;
+
+    }
+
+    /**
+     *
+     * Count the elements matched, or only those having the attribute when
+     * the path denotes attributes, without collecting them.
+     *
+     * @param context
+     *            - Element that the path is relative to.
+     */
+
+    public int count(Element context) {
+
+	if (steps == null) {
+
+	    List<Element> elements = plainElementsOf(context);
+
+	    if (elements == null)
+
+		return 0;
+
+	    if (attributeName == null)
+
+		return elements.size();
+
+	    int count = 0;
+
+	    for (int i = 0; i < elements.size(); i++) {
+
+		if (hasAttribute(elements.get(i)))
+
+		    count++;
+
+	    }
+
+	    return count;
+
+	}
+
+	FindingVisitor visitor = new FindingVisitor(false);
+
+	evaluate(context, visitor);
+
+	return visitor.count;
+
+    }
+
+    /**
+     *
+     * Check if any element is matched, or any having the attribute when the
+     * path denotes attributes, the evaluation stops once it is found.
+     *
+     * @param context
+     *            - Element that the path is relative to.
+     */
+
+    public boolean exists(Element context) {
+
+	if (steps == null)
+
+	    return first(context) != null;
+
+	FindingVisitor visitor = new FindingVisitor(true);
+
+	evaluate(context, visitor);
+
+	return visitor.count != 0;
+
+    }
+
+    /**
+     *
+     * Get the first element matched in document order, or the first having
+     * the attribute when the path denotes attributes.
+     *
+     * @param context
+     *            - Element that the path is relative to.
+     *
+     * @return null if there is none.
+     */
+
+    public Element first(Element context) {
+
+	List<Element> elements;
+
+	if (steps == null) {
+
+	    elements = plainElementsOf(context);
+
+	} else if (!unordered) {
+
+	    // Elements are found in document order unless they are the
+	    // children of nested elements
+
+	    FindingVisitor visitor = new FindingVisitor(true);
+
+	    evaluate(context, visitor);
+
+	    return visitor.first;
+
+	} else {
+
+	    elements = select(context);
+
+	}
+
+	if (elements == null)
+
+	    return null;
+
+	for (int i = 0; i < elements.size(); i++) {
+
+	    if (hasAttribute(elements.get(i)))
+
+		return elements.get(i);
+
+	}
+
+	return null;
+
+    }
+
+    /**
+     *
+     * Get the elements of the plain path from the children map, the empty
+     * element path of a path like "<id" denotes the context itself.
+     */
+
+    private List<Element> plainElementsOf(Element context) {
+
+	if (elementPath.length() == 0)
+
+	    return Collections.singletonList(context);
+
+	return context.children == null ? null : context.children
+		.get(elementPath);
+
+    }
+
+    private boolean hasAttribute(Element element) {
+
+	return attributeName == null
+		|| (element.attributes != null && element.attributes
+			.containsKey(attributeName));
+
+    }
+
+    /**
+     *
+     * Receiver of the elements matched by a step.
+     */
+
+    private abstract static class Visitor {
+
+	/**
+	 *
+	 * @return false to stop the evaluation.
+	 */
+
+	abstract boolean visit(Element element);
+
+    }
+
+    private static final class ListVisitor extends Visitor {
+
+	private final List<Element> elements = new ArrayList<Element>();
+
+	@Override
+	boolean visit(Element element) {
+
+	    elements.add(element);
+
+	    return true;
+
+	}
+
+    }
+
+    /**
+     *
+     * Visitor to feed the children meeting a step of each element visited to
+     * the next visitor, so that the elements matched by consecutive child
+     * steps are not collected step by step.
+     */
+
+    private static final class ChildStepVisitor extends Visitor {
+
+	private final Step step;
+
+	private final Visitor next;
+
+	private ChildStepVisitor(Step step, Visitor next) {
+
+	    this.step = step;
+
+	    this.next = next;
+
+	}
+
+	@Override
+	boolean visit(Element element) {
+
+	    return childrenOf(element, step, next);
+
+	}
+
+    }
+
+    /**
+     *
+     * Visitor to count the elements having the attribute, or to find the
+     * first one.
+     */
+
+    private final class FindingVisitor extends Visitor {
+
+	private final boolean firstOnly;
+
+	private int count = 0;
+
+	private Element first = null;
+
+	private FindingVisitor(boolean firstOnly) {
+
+	    this.firstOnly = firstOnly;
+
+	}
+
+	@Override
+	boolean visit(Element element) {
+
+	    if (!hasAttribute(element))
+
+		return true;
+
+	    if (count++ == 0)
+
+		first = element;
+
+	    return !firstOnly;
+
+	}
+
+    }
+
+    /**
+     *
+     * Evaluate the steps one by one, the elements matched by the last step
+     * are fed to the visitor without being collected. The child steps
+     * following a step are chained by ChildStepVisitor, their elements are
+     * collected only before a '**' step or a step located by the attribute
+     * index, which need all of them to be sorted or filtered.
+     *
+     * The NameIndex is used only when it is kept by the Document, and the
+     * attribute index only when the attribute is indexed by the Document,
+     * otherwise the candidates are streamed with the predicates evaluated.
+     *
+     * @return true if the elements might not be fed in document order. The
+     *         elements found by '**' or by the attribute index are in
+     *         document order, the children of nested elements might not be.
+     */
+
+    private boolean evaluate(Element context, Visitor visitor) {
+
+	List<Element> current = new ArrayList<Element>();
+
+	current.add(context);
+
+	Document document = documentOf(context);
+
+	NameIndex index = null;
+
+	// Set once the elements might contain their own descendants, so that
+	// they are not in document order any longer
+
+	boolean nested = false;
+
+	boolean sorting = false;
+
+	for (int i = 0; i < steps.length; i++) {
+
+	    Step step = steps[i];
+
+	    boolean anyDepth = step.anyDepth;
+
+	    boolean self = false;
+
+	    if (anyDepth) {
+
+		// Merge with the following step to search the descendants of
+		// a name directly
+
+		if (i + 1 < steps.length && !steps[i + 1].anyDepth)
+
+		    step = steps[++i];
+
+		else
+
+		    self = true;
+
+	    }
+
+	    // Following child steps to be chained to this one
+
+	    int end = i + 1;
+
+	    while (end < steps.length && !steps[end].anyDepth
+		    && !isIndexed(document, steps[end]))
+
+		end++;
+
+	    boolean last = end == steps.length;
+
+	    Visitor target = last ? visitor : new ListVisitor();
+
+	    Visitor collector = target;
+
+	    for (int j = end - 1; j > i; j--) {
+
+		target = new ChildStepVisitor(steps[j], target);
+
+	    }
+
+	    boolean chained = end > i + 1;
+
+	    PathPredicate indexed = step.indexedPredicate();
+
+	    if (index == null
+		    && document != null
+		    && (anyDepth || indexed != null
+			    && document.isAttributeIndexed(indexed
+				    .getIndexedAttribute())))
+
+		index = document.getNameIndex();
+
+	    List<Element> candidates = indexed == null || index == null ? null
+		    : index.elementsOf(indexed.getIndexedAttribute(),
+			    indexed.getLiteral());
+
+	    if (candidates != null) {
+
+		filter(candidates, step, current, anyDepth, target);
+
+	    } else if (anyDepth && index != null) {
+
+		if (nested)
+
+		    index.sort(current);
+
+		descendantsOf(index, current, step, self, target);
+
+	    } else if (anyDepth) {
+
+		walk(nested ? rootOf(context) : null, current, step, self,
+			target);
+
+	    } else {
+
+		childrenOf(current, step, target);
+
+	    }
+
+	    // The children of nested elements might not be in document order
+
+	    if (last) {
+
+		sorting = chained ? nested || anyDepth : nested
+			&& candidates == null && !anyDepth;
+
+		break;
+
+	    }
+
+	    nested |= anyDepth;
+
+	    i = end - 1;
+
+	    current = ((ListVisitor) collector).elements;
+
+	    if (current.isEmpty())
+
+		return false;
+
+	}
+
+	return sorting;
+
+    }
+
+    /**
+     *
+     * Check if the elements of the step are located by the attribute index
+     * of the Document.
+     */
+
+    private static boolean isIndexed(Document document, Step step) {
+
+	if (document == null)
+
+	    return false;
+
+	PathPredicate indexed = step.indexedPredicate();
+
+	return indexed != null
+		&& document.isAttributeIndexed(indexed.getIndexedAttribute());
+
+    }
+
+    /**
+     *
+     * Visit the candidates located by the attribute index which meet the
+     * step, and are the children or descendants of the elements.
+     *
+     * @return false if the visitor stops the evaluation.
+     */
+
+    private static boolean filter(List<Element> candidates, Step step,
+	    List<Element> elements, boolean anyDepth, Visitor visitor) {
+
+	Map<Element, Boolean> containers = new IdentityHashMap<Element, Boolean>();
+
+	for (Element element : elements) {
+
+	    containers.put(element, true);
+
+	}
+
+	for (Element candidate : candidates) {
+
+	    if (!step.matches(candidate))
+
+		continue;
+
+	    Element container = candidate.parent;
+
+	    while (container != null && !containers.containsKey(container)) {
+
+		container = anyDepth ? container.parent : null;
+
+	    }
+
+	    if (container != null && !visitor.visit(candidate))
+
+		return false;
+
+	}
+
+	return true;
+
+    }
+
+    /**
+     *
+     * Visit the descendants of the elements in document order, the elements
+     * within the subtree of a previous one are skipped since their
+     * descendants have been visited.
+     *
+     * @return false if the visitor stops the evaluation.
+     */
+
+    private static boolean descendantsOf(NameIndex index,
+	    List<Element> elements, Step step, boolean self, Visitor visitor) {
+
+	int last = -1;
+
+	for (Element element : elements) {
+
+	    if (index.numberOf(element) <= last)
+
+		continue;
+
+	    last = index.lastNumberOf(element);
+
+	    if (self && !visitor.visit(element))
+
+		return false;
+
+	    List<Element> descendants = index.descendantsOf(element,
+		    self ? null : step.name);
+
+	    if (!visitMatched(descendants, self ? null : step, visitor))
+
+		return false;
+
+	}
+
+	return true;
+
+    }
+
+    /**
+     *
+     * Visit the descendants of the elements in document order without any
+     * index. When the elements might be nested, the whole tree is walked
+     * from the root once, so that they need not be sorted and the elements
+     * within the subtree of another one are visited only once.
+     *
+     * @param root
+     *            - Root of the tree if the elements might be nested,
+     *            otherwise null to walk the subtrees of the elements.
+     *
+     * @return false if the visitor stops the evaluation.
+     */
+
+    private static boolean walk(Element root, List<Element> elements,
+	    Step step, boolean self, Visitor visitor) {
+
+	if (root == null) {
+
+	    for (Element element : elements) {
+
+		if (self && !visitor.visit(element))
+
+		    return false;
+
+		if (!walkSubtree(element, null, self ? null : step, true,
+			visitor))
+
+		    return false;
+
+	    }
+
+	    return true;
+
+	}
+
+	Map<Element, Boolean> containers = new IdentityHashMap<Element, Boolean>();
+
+	for (Element element : elements) {
+
+	    containers.put(element, true);
+
+	}
+
+	if (self && containers.containsKey(root) && !visitor.visit(root))
+
+	    return false;
+
+	return walkSubtree(root, containers, self ? null : step, false,
+		visitor);
+
+    }
+
+    /**
+     *
+     * Visit the descendants of the element in the order of NameIndex, those
+     * within the subtree of any container when there are containers. The
+     * containers themselves are visited too when the step is null.
+     *
+     * @param within
+     *            - Whether the element is within the subtree of a container.
+     *
+     * @return false if the visitor stops the evaluation.
+     */
+
+    private static boolean walkSubtree(Element element,
+	    Map<Element, Boolean> containers, Step step, boolean within,
+	    Visitor visitor) {
+
+	if (element.children == null)
+
+	    return true;
+
+	boolean container = within || containers.containsKey(element);
+
+	for (Map.Entry<String, List<Element>> entry : element.children
+		.entrySet()) {
+
+	    if (entry.getKey().contains(Element.DefaultElementPathSign))
+
+		continue;
+
+	    for (Element child : entry.getValue()) {
+
+		boolean matched = container ? step == null
+			|| step.matches(child) : step == null
+			&& containers.containsKey(child);
+
+		if (matched && !visitor.visit(child))
+
+		    return false;
+
+		if (!walkSubtree(child, containers, step, container, visitor))
+
+		    return false;
+
+	    }
+
+	}
+
+	return true;
+
+    }
+
+    /**
+     *
+     * Get the root of the tree containing the element.
+     */
+
+    private static Element rootOf(Element element) {
+
+	while (element.parent != null) {
+
+	    element = element.parent;
+
+	}
+
+	return element;
+
+    }
+
+    /**
+     *
+     * Get the Document at the root of the tree containing the element, or
+     * null if the root is not a Document.
+     */
+
+    private static Document documentOf(Element element) {
+
+	Element root = rootOf(element);
+
+	return root instanceof Document ? (Document) root : null;
+
+    }
+
+    /**
+     *
+     * Visit the children of the elements which meet the step.
+     *
+     * @return false if the visitor stops the evaluation.
+     */
+
+    private static boolean childrenOf(List<Element> elements, Step step,
+	    Visitor visitor) {
+
+	for (Element element : elements) {
+
+	    if (!childrenOf(element, step, visitor))
+
+		return false;
+
+	}
+
+	return true;
+
+    }
+
+    /**
+     *
+     * Visit the children of the element which meet the step.
+     *
+     * @return false if the visitor stops the evaluation.
+     */
+
+    private static boolean childrenOf(Element element, Step step,
+	    Visitor visitor) {
+
+	if (element.children == null)
+
+	    return true;
+
+	if (step.name != null) {
+
+	    List<Element> children = element.children.get(step.name);
+
+	    return children == null || visitMatched(children, step, visitor);
+
+	}
+
+	for (Map.Entry<String, List<Element>> entry : element.children
+		.entrySet()) {
+
+	    if (!entry.getKey().contains(Element.DefaultElementPathSign)
+		    && !visitMatched(entry.getValue(), step, visitor))
+
+		return false;
+
+	}
+
+	return true;
+
+    }
+
+    /**
+     *
+     * Visit the elements meeting the predicates of the step, or all of them
+     * if the step is null.
+     */
+
+    private static boolean visitMatched(List<Element> elements, Step step,
+	    Visitor visitor) {
+
+	boolean all = step == null || step.predicates.length == 0;
+
+	for (int i = 0; i < elements.size(); i++) {
+
+	    Element element = elements.get(i);
+
+	    if ((all || step.matches(element)) && !visitor.visit(element))
+
+		return false;
+
+	}
+
+	return true;
+
+    }
+
+    @Override
+    public String toString() {
+
+	return path;
+
+    }
+
+}
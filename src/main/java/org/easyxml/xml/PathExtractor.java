@@ -0,0 +1,461 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.security.InvalidParameterException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Extractor of the values of several paths, the paths are compiled once when
+ * the extractor is created, then all of them are resolved together for each
+ * element without parsing, measuring or composing intermediate arrays.
+ *
+ * The values are the same as those got by Element.getValuesOf() path by
+ * path. Since the children map of an element keeps its descendants by their
+ * relative paths, the elements of each path without wildcard or predicate
+ * are located by one lookup instead of walking through the subtree.
+ *
+ * The extractor is immutable and could be shared by threads.
+ *
+ * @version $Id$
+ */
+
+public final class PathExtractor {
+
+    private final List<Map.Entry<String, String>> entries;
+
+    // Plans of the paths, null if the path is malformed
+
+    private final PathExpression[] plans;
+
+    /**
+     *
+     * @param pathMap
+     *            - Map of relative paths (as key) and their display names (as
+     *            value).
+     */
+
+    public PathExtractor(Map<String, String> pathMap) {
+
+	entries = new ArrayList<Map.Entry<String, String>>(pathMap.size());
+
+	plans = new PathExpression[pathMap.size()];
+
+	for (Map.Entry<String, String> entry : pathMap.entrySet()) {
+
+	    String path = entry.getKey();
+
+	    try {
+
+		plans[entries.size()] = PathExpression.compile(path);
+
+	    } catch (InvalidParameterException ex) {
+
+		// Nothing would be extracted, the same as getValuesOf()
+
+		ex.printStackTrace();
+
+	    }
+
+	    entries.add(new AbstractMap.SimpleImmutableEntry<String, String>(
+		    path, entry.getValue()));
+
+	}
+
+    }
+
+    /**
+     *
+     * Get the count of the paths.
+     */
+
+    public int size() {
+
+	return entries.size();
+
+    }
+
+    /**
+     *
+     * Get the values of all paths, the result is the same as
+     * Document.extractValues() of the paths.
+     *
+     * @param element
+     *            - Element that the paths are relative to.
+     *
+     * @return Map whose key stores the display name, and its value keeps all
+     *         values of whose path, or null if there is none.
+     */
+
+    public Map<String, String[]> valuesOf(Element element) {
+
+	Map<String, String[]> result = new LinkedHashMap<String, String[]>();
+
+	for (int i = 0; i < plans.length; i++) {
+
+	    result.put(entries.get(i).getValue(), valuesOf(element, i));
+
+	}
+
+	return result;
+
+    }
+
+    /**
+     *
+     * Get the values of one of the paths, the result is the same as
+     * Element.getValuesOf() of the path.
+     *
+     * @param element
+     *            - Element that the paths are relative to.
+     *
+     * @param index
+     *            - Index of the path, in the order of the pathMap.
+     *
+     * @return All values of the path, or null if there is none.
+     */
+
+    public String[] valuesOf(Element element, int index) {
+
+	String path = entries.get(index).getKey();
+
+	if (path == Element.Value)
+
+	    return new String[] { element.getValue() };
+
+	if (element.attributes != null && element.attributes.containsKey(path))
+
+	    return new String[] { element.getAttributeValue(path) };
+
+	List<Element> elements = elementsOf(element, plans[index]);
+
+	return elements == null ? null : valuesOf(elements,
+		plans[index].getAttributeName());
+
+    }
+
+    /**
+     *
+     * Convert the element to a record, the result is the same as that
+     * converted by Document.mapOf() with the paths.
+     *
+     * @param element
+     *            - Element that the paths are relative to.
+     *
+     * @return Map of the display names and the values, multiple values are
+     *         joined as "[v1, v2]".
+     */
+
+    public HashMap<String, String> recordOf(Element element) {
+
+	HashMap<String, String> map = new HashMap<String, String>();
+
+	String[] cell = new String[1];
+
+	StringBuilder sb = new StringBuilder();
+
+	for (int i = 0; i < plans.length; i++) {
+
+	    if (cellOf(element, i, cell, sb) != 0)
+
+		Document.putValue(map, entries.get(i), cell[0]);
+
+	}
+
+	return map;
+
+    }
+
+    /**
+     *
+     * Convert the values extracted path by path to a record, the result is
+     * the same as recordOf() of the element whose values they are.
+     *
+     * @param values
+     *            - Values of each path in the order of the pathMap, null if
+     *            there is none, like those read by a SAX handler.
+     *
+     * @return Map of the display names and the values, multiple values are
+     *         joined as "[v1, v2]".
+     */
+
+    public HashMap<String, String> recordOf(String[][] values) {
+
+	HashMap<String, String> map = new HashMap<String, String>();
+
+	StringBuilder sb = new StringBuilder();
+
+	for (int i = 0; i < plans.length; i++) {
+
+	    String[] cell = values[i];
+
+	    if (cell == null || cell.length == 0)
+
+		continue;
+
+	    if (cell.length == 1) {
+
+		Document.putValue(map, entries.get(i), cell[0]);
+
+		continue;
+
+	    }
+
+	    sb.setLength(0);
+
+	    sb.append('[');
+
+	    for (int j = 0; j < cell.length; j++) {
+
+		if (j != 0)
+
+		    sb.append(", ");
+
+		if (cell[j] != null)
+
+		    sb.append(cell[j]);
+
+	    }
+
+	    Document.putValue(map, entries.get(i), sb.append(']').toString());
+
+	}
+
+	return map;
+
+    }
+
+    /**
+     *
+     * Get the paths relative to the elements, in the order of the pathMap.
+     */
+
+    public List<String> getPaths() {
+
+	List<String> paths = new ArrayList<String>(entries.size());
+
+	for (Map.Entry<String, String> entry : entries) {
+
+	    paths.add(entry.getKey());
+
+	}
+
+	return paths;
+
+    }
+
+    /**
+     *
+     * Convert the elements to records kept by columns, one column for each
+     * path.
+     *
+     * @param elements
+     *            - Elements that the paths are relative to, one for each
+     *            record.
+     *
+     * @param types
+     *            - Types of the columns by their display names, or null to
+     *            keep all values as Text.
+     *
+     * @return Columns named by the display names, or by the paths with '<'
+     *         and '>' replaced by '_' if the display names are used.
+     */
+
+    public ColumnarResult columnsOf(List<Element> elements,
+	    Map<String, ColumnType> types) {
+
+	int size = elements.size();
+
+	Column[] columns = new Column[plans.length];
+
+	Map<String, Boolean> names = new HashMap<String, Boolean>();
+
+	for (int i = 0; i < columns.length; i++) {
+
+	    Map.Entry<String, String> entry = entries.get(i);
+
+	    String name = entry.getValue();
+
+	    if (names.containsKey(name))
+
+		name = entry.getKey().replaceAll("<|>", "_");
+
+	    names.put(name, true);
+
+	    ColumnType type = types == null ? null : types.get(name);
+
+	    columns[i] = new Column(name, type == null ? ColumnType.Text
+		    : type, size);
+
+	}
+
+	String[] cell = new String[1];
+
+	StringBuilder sb = new StringBuilder();
+
+	for (int row = 0; row < size; row++) {
+
+	    Element element = elements.get(row);
+
+	    for (int i = 0; i < columns.length; i++) {
+
+		int count = cellOf(element, i, cell, sb);
+
+		columns[i].set(row, count == 0 ? null : cell[0], count > 1);
+
+	    }
+
+	}
+
+	return new ColumnarResult(columns, size);
+
+    }
+
+    /**
+     *
+     * Get the value of a path of the element.
+     *
+     * @param cell
+     *            - Array to keep the single value, or multiple values joined
+     *            as "[v1, v2]" with null as empty.
+     *
+     * @return Count of the values, 0 if there is none.
+     */
+
+    private int cellOf(Element element, int i, String[] cell, StringBuilder sb) {
+
+	String path = entries.get(i).getKey();
+
+	if (path == Element.Value) {
+
+	    cell[0] = element.getValue();
+
+	    return 1;
+
+	} else if (element.attributes != null
+		&& element.attributes.containsKey(path)) {
+
+	    cell[0] = element.getAttributeValue(path);
+
+	    return 1;
+
+	}
+
+	List<Element> elements = elementsOf(element, plans[i]);
+
+	if (elements == null || elements.isEmpty())
+
+	    return 0;
+
+	String attributeName = plans[i].getAttributeName();
+
+	if (elements.size() == 1) {
+
+	    cell[0] = valueOf(elements.get(0), attributeName);
+
+	    return 1;
+
+	}
+
+	sb.setLength(0);
+
+	sb.append('[');
+
+	for (int j = 0; j < elements.size(); j++) {
+
+	    if (j != 0)
+
+		sb.append(", ");
+
+	    String value = valueOf(elements.get(j), attributeName);
+
+	    if (value != null)
+
+		sb.append(value);
+
+	}
+
+	cell[0] = sb.append(']').toString();
+
+	return elements.size();
+
+    }
+
+    /**
+     *
+     * Get the elements of the plan, the same as Element.getElementsOf() of
+     * the element path.
+     */
+
+    private static List<Element> elementsOf(Element element,
+	    PathExpression plan) {
+
+	if (plan == null)
+
+	    return null;
+
+	if (plan.isPattern()) {
+
+	    List<Element> elements = plan.select(element);
+
+	    return elements.isEmpty() ? null : elements;
+
+	}
+
+	String elementPath = plan.getElementPath();
+
+	if (elementPath.length() == 0)
+
+	    return Collections.singletonList(element);
+
+	if (element.children == null)
+
+	    return null;
+
+	return element.children.get(elementPath);
+
+    }
+
+    private static String[] valuesOf(List<Element> elements,
+	    String attributeName) {
+
+	String[] values = new String[elements.size()];
+
+	for (int i = 0; i < values.length; i++) {
+
+	    values[i] = valueOf(elements.get(i), attributeName);
+
+	}
+
+	return values;
+
+    }
+
+    private static String valueOf(Element element, String attributeName) {
+
+	return attributeName == null ? element.getValue() : element
+		.getAttributeValue(attributeName);
+
+    }
+
+}
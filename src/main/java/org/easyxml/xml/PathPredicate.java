@@ -0,0 +1,311 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.security.InvalidParameterException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * Predicate of a step of PathExpression, enclosed by '[' and ']' after the
+ * name of the step:
+ *
+ * [name] or [@name] to check the existence of a child or an attribute;
+ *
+ * [name='value'], [@name='value'] or [.='value'] to compare the innerText of
+ * the children, the value of the attribute or the innerText of the element
+ * itself, with any of the operators '=', '!=', '<', '<=', '>' and '>='.
+ *
+ * Quoted values are compared as strings, others are compared as numbers. A
+ * predicate over children is met when any of them is matched.
+ *
+ * @version $Id$
+ */
+
+final class PathPredicate {
+
+    private static final Pattern Expression = Pattern
+	    .compile("\\s*(\\.|@?[^\\s=!<>@\\[\\]'\"]+)\\s*(?:(=|!=|<=|>=|<|>)\\s*(?:'([^']*)'|\"([^\"]*)\"|([^\\s'\"]+))\\s*)?");
+
+    private enum Operator {
+
+	Equal("="), NotEqual("!="), Less("<"), LessOrEqual("<="), Greater(">"), GreaterOrEqual(
+		">=");
+
+	private final String symbol;
+
+	private Operator(String symbol) {
+
+	    this.symbol = symbol;
+
+	}
+
+	static Operator of(String symbol) {
+
+	    for (Operator operator : values()) {
+
+		if (operator.symbol.equals(symbol))
+
+		    return operator;
+
+	    }
+
+	    return null;
+
+	}
+
+	boolean accept(int comparison) {
+
+	    switch (this) {
+
+	    case Equal:
+
+		return comparison == 0;
+
+	    case NotEqual:
+
+		return comparison != 0;
+
+	    case Less:
+
+		return comparison < 0;
+
+	    case LessOrEqual:
+
+		return comparison <= 0;
+
+	    case Greater:
+
+		return comparison > 0;
+
+	    default:
+
+		return comparison >= 0;
+
+	    }
+
+	}
+
+    }
+
+    private final String text;
+
+    // Name of the children or the attribute, null for the element itself
+
+    private final String operand;
+
+    private final boolean attribute;
+
+    // Null to check the existence only
+
+    private final Operator operator;
+
+    private final String literal;
+
+    // NaN when the literal is quoted and compared as a string
+
+    private final double number;
+
+    private PathPredicate(String text, String operand, boolean attribute,
+	    Operator operator, String literal, double number) {
+
+	this.text = text;
+
+	this.operand = operand;
+
+	this.attribute = attribute;
+
+	this.operator = operator;
+
+	this.literal = literal;
+
+	this.number = number;
+
+    }
+
+    /**
+     *
+     * Parse the predicate enclosed by the brackets.
+     *
+     * @param text
+     *            - Content within the brackets.
+     *
+     * @param path
+     *            - Path containing the predicate, to compose the message of
+     *            the exception.
+     *
+     * @throws InvalidParameterException
+     *             if the predicate is malformed.
+     */
+
+    static PathPredicate parse(String text, String path) {
+
+	Matcher matcher = Expression.matcher(text);
+
+	if (!matcher.matches())
+
+	    throw new InvalidParameterException(String.format(
+		    "The predicate \'[%s]\' of \'%s\' is malformed.", text, path));
+
+	String operand = matcher.group(1);
+
+	boolean attribute = operand.startsWith("@");
+
+	if (attribute)
+
+	    operand = operand.substring(1);
+
+	else if (operand.equals("."))
+
+	    operand = null;
+
+	Operator operator = Operator.of(matcher.group(2));
+
+	if (operator == null)
+
+	    return new PathPredicate(text, operand, attribute, null, null,
+		    Double.NaN);
+
+	String literal = matcher.group(5);
+
+	if (literal == null) {
+
+	    literal = matcher.group(3) != null ? matcher.group(3) : matcher
+		    .group(4);
+
+	    return new PathPredicate(text, operand, attribute, operator,
+		    literal, Double.NaN);
+
+	}
+
+	try {
+
+	    return new PathPredicate(text, operand, attribute, operator,
+		    literal, Double.parseDouble(literal));
+
+	} catch (NumberFormatException ex) {
+
+	    throw new InvalidParameterException(String.format(
+		    "The value of \'[%s]\' of \'%s\' shall be quoted.", text,
+		    path));
+
+	}
+
+    }
+
+    /**
+     *
+     * Get the name of the attribute whose value could be located by the
+     * attribute index, or null if the predicate is not an equality of a
+     * quoted attribute value.
+     */
+
+    String getIndexedAttribute() {
+
+	return attribute && operator == Operator.Equal
+		&& Double.isNaN(number) ? operand : null;
+
+    }
+
+    /**
+     *
+     * Get the value expected by getIndexedAttribute().
+     */
+
+    String getLiteral() {
+
+	return literal;
+
+    }
+
+    /**
+     *
+     * Check if the element meets this predicate.
+     */
+
+    boolean matches(Element element) {
+
+	if (operand == null)
+
+	    return operator == null ? element.value != null
+		    && element.value.length() != 0 : test(element.getValue());
+
+	if (attribute) {
+
+	    String value = element.getAttributeValue(operand);
+
+	    return value != null && (operator == null || test(value));
+
+	}
+
+	List<Element> children = element.children == null ? null
+		: element.children.get(operand);
+
+	if (children == null || children.isEmpty())
+
+	    return false;
+
+	if (operator == null)
+
+	    return true;
+
+	for (int i = 0; i < children.size(); i++) {
+
+	    if (test(children.get(i).getValue()))
+
+		return true;
+
+	}
+
+	return false;
+
+    }
+
+    private boolean test(String value) {
+
+	if (value == null)
+
+	    return false;
+
+	if (Double.isNaN(number))
+
+	    return operator.accept(value.compareTo(literal));
+
+	try {
+
+	    return operator.accept(Double.compare(Double.parseDouble(value),
+		    number));
+
+	} catch (NumberFormatException ex) {
+
+	    // Values not of numbers are only different from the number
+
+	    return operator == Operator.NotEqual;
+
+	}
+
+    }
+
+    @Override
+    public String toString() {
+
+	return "[" + text + "]";
+
+    }
+
+}
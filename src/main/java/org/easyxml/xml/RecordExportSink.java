@@ -0,0 +1,151 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * ExportSink to convert the elements of the objectPath to records when they
+ * are visited, the records are the same as Document.mapOf(objectPath,
+ * pathMap).
+ *
+ * @version $Id$
+ */
+
+public class RecordExportSink implements ExportSink {
+
+    private final Document document;
+
+    private final String objectPath;
+
+    private Map<String, String> pathMap;
+
+    private PathExtractor extractor = null;
+
+    // Elements to be converted, identified by references
+
+    private final Map<Element, Boolean> objectElements = new IdentityHashMap<Element, Boolean>();
+
+    private List<HashMap<String, String>> records = null;
+
+    /**
+     *
+     * @param document
+     *            - Document containing the elements.
+     *
+     * @param objectPath
+     *            - Path of the elements to be converted to records.
+     *
+     * @param pathMap
+     *            - Map of relative paths (as key) and their display names (as
+     *            value), or null to use all attributes and children.
+     */
+
+    public RecordExportSink(Document document, String objectPath,
+	    Map<String, String> pathMap) {
+
+	this.document = document;
+
+	this.objectPath = objectPath;
+
+	this.pathMap = pathMap;
+
+    }
+
+    @Override
+    public void startDocument(Element root) {
+
+	objectElements.clear();
+
+	if (objectPath == null || !document.containsElement(objectPath)) {
+
+	    records = null;
+
+	    return;
+
+	}
+
+	List<Element> elements = document.getElementsOf(objectPath);
+
+	for (Element element : elements) {
+
+	    objectElements.put(element, true);
+
+	}
+
+	if (pathMap == null) {
+
+	    pathMap = Document.pathMapOf(elements);
+
+	}
+
+	extractor = new PathExtractor(pathMap);
+
+	records = new ArrayList<HashMap<String, String>>(elements.size());
+
+    }
+
+    @Override
+    public void startElement(Element element, int level) {
+
+	if (records == null || !objectElements.containsKey(element))
+
+	    return;
+
+	records.add(extractor.recordOf(element));
+
+    }
+
+    @Override
+    public void startGroup(List<Element> elements, int level) {
+
+    }
+
+    @Override
+    public void endGroup(List<Element> elements, int level) {
+
+    }
+
+    @Override
+    public void endElement(Element element, int level) {
+
+    }
+
+    @Override
+    public void endDocument(Element root) {
+
+	objectElements.clear();
+
+    }
+
+    /**
+     *
+     * Get the records converted, or null if there is no element of the
+     * objectPath.
+     */
+
+    public List<? extends Map<String, String>> getRecords() {
+
+	return records;
+
+    }
+
+}
@@ -0,0 +1,300 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ *
+ * Buffers shared by the serializers of the same thread, so that composing
+ * the XML or JSON text doesn't allocate new buffers and indents for every
+ * call or every element.
+ *
+ * Usage: acquire() a context, use its buffers, then release() it. A nested
+ * call on the same thread gets a new context instead of the shared one.
+ *
+ * @version $Id$
+ */
+
+final class SerializationContext {
+
+    // Initial capacity of the buffers.
+
+    public static final int DefaultCapacity = 8 * 1024;
+
+    // Buffers grown beyond this would be dropped when released, to avoid
+    // keeping huge buffers of a single big document for the thread.
+
+    public static final int MaxRetainedCapacity = 4 * 1024 * 1024;
+
+    private static final ThreadLocal<SerializationContext> Contexts = new ThreadLocal<SerializationContext>() {
+
+	@Override
+	protected SerializationContext initialValue() {
+
+	    return new SerializationContext();
+
+	}
+
+    };
+
+    // Count of the levels whose indents are cached, deeper indents are
+    // composed holder by holder, so a very deep document doesn't leave its
+    // indents held by the class.
+
+    public static final int MaxCachedIndentLevel = 64;
+
+    private static final String[] Indents = new String[MaxCachedIndentLevel + 1];
+
+    static {
+
+	Indents[0] = "";
+
+	for (int i = 1; i < Indents.length; i++) {
+
+	    Indents[i] = Indents[i - 1] + Element.DefaultIndentHolder;
+
+	}
+
+    }
+
+    /**
+     *
+     * Append the indent of the level, the holders beyond MaxCachedIndentLevel
+     * are appended one by one without composing the indent.
+     */
+
+    public static void appendIndent(StringBuilder sb, int level) {
+
+	int cached = Math.min(level, MaxCachedIndentLevel);
+
+	sb.append(Indents[cached]);
+
+	for (int i = cached; i < level; i++) {
+
+	    sb.append(Element.DefaultIndentHolder);
+
+	}
+
+    }
+
+    public static void appendIndent(Appendable out, int level)
+	    throws IOException {
+
+	int cached = Math.min(level, MaxCachedIndentLevel);
+
+	out.append(Indents[cached]);
+
+	for (int i = cached; i < level; i++) {
+
+	    out.append(Element.DefaultIndentHolder);
+
+	}
+
+    }
+
+    /**
+     *
+     * Get the context of this thread, or a new one if it is being used.
+     */
+
+    public static SerializationContext acquire() {
+
+	SerializationContext context = Contexts.get();
+
+	if (context.inUse)
+
+	    return new SerializationContext();
+
+	context.inUse = true;
+
+	return context;
+
+    }
+
+    private boolean inUse = false;
+
+    private StringBuilder chars = new StringBuilder(DefaultCapacity);
+
+    private ByteBuffer bytes = null;
+
+    private CharsetEncoder encoder = null;
+
+    private SerializationContext() {
+
+    }
+
+    /**
+     *
+     * Get the cleared char buffer.
+     */
+
+    public StringBuilder chars() {
+
+	chars.setLength(0);
+
+	return chars;
+
+    }
+
+    /**
+     *
+     * Release the context to be used by the next call of the thread.
+     */
+
+    public void release() {
+
+	if (chars.capacity() > MaxRetainedCapacity) {
+
+	    chars = new StringBuilder(DefaultCapacity);
+
+	} else {
+
+	    chars.setLength(0);
+
+	}
+
+	if (bytes != null && bytes.capacity() > MaxRetainedCapacity) {
+
+	    bytes = null;
+
+	}
+
+	inUse = false;
+
+    }
+
+    /**
+     *
+     * Encode the chars with the reused byte buffer, malformed or unmappable
+     * chars would be replaced as String.getBytes() does.
+     *
+     * @param text
+     *            - Chars to be encoded.
+     *
+     * @param charset
+     *            - Charset used to encode the chars.
+     *
+     * @return Byte array of exactly the encoded length.
+     */
+
+    public byte[] encode(CharSequence text, Charset charset) {
+
+	if (encoder == null || !encoder.charset().equals(charset)) {
+
+	    encoder = charset.newEncoder()
+		    .onMalformedInput(CodingErrorAction.REPLACE)
+		    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	}
+
+	int expected = (int) (text.length() * encoder.averageBytesPerChar()) + 16;
+
+	if (bytes == null || bytes.capacity() < expected) {
+
+	    bytes = ByteBuffer.allocate(Math.max(expected, DefaultCapacity));
+
+	}
+
+	bytes.clear();
+
+	encoder.reset();
+
+	CharBuffer in = CharBuffer.wrap(text);
+
+	while (true) {
+
+	    CoderResult result = in.hasRemaining() ? encoder.encode(in, bytes,
+		    true) : CoderResult.UNDERFLOW;
+
+	    // Flush the encoder when all chars are consumed
+
+	    if (result.isUnderflow()) {
+
+		result = encoder.flush(bytes);
+
+		if (result.isUnderflow())
+
+		    break;
+
+	    }
+
+	    ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+
+	    bytes.flip();
+
+	    larger.put(bytes);
+
+	    bytes = larger;
+
+	}
+
+	return Arrays.copyOf(bytes.array(), bytes.position());
+
+    }
+
+    /**
+     *
+     * Remove the SPACE like ' ', '\t', '\n' from the buffer, as replaceAll(
+     * "\\s+", "") but without composing any new String.
+     */
+
+    public static void removeSpaces(StringBuilder sb) {
+
+	int length = sb.length();
+
+	int kept = 0;
+
+	for (int i = 0; i < length; i++) {
+
+	    char ch = sb.charAt(i);
+
+	    switch (ch) {
+
+	    case ' ':
+
+	    case '\t':
+
+	    case '\n':
+
+	    case '\u000B':
+
+	    case '\f':
+
+	    case '\r':
+
+		break;
+
+	    default:
+
+		sb.setCharAt(kept++, ch);
+
+	    }
+
+	}
+
+	sb.setLength(kept);
+
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ *
+ * ExportSink to output the tree as XML, the output is the same as
+ * Document.toString(charset, keepEmptyElments, true), or the same as
+ * Element.toString(0, keepEmptyElments, keepEmptyElments) when no charset is
+ * specified.
+ *
+ * @version $Id$
+ */
+
+public class XmlExportSink implements ExportSink {
+
+    private final Appendable out;
+
+    private final Charset charset;
+
+    private final Boolean keepEmptyElments;
+
+    // Kept as a buffer to compose the attributes
+
+    private final StringBuilder sb = new StringBuilder();
+
+    // Level of the empty element whose subtree is not displayed, or -1
+
+    private int skippedLevel = -1;
+
+    /**
+     *
+     * @param out
+     *            - Appendable to receive the output.
+     *
+     * @param charset
+     *            - Charset to be specified in the XML Declaration, or null to
+     *            output without the XML Declaration.
+     *
+     * @param keepEmptyElments
+     *            - Specify if Empty Elements and Attributes shall be
+     *            displayed.
+     */
+
+    public XmlExportSink(Appendable out, Charset charset,
+	    Boolean keepEmptyElments) {
+
+	this.out = out;
+
+	this.charset = charset;
+
+	this.keepEmptyElments = keepEmptyElments;
+
+    }
+
+    @Override
+    public void startDocument(Element root) throws IOException {
+
+	if (charset != null) {
+
+	    out.append("<?xml version=\"1.0\" encoding=\"")
+		    .append(charset.name()).append("\"?>\n");
+
+	}
+
+    }
+
+    @Override
+    public void startElement(Element element, int level) throws IOException {
+
+	if (skippedLevel != -1)
+
+	    return;
+
+	if (!keepEmptyElments && element.isEmpty()) {
+
+	    skippedLevel = level;
+
+	    return;
+
+	}
+
+	SerializationContext.appendIndent(out, level);
+
+	out.append('<').append(element.name);
+
+	if (element.attributes != null) {
+
+	    sb.setLength(0);
+
+	    for (Attribute attribute : element.attributes.values()) {
+
+		if (keepEmptyElments || !attribute.isEmpty()) {
+
+		    sb.append(' ');
+
+		    attribute.appendTo(sb);
+
+		}
+
+	    }
+
+	    out.append(sb);
+
+	}
+
+	if (isSelfClosed(element)) {
+
+	    out.append("/>");
+
+	} else {
+
+	    out.append('>');
+
+	    if (hasChildren(element))
+
+		out.append(Element.NewLine);
+
+	}
+
+    }
+
+    @Override
+    public void startGroup(List<Element> elements, int level) {
+
+    }
+
+    @Override
+    public void endGroup(List<Element> elements, int level) {
+
+    }
+
+    @Override
+    public void endElement(Element element, int level) throws IOException {
+
+	if (skippedLevel != -1) {
+
+	    if (skippedLevel == level)
+
+		skippedLevel = -1;
+
+	    return;
+
+	}
+
+	if (!isSelfClosed(element)) {
+
+	    // Include the inner text of this element
+
+	    if (StringUtils.isNotBlank(element.value)) {
+
+		if (hasChildren(element)) {
+
+		    if (Element.IgnoreLeadingSpace) {
+
+			SerializationContext.appendIndent(out, level + 1);
+
+		    }
+
+		    out.append(element.value).append(Element.NewLine);
+
+		} else {
+
+		    out.append(element.value);
+
+		}
+
+	    }
+
+	    if (hasChildren(element))
+
+		SerializationContext.appendIndent(out, level);
+
+	    out.append("</").append(element.name).append('>');
+
+	}
+
+	// Children are followed by a NewLine
+
+	if (level > 0)
+
+	    out.append(Element.NewLine);
+
+    }
+
+    @Override
+    public void endDocument(Element root) {
+
+    }
+
+    private static boolean hasChildren(Element element) {
+
+	return element.children != null && !element.children.isEmpty();
+
+    }
+
+    private static boolean isSelfClosed(Element element) {
+
+	return !hasChildren(element)
+		&& (element.value == null || element.value.trim().length() == 0);
+
+    }
+
+}
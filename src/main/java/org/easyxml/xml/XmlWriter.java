@@ -0,0 +1,270 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.xml;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ *
+ * Writer to compose the well-formatted XML text of an Element and all its
+ * descendants, it is the implementation behind Element.toString().
+ *
+ * @version $Id$
+ */
+
+class XmlWriter {
+
+    // Specify if empty attribute shall be displayed.
+
+    protected final Boolean outputEmptyAttribute;
+
+    // Specify if empty children element shall be displayed.
+
+    protected final Boolean outputEmptyElement;
+
+    public XmlWriter(Boolean outputEmptyAttribute, Boolean outputEmptyElement) {
+
+	this.outputEmptyAttribute = outputEmptyAttribute;
+
+	this.outputEmptyElement = outputEmptyElement;
+
+    }
+
+    /**
+     *
+     * Compose the String form of the element.
+     *
+     * @param element
+     *            - Element to be displayed.
+     *
+     * @param indent
+     *            - Indent count for this element.
+     *
+     * @return String form of this XML element.
+     */
+
+    public String write(Element element, int indent) {
+
+	StringBuilder sb = new StringBuilder();
+
+	write(element, indent, sb);
+
+	return sb.toString();
+
+    }
+
+    /**
+     *
+     * Append the String form of the element to the StringBuilder.
+     *
+     * @param element
+     *            - Element to be displayed.
+     *
+     * @param indent
+     *            - Indent count for this element.
+     *
+     * @param sb
+     *            - StringBuilder to keep the output.
+     */
+
+    public void write(Element element, int indent, StringBuilder sb) {
+
+	// If this is an empty element and no need to output empty element,
+	// output nothing.
+
+	if (!outputEmptyElement && element.isEmpty())
+
+	    return;
+
+	Map<String, List<Element>> children = element.children;
+
+	String value = element.value;
+
+	SerializationContext.appendIndent(sb, indent);
+
+	sb.append('<').append(element.name);
+
+	if (element.attributes != null) {
+
+	    writeAttributes(element, sb);
+
+	}
+
+	// If this element has only attributes, compose the empty element tag
+
+	if ((children == null || children.size() == 0)
+		&& (value == null || value.trim().length() == 0)) {
+
+	    sb.append("/>");
+
+	    return;
+
+	}
+
+	// Otherwise compose the opening tag
+
+	sb.append('>');
+
+	// Include the children elements by order
+
+	if (children != null && !children.isEmpty()) {
+
+	    sb.append(Element.NewLine);
+
+	    writeChildren(element, indent, sb);
+
+	}
+
+	// Include the inner text of this element
+
+	if (StringUtils.isNotBlank(value)) {
+
+	    if (children != null && !children.isEmpty()) {
+
+		if (Element.IgnoreLeadingSpace) {
+
+		    SerializationContext.appendIndent(sb, indent + 1);
+
+		}
+
+		sb.append(value).append(Element.NewLine);
+
+	    } else {
+
+		sb.append(value);
+
+	    }
+
+	}
+
+	// Include the closing tag
+
+	if (children != null && !children.isEmpty()) {
+
+	    SerializationContext.appendIndent(sb, indent);
+
+	}
+
+	sb.append("</").append(element.name).append('>');
+
+    }
+
+    /**
+     *
+     * Append the direct children of the element, each of them would be
+     * followed by a NewLine.
+     *
+     * @param element
+     *            - Element whose children are to be displayed.
+     *
+     * @param indent
+     *            - Indent count of the element.
+     *
+     * @param sb
+     *            - StringBuilder to keep the output.
+     */
+
+    protected void writeChildren(Element element, int indent, StringBuilder sb) {
+
+	Iterator<Entry<String, List<Element>>> iterator = element.children
+		.entrySet().iterator();
+
+	while (iterator.hasNext()) {
+
+	    Entry<String, List<Element>> next = iterator.next();
+
+	    // Only the direct children are kept with keys of their names
+
+	    if (next.getKey().contains(Element.DefaultElementPathSign))
+
+		continue;
+
+	    List<Element> elements = next.getValue();
+
+	    for (int i = 0; i < elements.size(); i++) {
+
+		writeChild(elements.get(i), indent + 1, sb);
+
+	    }
+
+	}
+
+    }
+
+    /**
+     *
+     * Append one child element followed by a NewLine, unless it is an empty
+     * one that shall not be displayed.
+     */
+
+    protected void writeChild(Element child, int indent, StringBuilder sb) {
+
+	if (outputEmptyElement || !child.isEmpty()) {
+
+	    write(child, indent, sb);
+
+	    sb.append(Element.NewLine);
+
+	}
+
+    }
+
+    protected void writeAttributes(Element element, StringBuilder sb) {
+
+	for (Attribute attribute : element.attributes.values()) {
+
+	    if (outputEmptyAttribute || !attribute.isEmpty()) {
+
+		sb.append(' ');
+
+		attribute.appendTo(sb);
+
+	    }
+
+	}
+
+    }
+
+    /**
+     *
+     * Collect the direct children of the element in the order they are
+     * displayed.
+     */
+
+    static void collectChildren(Element element, List<Element> result) {
+
+	if (element.children == null)
+
+	    return;
+
+	for (Entry<String, List<Element>> entry : element.children.entrySet()) {
+
+	    if (!entry.getKey().contains(Element.DefaultElementPathSign)) {
+
+		result.addAll(entry.getValue());
+
+	    }
+
+	}
+
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics.jfr;
+
+import org.easyxml.metrics.MetricsListener;
+
+/**
+ *
+ * MetricsListener to emit the measurements as JFR events, so they could be
+ * recorded by continuous JFR recording without any agent.
+ *
+ * The measurements are reported after the work is done, so the events carry
+ * the measured duration in their own field, while the duration of the event
+ * itself is close to 0. The events are enabled by default, and could be
+ * disabled in the .jfc settings by their names like "org.easyxml.Query".
+ *
+ * Install it by Metrics.setListener(new JfrMetricsListener()), or by
+ * -Deasyxml.metrics.listener=org.easyxml.metrics.jfr.JfrMetricsListener
+ *
+ * It requires Java 11 or above, and is compiled only when building with it.
+ *
+ * @version $Id$
+ */
+
+public class JfrMetricsListener implements MetricsListener {
+
+    @Override
+    public void parsed(String parser, long bytesRead, int nodesCreated,
+	    long durationNanos) {
+
+	ParseEvent event = new ParseEvent();
+
+	if (!event.shouldCommit())
+
+	    return;
+
+	event.parser = parser;
+
+	event.sourceSize = bytesRead;
+
+	event.nodeCount = nodesCreated;
+
+	event.parseDuration = durationNanos;
+
+	event.commit();
+
+    }
+
+    @Override
+    public void queried(String operation, String path, int resultCount,
+	    boolean indexed, long durationNanos) {
+
+	QueryEvent event = new QueryEvent();
+
+	if (!event.shouldCommit())
+
+	    return;
+
+	event.operation = operation;
+
+	event.path = path;
+
+	event.resultCount = resultCount;
+
+	event.indexed = indexed;
+
+	event.queryDuration = durationNanos;
+
+	event.commit();
+
+    }
+
+    @Override
+    public void serialized(String format, long length, long durationNanos) {
+
+	SerializeEvent event = new SerializeEvent();
+
+	if (!event.shouldCommit())
+
+	    return;
+
+	event.format = format;
+
+	event.length = length;
+
+	event.serializeDuration = durationNanos;
+
+	event.commit();
+
+    }
+
+    /**
+     *
+     * The cache lookups are too frequent and short to be recorded as events,
+     * their counts are kept by DocumentStats and HistogramMetricsListener.
+     */
+
+    @Override
+    public void cacheAccessed(String cache, boolean hit) {
+
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ *
+ * JFR event of parsing a document.
+ *
+ * @version $Id$
+ */
+
+@Name("org.easyxml.Parse")
+@Label("XML Parse")
+@Category("EasyXML")
+@Description("Document parsed by EasySAXParser or DomParser")
+public class ParseEvent extends Event {
+
+    @Label("Parser")
+    public String parser;
+
+    @Label("Source Size")
+    @Description("Bytes, or chars when read from a Reader, of the source")
+    @DataAmount
+    public long sourceSize;
+
+    @Label("Node Count")
+    @Description("Elements and attributes created")
+    public int nodeCount;
+
+    @Label("Parse Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long parseDuration;
+
+}
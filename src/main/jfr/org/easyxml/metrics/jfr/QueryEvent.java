@@ -0,0 +1,55 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ *
+ * JFR event of querying or setting values by a path.
+ *
+ * @version $Id$
+ */
+
+@Name("org.easyxml.Query")
+@Label("XML Path Query")
+@Category("EasyXML")
+@Description("Path evaluated by getElementsOf, getValuesOf, setValuesOf or mapOf")
+public class QueryEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Result Count")
+    public int resultCount;
+
+    @Label("Indexed")
+    @Description("Path found in the attributes or the path index of the children directly")
+    public boolean indexed;
+
+    @Label("Query Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queryDuration;
+
+}
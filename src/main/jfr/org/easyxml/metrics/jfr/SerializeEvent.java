@@ -0,0 +1,49 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ *
+ * JFR event of serializing an element or document.
+ *
+ * @version $Id$
+ */
+
+@Name("org.easyxml.Serialize")
+@Label("XML Serialize")
+@Category("EasyXML")
+@Description("Element or document output as XML or JSON")
+public class SerializeEvent extends Event {
+
+    @Label("Format")
+    public String format;
+
+    @Label("Length")
+    @Description("Chars written, or bytes of the format xml-bytes")
+    public long length;
+
+    @Label("Serialize Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long serializeDuration;
+
+}
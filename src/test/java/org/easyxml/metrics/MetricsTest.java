@@ -0,0 +1,330 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.easyxml.parser.DomParser;
+import org.easyxml.parser.EasySAXParser;
+import org.easyxml.xml.Document;
+import org.easyxml.xml.PathExpression;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * Test of the measurements reported to the MetricsListener.
+ *
+ * @version $Id$
+ */
+
+public class MetricsTest {
+
+    @Test
+    public void testMetrics_histogramListener() {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	HistogramMetricsListener listener = new HistogramMetricsListener();
+
+	Metrics.setListener(listener);
+
+	try {
+
+	    Assert.assertTrue(Metrics.isEnabled());
+
+	    Document doc = EasySAXParser.parse(url);
+
+	    DomParser.parseText(doc.toString());
+
+	    Histogram nodes = listener
+		    .getHistogram("parse.EasySAXParser.nodes");
+
+	    Assert.assertEquals(nodes.getCount(), 1);
+
+	    Assert.assertEquals(nodes.getMax(), Metrics.nodesOf(doc));
+
+	    // Both parsers count the nodes while building the same tree
+
+	    Assert.assertEquals(listener.getHistogram("parse.DomParser.nodes")
+		    .getMax(), nodes.getMax());
+
+	    Assert.assertTrue(listener.getHistogram("parse.EasySAXParser.bytes")
+		    .getMax() > 0);
+
+	    // Chars of the text read by the DomParser
+
+	    Assert.assertEquals(listener.getHistogram("parse.DomParser.bytes")
+		    .getMax(), doc.toString().length());
+
+	    Assert.assertEquals(doc.getValuesOf("book>title").length, 12);
+
+	    Assert.assertNull(doc.getValuesOf("book>isbn"));
+
+	    Assert.assertEquals(listener.getCount("query.getValuesOf.indexed"), 1);
+
+	    Assert.assertEquals(listener.getCount("query.getValuesOf.resolved"), 1);
+
+	    doc.setValuesOf("book>isbn", "1", "2");
+
+	    Assert.assertEquals(listener.getCount("query.setValuesOf.resolved"), 1);
+
+	    Assert.assertEquals(doc.mapOf("book").size(), 12);
+
+	    Assert.assertEquals(listener.getHistogram("query.mapOf.results")
+		    .getMax(), 12);
+
+	    String json = doc.toJSON();
+
+	    Assert.assertEquals(listener.getHistogram("serialize.json.length")
+		    .getMax(), json.length());
+
+	    Assert.assertTrue(listener.getHistogram("serialize.xml.nanos")
+		    .getCount() > 0);
+
+	    System.out.println(listener);
+
+	} finally {
+
+	    Metrics.setListener(null);
+
+	}
+
+	Assert.assertFalse(Metrics.isEnabled());
+
+	Assert.assertSame(Metrics.getListener(), NoopMetricsListener.Instance);
+
+    }
+
+    @Test
+    public void testHistogram_percentiles() {
+
+	Histogram histogram = new Histogram();
+
+	Assert.assertEquals(histogram.getPercentile(50), 0);
+
+	for (int i = 1; i <= 1000; i++) {
+
+	    histogram.record(i);
+
+	}
+
+	Assert.assertEquals(histogram.getCount(), 1000);
+
+	Assert.assertEquals(histogram.getMin(), 1);
+
+	Assert.assertEquals(histogram.getMax(), 1000);
+
+	Assert.assertEquals(histogram.getMean(), 500.5, 0.001);
+
+	// Accurate within a factor of 2
+
+	long p50 = histogram.getPercentile(50);
+
+	Assert.assertTrue(p50 >= 500 && p50 < 1000, "p50=" + p50);
+
+	Assert.assertEquals(histogram.getPercentile(100), 1000);
+
+	histogram.reset();
+
+	Assert.assertEquals(histogram.getCount(), 0);
+
+    }
+
+    @Test
+    public void testDocumentStats_mbean() throws Exception {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	DocumentStats stats = DocumentStats.register();
+
+	try {
+
+	    Assert.assertSame(DocumentStats.register(), stats);
+
+	    Document doc = EasySAXParser.parse(url);
+
+	    doc.getValuesOf("book>title");
+
+	    String json = doc.toJSON();
+
+	    byte[] bytes = doc.getBytes(Document.DefaultCharset, false, false);
+
+	    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+	    ObjectName name = new ObjectName(DocumentStats.ObjectNameValue);
+
+	    Assert.assertEquals(server.getAttribute(name, "DocumentsParsed"), 1L);
+
+	    Assert.assertEquals(server.getAttribute(name, "NodesBuilt"),
+		    (long) Metrics.nodesOf(doc));
+
+	    Assert.assertTrue((Long) server.getAttribute(name, "Queries") > 0);
+
+	    Assert.assertTrue((Double) server.getAttribute(name,
+		    "IndexedQueryRate") > 0);
+
+	    Assert.assertTrue((Double) server.getAttribute(name,
+		    "SerializerThroughput") > 0);
+
+	    // Chars and bytes are counted apart
+
+	    Assert.assertEquals(server.getAttribute(name, "CharsSerialized"),
+		    (long) json.length());
+
+	    Assert.assertEquals(server.getAttribute(name, "BytesSerialized"),
+		    (long) bytes.length);
+
+	    Assert.assertEquals(stats.getSerializations(), 2);
+
+	    server.invoke(name, "reset", null, null);
+
+	    Assert.assertEquals(stats.getDocumentsParsed(), 0);
+
+	    // A result of another version is a miss of the query cache
+
+	    doc.setQueryCacheSize(8);
+
+	    doc.getValuesOf("book>title");
+
+	    doc.getValuesOf("book>title");
+
+	    doc.setValuesOf("book>title", "Changed");
+
+	    doc.getValuesOf("book>title");
+
+	    Assert.assertEquals(server.getAttribute(name, "QueryCacheHitRate"),
+		    1 / 3.0);
+
+	    PathExpression.compile("book>*");
+
+	    PathExpression.compile("book>*");
+
+	    Assert.assertTrue((Double) server.getAttribute(name,
+		    "PlanCacheHitRate") > 0);
+
+	    stats.reset();
+
+	    Assert.assertEquals(stats.getQueryCacheHitRate(), 0.0);
+
+	} finally {
+
+	    DocumentStats.unregister();
+
+	}
+
+	Assert.assertFalse(ManagementFactory.getPlatformMBeanServer()
+		.isRegistered(new ObjectName(DocumentStats.ObjectNameValue)));
+
+	Assert.assertFalse(Metrics.isEnabled());
+
+	// The listener set after register() is kept by unregister()
+
+	DocumentStats.register();
+
+	HistogramMetricsListener replacement = new HistogramMetricsListener();
+
+	Metrics.setListener(replacement);
+
+	DocumentStats.unregister();
+
+	Assert.assertSame(Metrics.getListener(), replacement);
+
+	Metrics.setListener(null);
+
+    }
+
+    @Test
+    public void testSlowOperationLog() {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	final List<SlowOperation> records = new ArrayList<SlowOperation>();
+
+	SlowOperationLog log = new SlowOperationLog(1, TimeUnit.HOURS)
+		.setMaxResults(10).setMaxLength(100)
+		.setSink(new SlowOperationSink() {
+
+		    @Override
+		    public void log(SlowOperation operation) {
+
+			records.add(operation);
+
+		    }
+
+		});
+
+	Metrics.setListener(log);
+
+	try {
+
+	    doc.getValuesOf("book<id");
+
+	    doc.setValuesOf("book>isbn", new String[20]);
+
+	    doc.toJSON();
+
+	    Assert.assertEquals(records.size(), 3);
+
+	    SlowOperation first = records.get(0);
+
+	    Assert.assertEquals(first.getOperation(), "getValuesOf");
+
+	    Assert.assertEquals(first.getPath(), "book<id");
+
+	    Assert.assertEquals(first.getCount(), 12);
+
+	    SlowOperation set = records.get(1);
+
+	    Assert.assertEquals(set.getOperation(), "setValuesOf");
+
+	    Assert.assertEquals(set.getCount(), 20);
+
+	    Assert.assertEquals(records.get(2).getOperation(), "toJSON");
+
+	    System.out.println(set);
+
+	    // Nothing is logged with sampleRate of 0
+
+	    log.setSampleRate(0);
+
+	    doc.getValuesOf("book<id");
+
+	    Assert.assertEquals(records.size(), 3);
+
+	    Assert.assertEquals(log.getSkipped(), 1);
+
+	} finally {
+
+	    Metrics.setListener(null);
+
+	}
+
+    }
+
+}
@@ -17,15 +17,21 @@
 package org.easyxml.parser;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
+import org.easyxml.xml.AggregateResult;
 import org.easyxml.xml.Document;
+import org.easyxml.xml.HashJoin;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.xml.sax.InputSource;
 
 /**
  * 
@@ -166,4 +172,184 @@ public class ParserTest {
 
     }
 
+    @Test
+    public void testStatisticsCollector() throws IOException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	StatisticsCollector scanned = StatisticsCollector
+		.collect(new InputSource(url.openStream()));
+
+	StatisticsCollector parsing = new StatisticsCollector();
+
+	Document doc = StatisticsCollector.parse(
+		new InputSource(url.openStream()), parsing);
+
+	Assert.assertEquals(doc.toString(), EasySAXParser.parse(url)
+		.toString());
+
+	StatisticsCollector walked = StatisticsCollector.collect(doc);
+
+	System.out.println(walked);
+
+	for (StatisticsCollector collector : new StatisticsCollector[] {
+		scanned, parsing, walked }) {
+
+	    Assert.assertEquals(collector.getElementCounts().get("catalog>book"),
+		    Long.valueOf(12));
+
+	    // The price of bk101 is commented out
+
+	    Assert.assertEquals(
+		    collector.getElementCounts().get("catalog>book>price"),
+		    Long.valueOf(11));
+
+	    Assert.assertEquals(
+		    collector.getAttributeFillRate("catalog>book<id"), 1.0);
+
+	    Assert.assertEquals(collector.getMaxDepth(), 2);
+
+	    Assert.assertEquals(collector.getFanOutHistogram().get(12),
+		    Long.valueOf(1));
+
+	    Assert.assertEquals(collector.getElementCounts(),
+		    walked.getElementCounts());
+
+	    Assert.assertEquals(collector.getDepthHistogram(),
+		    walked.getDepthHistogram());
+
+	    Assert.assertEquals(collector.getFanOutHistogram(),
+		    walked.getFanOutHistogram());
+
+	    Assert.assertEquals(collector.getTextSizes().getCount(), walked
+		    .getTextSizes().getCount());
+
+	}
+
+    }
+
+    @Test
+    public void testRecordReader_aggregate() throws IOException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	String[] queries = {
+		"group-by book>genre sum book>price avg book>price count book",
+		"count-distinct book<id min book>price max book>publish_date",
+		"group-by book<id count book>description count-distinct book>description",
+		"count catalog" };
+
+	for (String query : queries) {
+
+	    AggregateResult streamed = RecordReader.aggregate(new InputSource(
+		    url.openStream()), query);
+
+	    Assert.assertEquals(streamed.toString(), doc.aggregate(query)
+		    .toString());
+
+	}
+
+	AggregateResult result = RecordReader.aggregate(
+		new InputSource(url.openStream()), "group-by book>genre max book>price");
+
+	Assert.assertEquals(result.get("Computer", 0), 49.95);
+
+	Assert.assertEquals(result.getRecordCount(), 12);
+
+    }
+
+    @Test
+    public void testRecordReader_aggregateOwnAttribute() {
+
+	// "book<price" is the attribute of the book, never its child <price>
+
+	String xml = "<shop><book price=\"10\"><price>1</price></book>"
+		+ "<book><price>2</price></book></shop>";
+
+	String query = "sum book<price count book<price";
+
+	AggregateResult result = EasySAXParser.parseText(xml).aggregate(query);
+
+	Assert.assertEquals(result.get(0), 10.0);
+
+	Assert.assertEquals(result.get(1), 1.0);
+
+	Assert.assertEquals(RecordReader.aggregate(
+		new InputSource(new StringReader(xml)), query).toString(),
+		result.toString());
+
+    }
+
+    @Test
+    public void testRecordReader_aggregateWithDefaultContainer() {
+
+	String xml = "<shop><books><book><price>1</price></book>"
+		+ "<book><price>2</price></book></books>"
+		+ "<book><price>5</price></book></shop>";
+
+	Document doc = EasySAXParser.parseText(xml);
+
+	Assert.assertTrue(doc.setDefaultContainerByPath("books"));
+
+	// The record paths are relative to the root, not to the container
+
+	for (String query : new String[] { "count book sum book>price",
+		"count books>book sum books>book>price" }) {
+
+	    AggregateResult result = doc.aggregate(query);
+
+	    Assert.assertEquals(RecordReader.aggregate(
+		    new InputSource(new StringReader(xml)), query).toString(),
+		    result.toString());
+
+	    Assert.assertEquals(result.get(1), query.startsWith("count book ")
+		    ? 5.0 : 3.0);
+
+	}
+
+    }
+
+    @Test
+    public void testRecordReader_join() throws IOException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document genres = EasySAXParser
+		.parseText("<genres><genre name=\"Computer\" shelf=\"A\"/>"
+			+ "<genre name=\"Fantasy\" shelf=\"B\"/></genres>");
+
+	HashJoin join = new HashJoin(genres, "genre<name");
+
+	Map<String, String> pathMap = new LinkedHashMap<String, String>();
+
+	pathMap.put("id", "id");
+
+	pathMap.put("title", "title");
+
+	pathMap.put("price", "price");
+
+	List<Map<String, String>> streamed = RecordReader.join(new InputSource(
+		url.openStream()), "book>genre", pathMap, join);
+
+	Assert.assertEquals(streamed.size(), 8);
+
+	Assert.assertEquals(streamed,
+		join.join(EasySAXParser.parse(url), "book>genre", pathMap));
+
+	Assert.assertEquals(streamed.get(0).get("shelf"), "A");
+
+	// The price of bk101 is commented out
+
+	Assert.assertFalse(streamed.get(0).containsKey("price"));
+
+	Assert.assertNull(RecordReader.join(new InputSource(url.openStream()),
+		"book>genre", null, join));
+
+    }
+
 }
@@ -0,0 +1,142 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.util;
+
+import java.util.Random;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.easyxml.xml.Attribute;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * Test of the Escaper against StringEscapeUtils.
+ *
+ * @version $Id$
+ */
+
+public class EscaperTest {
+
+    @Test
+    public void testEscaper_sameAsStringEscapeUtils() {
+
+	for (int ch = 0; ch <= 0xFFFF; ch++) {
+
+	    String text = "a" + (char) ch + "b";
+
+	    String escaped = StringEscapeUtils.escapeXml10(text);
+
+	    Assert.assertEquals(Escaper.XML_TEXT.escape(text), escaped);
+
+	    Assert.assertEquals(Escaper.unescapeXml(escaped),
+		    StringEscapeUtils.unescapeXml(escaped));
+
+	}
+
+	// Random text with surrogates, markups and broken entities
+
+	Random random = new Random(2015);
+
+	String candidates = "&<>\"';#x0123456789abcdef";
+
+	for (int n = 0; n < 10000; n++) {
+
+	    StringBuilder sb = new StringBuilder();
+
+	    for (int i = random.nextInt(16); i > 0; i--) {
+
+		int kind = random.nextInt(4);
+
+		sb.append(kind == 0 ? (char) (0xD800 + random.nextInt(0x800))
+			: kind == 1 ? candidates.charAt(random
+				.nextInt(candidates.length())) : (char) random
+				.nextInt(0x100));
+
+	    }
+
+	    String text = sb.toString();
+
+	    Assert.assertEquals(Escaper.XML_TEXT.escape(text),
+		    StringEscapeUtils.escapeXml10(text));
+
+	    Assert.assertEquals(Escaper.unescapeXml(text),
+		    StringEscapeUtils.unescapeXml(text));
+
+	}
+
+    }
+
+    @Test
+    public void testEscaper_noAllocationWhenClean() {
+
+	String text = "Nothing to be escaped, even unicode 中文 😀";
+
+	Assert.assertSame(Escaper.XML_TEXT.escape(text), text);
+
+	Assert.assertSame(Escaper.XML_ATTRIBUTE.escape(text), text);
+
+	Assert.assertSame(Escaper.JSON.escape(text), text);
+
+	Assert.assertSame(Escaper.unescapeXml(text), text);
+
+    }
+
+    @Test
+    public void testEscaper_attributeAndJson() {
+
+	Assert.assertEquals(Escaper.XML_ATTRIBUTE.escape("a\tb\nc\"d<"),
+		"a&#9;b&#10;c&quot;d&lt;");
+
+	Assert.assertEquals(Escaper.unescapeXml("a&#9;b&#10;c&quot;d&lt;"),
+		"a\tb\nc\"d<");
+
+	// Code points out of range are kept as they are
+
+	for (String text : new String[] { "x&#x80000000;y", "x&#xFFFFFFFF;y",
+		"x&#x110000;y", "x&#99999999;y" }) {
+
+	    Assert.assertEquals(Escaper.unescapeXml(text), text);
+
+	}
+
+	Assert.assertEquals(Escaper.unescapeXml("x&#x80000000;y"),
+		StringEscapeUtils.unescapeXml("x&#x80000000;y"));
+
+	Assert.assertEquals(Escaper.unescapeXml("&#x10FFFF;"),
+		new String(Character.toChars(0x10FFFF)));
+
+	Assert.assertEquals(Escaper.JSON.escape("\"a\\b\"\n\u0001"),
+		"\\\"a\\\\b\\\"\\n\\u0001");
+
+	StringBuilder sb = new StringBuilder("<");
+
+	Escaper.JSON.escape("ok", sb);
+
+	Assert.assertEquals(sb.toString(), "<ok");
+
+	// The attribute value shall be output escaped
+
+	Attribute attribute = new Attribute(null, "name", "Tom & \"Jerry\"");
+
+	Assert.assertEquals(attribute.getValue(), "Tom & \"Jerry\"");
+
+	Assert.assertEquals(attribute.toString(),
+		"name=\"Tom &amp; &quot;Jerry&quot;\"");
+
+    }
+
+}
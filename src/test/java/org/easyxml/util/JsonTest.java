@@ -15,13 +15,18 @@
  */
 package org.easyxml.util;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URL;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.easyxml.parser.EasySAXParser;
 import org.easyxml.xml.Document;
+import org.easyxml.xml.Element;
+import org.testng.Assert;
 import org.testng.annotations.Test;
+import org.xml.sax.SAXException;
 
 /**
  * 
@@ -238,4 +243,60 @@ public class JsonTest {
 
     }
 
+    @Test
+    public void testElement_writeJSON() throws SAXException, IOException {
+
+	Element element = new Element("root");
+
+	element.addAttribute("id", "a\"b\\c");
+
+	new Element("text", element, "line1\nline2\t<&>");
+
+	new Element("item", element).addAttribute("name", "first");
+
+	new Element("item", element).addAttribute("name", "second");
+
+	new Element("empty", element);
+
+	String json = element.toJSON();
+
+	Assert.assertEquals(json, "\"root\":{\n"
+		+ "    \"id\": \"a\\\"b\\\\c\",\n"
+		+ "    \"text\":\"line1\\nline2\\t<&>\",\n"
+		+ "    \"item\":[\n"
+		+ "        {\n            \"name\": \"first\"\n        },\n"
+		+ "        {\n            \"name\": \"second\"\n        }\n"
+		+ "    ],\n"
+		+ "    \"empty\":{}\n"
+		+ "}");
+
+	ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+	element.writeJSON(stream, Document.DefaultCharset);
+
+	Assert.assertEquals(new String(stream.toByteArray(),
+		Document.DefaultCharset), json);
+
+    }
+
+    @Test
+    public void testElement_writeJSON_nestedSameName() {
+
+	// Names of the nested elements shall be kept within the array
+
+	Element element = new Element("list");
+
+	new Element("node", new Element("node", element));
+
+	new Element("node", new Element("node", element));
+
+	Assert.assertEquals(element.toJSON(), "\"list\":{\n"
+		+ "    \"node\":[\n"
+		+ "        {\n            \"node\":{}\n        },\n"
+		+ "        {\n            \"node\":{}\n        }\n"
+		+ "    ]\n"
+		+ "}");
+
+    }
+
 }
@@ -15,13 +15,23 @@
  */
 package org.easyxml.xml;
 
+import java.io.IOException;
 import java.net.URL;
+import java.security.InvalidParameterException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.lang3.StringUtils;
+import org.easyxml.metrics.Metrics;
 import org.easyxml.parser.EasySAXParser;
+import org.easyxml.util.Utility;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.xml.sax.SAXException;
 
@@ -217,7 +227,50 @@ public class DocumentTest {
 	 */
 
     }
-    
+
+    @Test
+    public void testDocument_mapOf_multipleValues() {
+
+	Document doc = EasySAXParser
+		.parseText("<library><book id=\"b1\"><author>Ann</author>"
+			+ "<author>Bob</author><title>XML</title></book></library>");
+
+	// Multiple values are joined as "[v1, v2]", no longer as "[v1, ]v2"
+
+	Map<String, String> record = doc.mapOf("book").get(0);
+
+	Assert.assertEquals(record.get("author"), "[Ann, Bob]");
+
+	Assert.assertEquals(record.get("title"), "XML");
+
+	Map<String, String> pathMap = new LinkedHashMap<String, String>();
+
+	pathMap.put("author", "AUTHOR");
+
+	pathMap.put("<id", "ID");
+
+	record = doc.mapOf("book", pathMap).get(0);
+
+	Assert.assertEquals(record.get("AUTHOR"), "[Ann, Bob]");
+
+	Assert.assertEquals(record.get("ID"), "b1");
+
+	// extractValues keeps the values apart without joining them
+
+	pathMap.clear();
+
+	pathMap.put("book>author", "AUTHOR");
+
+	pathMap.put("book>title", "TITLE");
+
+	Map<String, String[]> values = doc.extractValues(pathMap);
+
+	Assert.assertEquals(values.get("AUTHOR"), new String[] { "Ann", "Bob" });
+
+	Assert.assertEquals(values.get("TITLE"), new String[] { "XML" });
+
+    }
+
     /**
      * This test demonstrates how convenient it could be to create a new XML document based on some existing template.
      */
@@ -280,4 +333,1179 @@ public class DocumentTest {
     }
 
 
-}
\ No newline at end of file
+    @Test
+    public void testDocument_toStringInParallel() throws SAXException,
+	    IOException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	ForkJoinPool pool = new ForkJoinPool(4);
+
+	try {
+
+	    for (Boolean keepSpace : new Boolean[] { true, false }) {
+
+		Assert.assertEquals(doc.toString(Document.DefaultCharset, true,
+			keepSpace, pool), doc.toString(Document.DefaultCharset,
+			true, keepSpace));
+
+	    }
+
+	    // Split the 12 books into chunks of various sizes
+
+	    for (int chunkSize = 1; chunkSize <= 13; chunkSize += 3) {
+
+		StringBuilder sb = new StringBuilder();
+
+		new ParallelXmlWriter(false, false, doc, pool, chunkSize)
+			.write(doc, 0, sb, true);
+
+		Assert.assertEquals(sb.toString(), doc.toString(0, false, false));
+
+	    }
+
+	    if (soapDoc == null) {
+
+		testDocument_composeSOAP();
+
+	    }
+
+	    // Children of the DefaultContainer would be composed in parallel
+
+	    StringBuilder sb = new StringBuilder();
+
+	    new ParallelXmlWriter(true, true, soapDoc.getDefaultContainer(),
+		    pool, 1).write(soapDoc, 0, sb, true);
+
+	    Assert.assertEquals(sb.toString(), soapDoc.toString(0, true, true));
+
+	} finally {
+
+	    pool.shutdown();
+
+	}
+
+    }
+
+    @Test
+    public void testDocument_getBytes() {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	doc.setValuesOf("book>title", "Ünïcødé & 中文");
+
+	for (Charset charset : new Charset[] { Document.DefaultCharset,
+		Charset.forName("UTF-16"), Charset.forName("US-ASCII") }) {
+
+	    for (Boolean keepSpace : new Boolean[] { true, false }) {
+
+		String xml = doc.toString(charset, true, keepSpace);
+
+		Assert.assertEquals(doc.getBytes(charset, true, keepSpace),
+			xml.getBytes(charset));
+
+	    }
+
+	}
+
+	// Buffers shall be reused by the following calls
+
+	Assert.assertEquals(doc.toString(), doc.toString());
+
+	Assert.assertEquals(doc.toJSON(), doc.toJSON());
+
+    }
+
+    @Test
+    public void testExportPipeline() throws IOException, SAXException {
+
+	if (soapDoc == null) {
+
+	    testDocument_composeSOAP();
+
+	}
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	for (Document document : new Document[] { doc, soapDoc }) {
+
+	    StringBuilder xml = new StringBuilder();
+
+	    StringBuilder compact = new StringBuilder();
+
+	    StringBuilder json = new StringBuilder();
+
+	    new ExportPipeline()
+		    .add(new XmlExportSink(xml, Document.DefaultCharset, true))
+		    .add(new XmlExportSink(compact, null, false))
+		    .add(new JsonExportSink(json)).run(document);
+
+	    Assert.assertEquals(xml.toString(), document.toString());
+
+	    Assert.assertEquals(compact.toString(),
+		    document.toString(0, false, false));
+
+	    Assert.assertEquals(json.toString(), document.toJSON());
+
+	}
+
+	RecordExportSink books = new RecordExportSink(doc, "book", null);
+
+	new ExportPipeline().add(books).run(doc);
+
+	Assert.assertEquals(books.getRecords(), doc.mapOf("book"));
+
+	RecordExportSink users = new RecordExportSink(soapDoc,
+		"Credential>User", null);
+
+	new ExportPipeline().add(users).run(soapDoc);
+
+	Assert.assertEquals(users.getRecords(),
+		soapDoc.mapOf("Credential>User"));
+
+	Assert.assertEquals(users.getRecords().size(), 3);
+
+    }
+
+    @Test
+    public void testDocument_estimateFootprint() {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	Footprint footprint = doc.estimateFootprint();
+
+	System.out.println(footprint);
+
+	Assert.assertEquals(footprint.getElementCount(), Metrics.nodesOf(doc)
+		- footprint.getAttributeCount());
+
+	Assert.assertEquals(footprint.getAttributeCount(), 12);
+
+	// "book>author" ... "book>price" kept by <catalog>
+
+	Assert.assertEquals(footprint.getPathKeyCount(), 6);
+
+	Assert.assertEquals(footprint.getTotalBytes(),
+		footprint.getElementBytes() + footprint.getNameBytes()
+			+ footprint.getValueBytes()
+			+ footprint.getAttributeBytes()
+			+ footprint.getChildMapBytes()
+			+ footprint.getChildListBytes()
+			+ footprint.getPathOverheadBytes()
+			+ footprint.getIndexBytes()
+			+ footprint.getQueryCacheBytes());
+
+	Assert.assertEquals(footprint.getIndexBytes(), 0);
+
+	Assert.assertEquals(footprint.getQueryCacheBytes(), 0);
+
+	Assert.assertTrue(footprint.getValueBytes() > 0);
+
+	Assert.assertTrue(footprint.getPathOverheadBytes() > 0);
+
+	doc.setValuesOf("book>isbn", "1", "2", "3");
+
+	Footprint larger = doc.estimateFootprint();
+
+	Assert.assertEquals(larger.getElementCount(),
+		footprint.getElementCount() + 3);
+
+	Assert.assertTrue(larger.getTotalBytes() > footprint.getTotalBytes());
+
+	// The NameIndex and the results cached are counted apart from the tree
+
+	doc.indexAttribute("id").getValuesOf("**>price");
+
+	Footprint indexed = doc.estimateFootprint();
+
+	Assert.assertTrue(indexed.getIndexBytes() > 0);
+
+	Assert.assertEquals(indexed.getTotalBytes(), larger.getTotalBytes()
+		+ indexed.getIndexBytes());
+
+	doc.setQueryCacheSize(4);
+
+	doc.getValuesOf("book>title");
+
+	doc.mapOf("book");
+
+	Footprint cached = doc.estimateFootprint();
+
+	Assert.assertEquals(cached.getCachedResultCount(), 2);
+
+	Assert.assertTrue(cached.getQueryCacheBytes() > 0);
+
+	Assert.assertEquals(cached.getTotalBytes(), indexed.getTotalBytes()
+		+ cached.getQueryCacheBytes());
+
+	// Both are released once the tree is changed with a new <isbn> and the
+	// cache is disabled
+
+	doc.setValuesOf("book>isbn", "4", "5", "6", "7");
+
+	doc.setQueryCacheSize(0);
+
+	Footprint released = doc.estimateFootprint();
+
+	Assert.assertEquals(released.getIndexBytes(), 0);
+
+	Assert.assertEquals(released.getQueryCacheBytes(), 0);
+
+    }
+
+    @Test
+    public void testDocument_wildcardPaths() throws SAXException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	Assert.assertEquals(doc.getValuesOf("**>price"),
+		doc.getValuesOf("book>price"));
+
+	Assert.assertEquals(doc.getValuesOf("*>title"),
+		doc.getValuesOf("book>title"));
+
+	Assert.assertEquals(doc.getValuesOf("**>book<id"),
+		doc.getValuesOf("book<id"));
+
+	Assert.assertEquals(doc.getValuesOf("**>*>genre"),
+		doc.getValuesOf("book>genre"));
+
+	Assert.assertSame(doc.getElementsOf("**").get(0), doc);
+
+	Assert.assertEquals(doc.mapOf("**>book").size(), 12);
+
+	// The index is discarded once the tree is changed
+
+	Assert.assertNull(doc.getElementsOf("**>isbn"));
+
+	doc.setValuesOf("book>isbn", "1", "2");
+
+	Assert.assertEquals(doc.getValuesOf("**>isbn"), new String[] { "1",
+		"2" });
+
+	// Elements matched by wildcards are never created
+
+	Assert.assertFalse(doc.setValuesOf("**>isbn", "1", "2", "3"));
+
+	Assert.assertTrue(doc.setValuesOf("**>isbn", "3", "4"));
+
+	Assert.assertEquals(doc.getValuesOf("book>isbn"), new String[] { "3",
+		"4" });
+
+	// Nested elements of the same name are returned once in document order
+
+	Element root = new Element("root");
+
+	Element outer = new Element("a", root);
+
+	Element inner = new Element("a", new Element("b", outer, "1"));
+
+	new Element("b", inner, "2");
+
+	Assert.assertEquals(root.getValuesOf("**>b"), new String[] { "1", "2" });
+
+	Assert.assertEquals(root.getValuesOf("**>a>b"),
+		new String[] { "1", "2" });
+
+	Assert.assertEquals(root.getElementsOf("**>**>a").size(), 2);
+
+	Assert.assertEquals(outer.getValuesOf("**>a>b"), new String[] { "2" });
+
+	// The children of nested elements are sorted, the others are found
+	// in document order without sorting
+
+	new Element("b", outer, "3");
+
+	Assert.assertEquals(root.getValuesOf("**>a>b"), new String[] { "1",
+		"2", "3" });
+
+	Assert.assertEquals(PathExpression.compile("**>a>b").first(root)
+		.getValue(), "1");
+
+	Assert.assertEquals(PathExpression.compile("**>b").first(root)
+		.getValue(), "1");
+
+	Element wrapper = new Element("c", outer);
+
+	new Element("b", new Element("a", wrapper), "4");
+
+	Assert.assertEquals(root.getValuesOf("**>a>b"), new String[] { "1",
+		"2", "3", "4" });
+
+	Element other = new Element("root");
+
+	Element later = new Element("a", other);
+
+	Element earlier = new Element("a", new Element("c", later));
+
+	new Element("b", earlier, "5");
+
+	new Element("b", later, "6");
+
+	Assert.assertEquals(other.getValuesOf("**>a>b"), new String[] { "5",
+		"6" });
+
+	Assert.assertEquals(PathExpression.compile("**>a>b").first(other)
+		.getValue(), "5");
+
+	// Without a Document, the predicates of attribute equality are
+	// evaluated while the tree is walked
+
+	inner.addAttribute("id", "x");
+
+	Assert.assertEquals(root.getValuesOf("**>a[@id='x']>b"),
+		new String[] { "2" });
+
+	Assert.assertEquals(root.getValuesOf("a>b>a[@id='x']>b"),
+		new String[] { "2" });
+
+	Assert.assertNull(root.getValuesOf("**>a[@id='y']>b"));
+
+    }
+
+    @Test
+    public void testDocument_nameIndexKeptByValueChanges() throws SAXException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	NameIndex index = doc.getNameIndex();
+
+	Element book = doc.getElementsOf("book").get(0);
+
+	// Values of the elements and of the attributes not indexed
+
+	book.getElementsOf("title").get(0).setValue("Changed");
+
+	book.getAttributes().get("id").setValue("bk000");
+
+	book.addAttribute("lang", "en");
+
+	Assert.assertSame(doc.getNameIndex(), index);
+
+	Assert.assertEquals(doc.getValuesOf("**>book[title='Changed']<id"),
+		new String[] { "bk000" });
+
+	// Values of an attribute indexed
+
+	doc.indexAttribute("id");
+
+	index = doc.getNameIndex();
+
+	book.getAttributes().get("id").setValue("bk001");
+
+	Assert.assertNotSame(doc.getNameIndex(), index);
+
+	Assert.assertEquals(doc.getValuesOf("book[@id='bk001']>title"),
+		new String[] { "Changed" });
+
+	// Elements added
+
+	index = doc.getNameIndex();
+
+	new Element("isbn", book, "1");
+
+	Assert.assertNotSame(doc.getNameIndex(), index);
+
+	Assert.assertEquals(doc.countOf("**>isbn"), 1);
+
+    }
+
+    @Test
+    public void testDocument_predicates() {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	Assert.assertEquals(doc.getValuesOf("book[@id='bk101']>title"),
+		new String[] { "XML Developer's Guide" });
+
+	Assert.assertNull(doc.getValuesOf("catalog>book[genre='Fantasy']<id"));
+
+	Assert.assertEquals(doc.getValuesOf("book[genre='Fantasy']<id"),
+		new String[] { "bk102", "bk103", "bk104", "bk105" });
+
+	// Books without price are neither cheap nor expensive
+
+	Assert.assertEquals(doc.getValuesOf("book[price<10]").length
+		+ doc.getValuesOf("book[price>=10]").length, 11);
+
+	Assert.assertEquals(doc.getValuesOf("book[price]").length, 11);
+
+	Assert.assertNull(doc.getValuesOf("book[@isbn]"));
+
+	Assert.assertEquals(doc.getValuesOf("**>price[.>40]"),
+		doc.getValuesOf("book[price>40]>price"));
+
+	Assert.assertEquals(
+		doc.getValuesOf("book[publish_date>='2001-01-01'][publish_date<'2001-01-01']"),
+		null);
+
+	Assert.assertEquals(
+		doc.getValuesOf("book[genre=\"Fantasy\"][price<=5.95]>title").length,
+		4);
+
+	// The same elements are located by the attribute index
+
+	String[] titles = doc.getValuesOf("**>book[@id='bk103']>title");
+
+	doc.indexAttribute("id");
+
+	Assert.assertEquals(doc.getValuesOf("**>book[@id='bk103']>title"),
+		titles);
+
+	Assert.assertEquals(doc.getValuesOf("*[@id='bk103']>title"), titles);
+
+	Assert.assertNull(doc.getElementsOf("book[@id='bk103'][genre='Computer']"));
+
+	// The index is refreshed once the attribute is changed
+
+	doc.setValuesOf("book[@id='bk103']<id", "bk999");
+
+	Assert.assertNull(doc.getElementsOf("book[@id='bk103']"));
+
+	Assert.assertEquals(doc.getValuesOf("book[@id='bk999']>title"), titles);
+
+	Assert.assertFalse(doc.setValuesOf("book[@id='bk103']<id", "bk103"));
+
+	// Chained child steps with predicates keep the document order, that
+	// of toString() where the children are grouped by names, even under
+	// nested elements found by '**'
+
+	Document nested = EasySAXParser
+		.parseText("<r><s k=\"1\"><t><u>1</u></t><s k=\"1\"><t><u>2</u></t>"
+			+ "</s><t><u>3</u></t></s><s><t><u>4</u></t></s></r>");
+
+	Assert.assertEquals(nested.getValuesOf("**>s[@k='1']>t[u]>u"),
+		new String[] { "1", "3", "2" });
+
+	Assert.assertEquals(nested.getValuesOf("s>t>u[.!='1']"),
+		new String[] { "3", "4" });
+
+	Assert.assertEquals(nested.countOf("**>s>t>u"), 4);
+
+	for (String path : new String[] { "book[price", "book[price]]",
+		"book[price=Fantasy]", "**[price]", "book[]", "book[a]x" }) {
+
+	    try {
+
+		new PathExpression(path);
+
+		Assert.fail(path);
+
+	    } catch (InvalidParameterException ex) {
+
+	    }
+
+	}
+
+    }
+
+    @Test
+    public void testDocument_pathExtractor() throws SAXException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	List<Element> books = doc.getElementsOf("book");
+
+	Map<String, String> pathMap = new LinkedHashMap<String, String>(
+		Document.pathMapOf(books));
+
+	pathMap.put(Element.Value, "Value");
+
+	pathMap.put("**>title", "anyTitle");
+
+	pathMap.put("isbn", "isbn");
+
+	pathMap.put("title[.!='Midnight Rain']", "otherTitle");
+
+	PathExtractor extractor = new PathExtractor(pathMap);
+
+	Assert.assertEquals(extractor.size(), pathMap.size());
+
+	// Records are the same as those converted path by path
+
+	for (Element book : books) {
+
+	    Map<String, String> expected = new LinkedHashMap<String, String>();
+
+	    for (Map.Entry<String, String> entry : pathMap.entrySet()) {
+
+		String[] values = book.getValuesOf(entry.getKey());
+
+		if (values == null || values.length == 0)
+
+		    continue;
+
+		Document.putValue(expected, entry, values.length == 1 ? values[0]
+			: "[" + StringUtils.join(values, ", ") + "]");
+
+	    }
+
+	    Assert.assertEquals(extractor.recordOf(book), expected);
+
+	}
+
+	pathMap.clear();
+
+	pathMap.put("book<id", "ID");
+
+	pathMap.put("book>price", "PRICE");
+
+	pathMap.put("book[genre='Fantasy']>title", "FANTASY");
+
+	pathMap.put("book>isbn", "ISBN");
+
+	Map<String, String[]> values = doc.extractValues(pathMap);
+
+	for (Map.Entry<String, String> entry : pathMap.entrySet()) {
+
+	    Assert.assertEquals(values.get(entry.getValue()),
+		    doc.getValuesOf(entry.getKey()));
+
+	}
+
+	Assert.assertEquals(values.get("FANTASY").length, 4);
+
+	Assert.assertNull(values.get("ISBN"));
+
+	// Attributes of the elements without children are got the same
+
+	Element leaf = new Element("customer");
+
+	leaf.addAttribute("id", "c1");
+
+	extractor = new PathExtractor(Collections.singletonMap("<id", "ID"));
+
+	Assert.assertEquals(leaf.getValuesOf("<id"), new String[] { "c1" });
+
+	Assert.assertEquals(extractor.valuesOf(leaf, 0), leaf.getValuesOf("<id"));
+
+    }
+
+    @Test
+    public void testDocument_columnsOf() {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	// Rows of Text columns are the same as the records of mapOf()
+
+	ColumnarResult all = doc.columnsOf("book");
+
+	List<? extends Map<String, String>> records = doc.mapOf("book");
+
+	Assert.assertEquals(all.getRowCount(), 12);
+
+	Assert.assertEquals(all.getRows(), records);
+
+	Assert.assertNull(doc.columnsOf("magazine"));
+
+	Map<String, String> pathMap = new LinkedHashMap<String, String>();
+
+	pathMap.put("id", "ID");
+
+	pathMap.put("price", "PRICE");
+
+	pathMap.put("genre", "FANTASY");
+
+	pathMap.put("publish_date", "DATE");
+
+	Map<String, ColumnType> types = new HashMap<String, ColumnType>();
+
+	types.put("PRICE", ColumnType.Double);
+
+	types.put("FANTASY", ColumnType.Boolean);
+
+	types.put("DATE", ColumnType.Long);
+
+	ColumnarResult columns = doc.columnsOf("book", pathMap, types);
+
+	Assert.assertEquals(columns.getColumnNames().toString(),
+		"[ID, PRICE, FANTASY, DATE]");
+
+	Column price = columns.getColumn("PRICE");
+
+	Assert.assertTrue(price.isNull(0));
+
+	Assert.assertEquals(price.getNullCount(), 1);
+
+	Assert.assertEquals(price.getDoubles()[1], 5.95);
+
+	double sum = 0;
+
+	for (int i = 0; i < price.size(); i++) {
+
+	    sum += price.getDouble(i);
+
+	}
+
+	Assert.assertEquals(sum, 5.95 * 4 + 4.95 * 3 + 6.95 + 36.95 * 2
+		+ 49.95, 0.0001);
+
+	// Values unable to be parsed are null
+
+	Assert.assertEquals(columns.getColumn("FANTASY").getNullCount(), 12);
+
+	Assert.assertEquals(columns.getColumn("DATE").getNullCount(), 12);
+
+	Assert.assertEquals(columns.getRow(0).toString(), "{ID=bk101}");
+
+	Assert.assertEquals(columns.getRow(1).get("PRICE"), "5.95");
+
+	Assert.assertEquals(columns.getColumn("ID").getStrings()[11], "bk112");
+
+	try {
+
+	    price.getLong(1);
+
+	    Assert.fail();
+
+	} catch (IllegalStateException ex) {
+
+	}
+
+	// Values of extractValues() are wrapped without copying
+
+	Map<String, String> paths = new LinkedHashMap<String, String>();
+
+	paths.put("book<id", "ID");
+
+	paths.put("book>title", "TITLE");
+
+	Map<String, String[]> values = doc.extractValues(paths);
+
+	ColumnarResult extracted = ColumnarResult.of(values);
+
+	Assert.assertSame(extracted.getColumn("TITLE").getStrings(),
+		values.get("TITLE"));
+
+	Assert.assertEquals(extracted.getRows(), Utility.normalize(values));
+
+    }
+
+    @Test
+    public void testDocument_typedValues() throws SAXException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	String[] texts = doc.getValuesOf("book>price");
+
+	double[] prices = doc.getDoubleValuesOf("book>price");
+
+	Assert.assertEquals(prices.length, texts.length);
+
+	for (int i = 0; i < texts.length; i++) {
+
+	    Assert.assertEquals(prices[i], Double.parseDouble(texts[i]));
+
+	}
+
+	Assert.assertNull(doc.getDoubleValuesOf("book>isbn"));
+
+	// Parsed values are kept until the value is changed
+
+	Element price = doc.getElementsOf("book>price").get(0);
+
+	ParsedValue parsed = price.parsed;
+
+	Assert.assertNotNull(parsed);
+
+	Assert.assertEquals(doc.getDoubleValuesOf("book>price")[0], 5.95);
+
+	Assert.assertSame(price.parsed, parsed);
+
+	price.setValue("7");
+
+	Assert.assertNull(price.parsed);
+
+	Assert.assertEquals(doc.getDoubleValuesOf("book>price")[0], 7.0);
+
+	Assert.assertEquals(doc.getLongValuesOf("book[price=7]>price"),
+		new long[] { 7 });
+
+	Assert.assertEquals(doc.getDoubleValuesOf("**>price[.>40]"),
+		new double[] { 49.95 });
+
+	doc.setValuesOf("book<rank", "1", "2", "3");
+
+	Assert.assertEquals(doc.getLongValuesOf("book[@rank]<rank"),
+		new long[] { 1, 2, 3 });
+
+	Attribute rank = doc.getElementsOf("book").get(2).getAttributes()
+		.get("rank");
+
+	rank.setValue("30");
+
+	Assert.assertEquals(doc.getLongValuesOf("book[@rank]<rank")[2], 30);
+
+	Element book = new Element("book").addAttribute("sold", "TRUE");
+
+	book.setValuesOf("available", "false");
+
+	Assert.assertEquals(book.getBooleanValuesOf("sold"),
+		new boolean[] { true });
+
+	Assert.assertEquals(book.getBooleanValuesOf("available"),
+		new boolean[] { false });
+
+	// Values absent or unable to be parsed are rejected
+
+	for (String path : new String[] { "book>price", "book>title",
+		"book<rank" }) {
+
+	    try {
+
+		doc.getLongValuesOf(path);
+
+		Assert.fail(path);
+
+	    } catch (NumberFormatException ex) {
+
+	    }
+
+	}
+
+	try {
+
+	    book.getBooleanValuesOf(Element.Value);
+
+	    Assert.fail();
+
+	} catch (IllegalArgumentException ex) {
+
+	}
+
+    }
+
+    @Test
+    public void testDocument_countExistsFirst() throws SAXException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	Assert.assertEquals(doc.countOf("book"), 12);
+
+	Assert.assertEquals(doc.countOf("book>price"), 11);
+
+	Assert.assertEquals(doc.countOf("book<id"), 12);
+
+	Assert.assertEquals(doc.countOf("book>isbn"), 0);
+
+	Assert.assertEquals(doc.countOf("**>price"), 11);
+
+	Assert.assertEquals(doc.countOf("book[genre='Computer']"), 4);
+
+	Assert.assertEquals(doc.countOf("**>book[price>30]>title"), 3);
+
+	Assert.assertTrue(doc.exists("book[@id='bk112']"));
+
+	Assert.assertFalse(doc.exists("book[@id='bk113']"));
+
+	Assert.assertTrue(doc.exists("**>genre[.='Horror']"));
+
+	Assert.assertFalse(doc.exists("book<isbn"));
+
+	Assert.assertEquals(doc.firstValueOf("book>price"), "5.95");
+
+	Assert.assertEquals(doc.firstValueOf("book<id"), "bk101");
+
+	Assert.assertEquals(doc.firstValueOf("book[genre='Romance']>title"),
+		doc.getValuesOf("book[genre='Romance']>title")[0]);
+
+	Assert.assertEquals(doc.firstValueOf("**>book[price>30]<id"), "bk110");
+
+	Assert.assertNull(doc.firstValueOf("book>isbn"));
+
+	// "<id" denotes the attribute of the element itself, with or without
+	// children
+
+	for (Element book : new Element[] { doc.getElementsOf("book").get(0),
+		EasySAXParser.parseText("<book id=\"1\"/>") }) {
+
+	    String id = book.getValuesOf("<id")[0];
+
+	    Assert.assertEquals(book.countOf("<id"), 1);
+
+	    Assert.assertTrue(book.exists("<id"));
+
+	    Assert.assertEquals(book.firstValueOf("<id"), id);
+
+	    Assert.assertEquals(book.countOf("<isbn"), 0);
+
+	    Assert.assertEquals(book.getValuesOf("<isbn"), new String[] { null });
+
+	    Assert.assertFalse(book.exists("<isbn"));
+
+	}
+
+	// Attributes are counted only when they exist, while getValuesOf()
+	// returns null for the elements without them
+
+	doc.setValuesOf("book[genre='Horror']<rank", "1");
+
+	Assert.assertEquals(doc.countOf("book<rank"), 1);
+
+	Assert.assertEquals(doc.firstValueOf("book<rank"), "1");
+
+	String[] ranks = doc.getValuesOf("book<rank");
+
+	Assert.assertEquals(ranks.length, 12);
+
+	Assert.assertEquals(ranks.length - Collections.frequency(
+		Arrays.asList(ranks), null), doc.countOf("book<rank"));
+
+	Assert.assertEquals(doc.countOf("book"), ranks.length);
+
+	// Nested elements are found in document order
+
+	Element root = new Element("root");
+
+	Element outer = new Element("a", root);
+
+	new Element("b", outer, "2");
+
+	new Element("b", new Element("a", new Element("c", outer)), "1");
+
+	Assert.assertEquals(root.firstValueOf("**>a>b"),
+		root.getValuesOf("**>a>b")[0]);
+
+	Assert.assertEquals(root.countOf("**>a>b"), 2);
+
+	Assert.assertEquals(root.countOf("**"), 6);
+
+    }
+
+    @Test
+    public void testAggregate() {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	AggregateResult total = doc
+		.aggregate("count book sum book>price max book>price count-distinct book>genre");
+
+	Assert.assertEquals(total.getRecordCount(), 12);
+
+	Assert.assertEquals(total.get(0), 12.0);
+
+	Assert.assertEquals(total.get(1), 169.45, 0.0001);
+
+	Assert.assertEquals(total.get(2), 49.95);
+
+	Assert.assertEquals(total.get(3), 5.0);
+
+	AggregateResult byGenre = doc
+		.aggregate("group-by book>genre sum book>price avg book>price min book<id count book>price");
+
+	System.out.println(byGenre);
+
+	Assert.assertEquals(byGenre.getGroups().size(), 5);
+
+	Assert.assertEquals(byGenre.getRecordCount("Computer"), 4);
+
+	// The price of bk101 is commented out
+
+	Assert.assertEquals(byGenre.get("Computer", "count(book>price)"), 3.0);
+
+	Assert.assertEquals(byGenre.get("Computer", 1), 41.2833, 0.0001);
+
+	Assert.assertEquals(byGenre.get("Fantasy", 0), 23.8, 0.0001);
+
+	Assert.assertTrue(Double.isNaN(byGenre.get("Fantasy", 2)));
+
+	ColumnarResult columns = byGenre.toColumns();
+
+	Assert.assertEquals(columns.getColumnCount(), 5);
+
+	Assert.assertEquals(columns.getColumn("book>genre").getString(4),
+		"Science Fiction");
+
+	Assert.assertEquals(columns.getColumn("count(book>price)").getLong(0),
+		3);
+
+	Assert.assertTrue(columns.getColumn(3).isNull(0));
+
+	// The numbers are parsed once and kept by the elements
+
+	Element price = doc.getElementsOf("book>price").get(0);
+
+	ParsedValue parsed = price.parsedValue();
+
+	Assert.assertEquals(doc.aggregate("sum book>price").get(0), 169.45,
+		0.0001);
+
+	Assert.assertSame(price.parsedValue(), parsed);
+
+	Assert.assertNull(doc.aggregate("median book>price"));
+
+	Assert.assertNull(doc.aggregate("sum **>price"));
+
+    }
+
+    @Test
+    public void testHashJoin() {
+
+	Document customers = EasySAXParser
+		.parseText("<customers><customer id=\"c1\"><name>Ann</name></customer>"
+			+ "<customer id=\"c2\"><name>Bob</name></customer>"
+			+ "<customer id=\"c3\"><name>Cid</name></customer></customers>");
+
+	Document orders = EasySAXParser
+		.parseText("<orders><order id=\"o1\" customerId=\"c2\"><total>10</total></order>"
+			+ "<order id=\"o2\" customerId=\"c9\"><total>20</total></order>"
+			+ "<order id=\"o3\"><total>30</total></order>"
+			+ "<order id=\"o4\" customerId=\"c1\"><total>40</total></order>"
+			+ "<order id=\"o5\" customerId=\"c2\"><total>50</total></order></orders>");
+
+	HashJoin join = new HashJoin(customers, "customer<id");
+
+	Assert.assertEquals(join.size(), 3);
+
+	List<Map<String, String>> merged = join.join(orders,
+		"order<customerId");
+
+	// Orders without customer or of unknown customer are not matched
+
+	Assert.assertEquals(merged.size(), 3);
+
+	Map<String, String> first = merged.get(0);
+
+	Assert.assertEquals(first.get("id"), "o1");
+
+	Assert.assertEquals(first.get("customer_id"), "c2");
+
+	Assert.assertEquals(first.get("name"), "Bob");
+
+	Assert.assertEquals(first.get("total"), "10");
+
+	Assert.assertEquals(merged.get(1).get("name"), "Ann");
+
+	// The smaller side is built, the left side keeps its names
+
+	List<Map<String, String>> joined = HashJoin.join(orders,
+		"order<customerId", customers, "customer<id");
+
+	Assert.assertEquals(joined.size(), 3);
+
+	Assert.assertEquals(joined.get(0).get("id"), "o1");
+
+	Assert.assertEquals(joined.get(0).get("customer_id"), "c2");
+
+	Document document = join.joinDocument(orders, "order<customerId");
+
+	Assert.assertEquals(document.getValuesOf("order<id"), new String[] {
+		"o1", "o4", "o5" });
+
+	Assert.assertEquals(document.getValuesOf("order>customer>name"),
+		new String[] { "Bob", "Ann", "Bob" });
+
+	// Children are matched by their innerText
+
+	Document shipments = EasySAXParser
+		.parseText("<shipments><shipment><order>o4</order><carrier>UPS</carrier></shipment></shipments>");
+
+	List<Map<String, String>> shipped = new HashJoin(orders, "order<id")
+		.join(shipments, "shipment>order");
+
+	Assert.assertEquals(shipped.size(), 1);
+
+	Assert.assertEquals(shipped.get(0).get("carrier"), "UPS");
+
+	Assert.assertEquals(shipped.get(0).get("total"), "40");
+
+    }
+
+    @Test
+    public void testQueryCache() throws SAXException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	Assert.assertEquals(doc.getQueryCacheSize(), 0);
+
+	doc.setQueryCacheSize(16);
+
+	long version = doc.getVersion();
+
+	String[] titles = doc.getValuesOf("book>title");
+
+	String[] cached = doc.getValuesOf("book>title");
+
+	Assert.assertEquals(cached, titles);
+
+	Assert.assertNotSame(cached, titles);
+
+	Assert.assertNull(doc.getValuesOf("book>isbn"));
+
+	List<? extends Map<String, String>> records = doc.mapOf("book");
+
+	Assert.assertEquals(doc.mapOf("book"), records);
+
+	// The records are copied, modifiable as without the cache
+
+	Assert.assertNotSame(doc.mapOf("book"), records);
+
+	records.get(0).put("title", "changed");
+
+	Assert.assertNotEquals(doc.mapOf("book").get(0).get("title"), "changed");
+
+	Assert.assertEquals(doc.getVersion(), version);
+
+	// The results of an older version are discarded once looked up
+
+	Assert.assertEquals(doc.estimateFootprint().getCachedResultCount(), 3);
+
+	doc.getElementsOf("book>title").get(0).setValue("Renamed");
+
+	doc.getValuesOf("book>title");
+
+	doc.mapOf("book");
+
+	doc.getValuesOf("book>isbn");
+
+	Assert.assertEquals(doc.estimateFootprint().getCachedResultCount(), 3);
+
+	Assert.assertEquals(doc.getValuesOf("book>title")[0], "Renamed");
+
+	// Every mutator increases the version and the results are composed again
+
+	doc.setValuesOf("book>title", "First");
+
+	Assert.assertTrue(doc.getVersion() > version);
+
+	Assert.assertEquals(doc.getValuesOf("book>title")[0], "First");
+
+	Assert.assertNotSame(doc.mapOf("book"), records);
+
+	Element title = doc.getElementsOf("book>title").get(1);
+
+	version = doc.getVersion();
+
+	title.appendValue("Second");
+
+	Assert.assertTrue(doc.getVersion() > version);
+
+	Assert.assertTrue(doc.getValuesOf("book>title")[1].endsWith("Second"));
+
+	version = doc.getVersion();
+
+	title.getParent().setAttributeValue("id", "bk000");
+
+	Assert.assertTrue(doc.getVersion() > version);
+
+	Assert.assertEquals(doc.getValuesOf("book<id")[1], "bk000");
+
+	version = doc.getVersion();
+
+	doc.getElementsOf("book").get(0).addChildElement(new Element("isbn"));
+
+	Assert.assertTrue(doc.getVersion() > version);
+
+	Assert.assertEquals(doc.getValuesOf("book>isbn").length, 1);
+
+	doc.setQueryCacheSize(0);
+
+	Assert.assertNotSame(doc.mapOf("book"), doc.mapOf("book"));
+
+    }
+
+    @Test
+    public void testQueryCache_defaultContainer() throws SAXException {
+
+	Document doc = EasySAXParser
+		.parseText("<root><a><x>1</x></a><b><x>2</x></b></root>");
+
+	doc.setQueryCacheSize(16);
+
+	Assert.assertTrue(doc.setDefaultContainerByPath("a"));
+
+	Assert.assertEquals(doc.getValuesOf("x"), new String[] { "1" });
+
+	long version = doc.getVersion();
+
+	Assert.assertTrue(doc.setDefaultContainerByPath("b"));
+
+	Assert.assertTrue(doc.getVersion() > version);
+
+	Assert.assertEquals(doc.getValuesOf("x"), new String[] { "2" });
+
+    }
+
+    @Test
+    public void testQueryCache_pathMapsNotConfused() throws SAXException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	Document doc = EasySAXParser.parse(url);
+
+	doc.setQueryCacheSize(16);
+
+	// Both maps are printed as "{<id=a, price=b}" by toString()
+
+	Map<String, String> twoPaths = new LinkedHashMap<String, String>();
+
+	twoPaths.put("<id", "a");
+
+	twoPaths.put("price", "b");
+
+	Map<String, String> onePath = new LinkedHashMap<String, String>();
+
+	onePath.put("<id", "a, price=b");
+
+	Assert.assertEquals(twoPaths.toString(), onePath.toString());
+
+	List<? extends Map<String, String>> records = doc.mapOf("book",
+		twoPaths);
+
+	// The price of bk101 is commented out
+
+	Assert.assertEquals(records.get(1).keySet().size(), 2);
+
+	List<? extends Map<String, String>> others = doc.mapOf("book", onePath);
+
+	Assert.assertNotSame(others, records);
+
+	Assert.assertEquals(others.get(1).keySet().size(), 1);
+
+	Assert.assertEquals(others.get(1).get("a, price=b"), "bk102");
+
+	Assert.assertEquals(doc.mapOf("book", twoPaths), records);
+
+    }
+
+}
@@ -17,7 +17,9 @@ package org.easyxml.xml;
 
 import java.security.InvalidParameterException;
 import java.util.Arrays;
+import java.util.Collections;
 
+import org.apache.commons.lang3.StringUtils;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -571,6 +573,14 @@ public class ElementTest {
 	Assert.assertEquals(element.toString(2, true, true),
 		"        <ElementName>ElementValue</ElementName>");
 
+	// Indents beyond the cached levels are composed the same
+
+	int deep = SerializationContext.MaxCachedIndentLevel + 3;
+
+	Assert.assertEquals(element.toString(deep, true, true),
+		StringUtils.repeat(Element.DefaultIndentHolder, deep)
+			+ "<ElementName>ElementValue</ElementName>");
+
 	Assert.assertEquals(element.toString(2, false, false),
 		"        <ElementName>ElementValue</ElementName>");
 
@@ -811,4 +821,160 @@ public class ElementTest {
 
     }
 
+    /**
+     * 
+     * Test of Element.getElementsOf() with the empty path.
+     */
+
+    @Test
+    public void testElement_getElementsOf_emptyPath() throws SAXException {
+
+	Element parent = new Element("Parent");
+
+	parent.addAttribute("id", "p1");
+
+	Element leaf = new Element("Leaf", parent, "value");
+
+	leaf.addAttribute("id", "l1");
+
+	// The element itself, with or without children
+
+	Assert.assertEquals(parent.getElementsOf(""),
+		Collections.singletonList(parent));
+
+	Assert.assertEquals(leaf.getElementsOf(""),
+		Collections.singletonList(leaf));
+
+	Assert.assertEquals(parent.getValuesOf("<id"), new String[] { "p1" });
+
+	Assert.assertEquals(leaf.getValuesOf("<id"), new String[] { "l1" });
+
+	Assert.assertNull(leaf.getElementsOf("Leaf"));
+
+	Assert.assertEquals(parent.countOf("<id"), 1);
+
+	Assert.assertEquals(leaf.countOf("<id"), 1);
+
+    }
+
+    @Test
+    public void testPathExpression_compile() {
+
+	PathExpression plan = PathExpression.compile("Child[Name='a']>Grand<Id");
+
+	Assert.assertSame(PathExpression.compile("Child[Name='a']>Grand<Id"),
+		plan);
+
+	Assert.assertEquals(plan.getElementPath(), "Child[Name='a']>Grand");
+
+	Assert.assertEquals(plan.getAttributeName(), "Id");
+
+	Assert.assertTrue(plan.isPattern());
+
+	Assert.assertFalse(PathExpression.compile("Child>Grand<Id").isPattern());
+
+	// The same plan is shared by elements of different trees
+
+	Element first = new Element("Root");
+
+	first.setValuesOf("Child>Name", "a");
+
+	first.setValuesOf("Child>Grand<Id", "1", "2");
+
+	Element second = new Element("Root");
+
+	second.setValuesOf("Child>Name", "b");
+
+	second.setValuesOf("Child>Grand<Id", "3");
+
+	Assert.assertEquals(first.getValuesOf(plan.getPath()), new String[] {
+		"1", "2" });
+
+	Assert.assertNull(second.getValuesOf(plan.getPath()));
+
+	Assert.assertEquals(plan.select(first).size(), 2);
+
+	int size = PathExpression.getCacheSize();
+
+	try {
+
+	    PathExpression.setCacheSize(0);
+
+	    Assert.assertNotSame(PathExpression.compile(plan.getPath()), plan);
+
+	    PathExpression.setCacheSize(1);
+
+	    PathExpression last = PathExpression.compile("Child>*");
+
+	    Assert.assertSame(PathExpression.compile("Child>*"), last);
+
+	    PathExpression.compile("*");
+
+	    Assert.assertNotSame(PathExpression.compile("Child>*"), last);
+
+	    // Plain paths are cached too
+
+	    PathExpression.setCacheSize(16);
+
+	    Assert.assertSame(PathExpression.compile("Child>Grand"),
+		    PathExpression.compile("Child>Grand"));
+
+	    // The plan used since the hand passed it survives the eviction
+
+	    PathExpression.clearCache();
+
+	    PathExpression.setCacheSize(2);
+
+	    PathExpression a = PathExpression.compile("A>*");
+
+	    PathExpression b = PathExpression.compile("B>*");
+
+	    Assert.assertSame(PathExpression.compile("A>*"), a);
+
+	    PathExpression.compile("C>*");
+
+	    Assert.assertSame(PathExpression.compile("A>*"), a);
+
+	    Assert.assertNotSame(PathExpression.compile("B>*"), b);
+
+	    // The hand goes on from where it stopped instead of the oldest
+
+	    PathExpression.setCacheSize(3);
+
+	    PathExpression.clearCache();
+
+	    a = PathExpression.compile("A>*");
+
+	    b = PathExpression.compile("B>*");
+
+	    PathExpression c = PathExpression.compile("C>*");
+
+	    PathExpression.compile("A>*");
+
+	    PathExpression.compile("B>*");
+
+	    PathExpression.compile("C>*");
+
+	    // A full round clears all marks and evicts A, then the hand is at B
+
+	    PathExpression d = PathExpression.compile("D>*");
+
+	    Assert.assertSame(PathExpression.compile("D>*"), d);
+
+	    PathExpression.compile("E>*");
+
+	    Assert.assertSame(PathExpression.compile("C>*"), c);
+
+	    Assert.assertSame(PathExpression.compile("D>*"), d);
+
+	    Assert.assertNotSame(PathExpression.compile("B>*"), b);
+
+	} finally {
+
+	    PathExpression.setCacheSize(size);
+
+	}
+
+    }
+
 }
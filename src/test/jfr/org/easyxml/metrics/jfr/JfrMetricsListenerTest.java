@@ -0,0 +1,114 @@
+/*
+ * Created on Oct 19, 2026
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.easyxml.metrics.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.easyxml.metrics.Metrics;
+import org.easyxml.parser.EasySAXParser;
+import org.easyxml.xml.Document;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * Test of the JFR events emitted by JfrMetricsListener.
+ *
+ * @version $Id$
+ */
+
+public class JfrMetricsListenerTest {
+
+    @Test
+    public void testJfrMetricsListener_events() throws IOException {
+
+	URL url = Thread.currentThread().getContextClassLoader()
+		.getResource("books.xml");
+
+	File file = File.createTempFile("easyxml", ".jfr");
+
+	Recording recording = new Recording();
+
+	recording.enable(ParseEvent.class);
+
+	recording.enable(QueryEvent.class);
+
+	recording.enable(SerializeEvent.class);
+
+	Metrics.setListener(new JfrMetricsListener());
+
+	try {
+
+	    recording.start();
+
+	    Document doc = EasySAXParser.parse(url);
+
+	    doc.getValuesOf("book>title");
+
+	    doc.toString();
+
+	    doc.toJSON();
+
+	    recording.stop();
+
+	    recording.dump(file.toPath());
+
+	    List<RecordedEvent> events = RecordingFile.readAllEvents(file
+		    .toPath());
+
+	    Map<String, RecordedEvent> lastEvents = new HashMap<String, RecordedEvent>();
+
+	    for (RecordedEvent event : events) {
+
+		lastEvents.put(event.getEventType().getName(), event);
+
+	    }
+
+	    RecordedEvent parse = lastEvents.get("org.easyxml.Parse");
+
+	    Assert.assertEquals(parse.getString("parser"), EasySAXParser.Name);
+
+	    Assert.assertEquals(parse.getInt("nodeCount"), Metrics.nodesOf(doc));
+
+	    Assert.assertTrue(parse.getLong("parseDuration") > 0);
+
+	    Assert.assertNotNull(lastEvents.get("org.easyxml.Query"));
+
+	    Assert.assertEquals(lastEvents.get("org.easyxml.Serialize")
+		    .getString("format"), Metrics.Json);
+
+	} finally {
+
+	    Metrics.setListener(null);
+
+	    recording.close();
+
+	    file.delete();
+
+	}
+
+    }
+
+}